@@ -0,0 +1,80 @@
+package com.azure;
+
+import com.benchmarks.BenchmarkConfig;
+import com.benchmarks.SuiteFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.model.TestCaseData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning one suite page (SuiteFixtures, built from a recorded TestCase item) into
+ * TestCaseData: the streaming page reader plus AzureDevOpsClient.parseTestCaseItem,
+ * with and without materialising the lazily parsed steps and data rows.
+ *
+ * Lives in com.azure because the page reader and parseTestCaseItem are package-private.
+ * Run with: java -jar target/benchmarks.jar TestCaseItemBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TestCaseItemBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public SuiteFixtures.Size size;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private AzureDevOpsClient client;
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        client = new AzureDevOpsClient(BenchmarkConfig.create());
+        page = SuiteFixtures.suitePage(size);
+    }
+
+    @Benchmark
+    public int readPage(Blackhole bh) throws Exception {
+        int count = 0;
+        try (TestCasePageReader reader = new TestCasePageReader(mapper, new ByteArrayInputStream(page))) {
+            JsonNode item;
+            while ((item = reader.nextItem()) != null) {
+                bh.consume(client.parseTestCaseItem(item));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int readPageWithContent(Blackhole bh) throws Exception {
+        int count = 0;
+        try (TestCasePageReader reader = new TestCasePageReader(mapper, new ByteArrayInputStream(page))) {
+            JsonNode item;
+            while ((item = reader.nextItem()) != null) {
+                TestCaseData data = client.parseTestCaseItem(item);
+                bh.consume(data.getSteps());
+                bh.consume(data.getDataRows());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+package com.benchmarks;
+
+import com.azure.AzureDevOpsClient;
+import com.azure.AzureResultPublisher;
+import com.config.FrameworkConfig;
+import com.model.ExecutionReport;
+import com.model.IterationReport;
+import com.model.StepReport;
+import com.model.StepStatus;
+import com.model.TestCaseData;
+import com.standin.AzureDevOpsStandIn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end loader and publisher throughput against AzureDevOpsStandIn over loopback HTTP:
+ *  - loadWholePlan: suite tree + every suite's TestCase pages (azure.loadWholePlan=true)
+ *  - publishResults: one ExecutionReport per test case through AzureResultPublisher
+ *
+ * Scaling is explored with the suite count, the simulated server latency and
+ * azure.http.maxConcurrentRequests. The client-side token bucket is off so the
+ * numbers show what the loader itself can do.
+ * Run with: java -jar target/benchmarks.jar AzureStandInBenchmark -p latencyMs=20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AzureStandInBenchmark {
+
+    @Param({"1", "8"})
+    public int suites;
+
+    @Param({"0", "20"})
+    public long latencyMs;
+
+    @Param({"1", "8"})
+    public int maxConcurrentRequests;
+
+    private AzureDevOpsStandIn standIn;
+    private AzureDevOpsClient client;
+    private List<ExecutionReport> reports;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        standIn = AzureDevOpsStandIn.start(new AzureDevOpsStandIn.Options()
+                .suites(suites)
+                .testCasesPerSuite(200)
+                .stepsPerTestCase(20)
+                .rowsPerTestCase(10)
+                .pageSize(100)
+                .latencyMs(latencyMs));
+
+        Properties props = BenchmarkConfig.defaults();
+        props.setProperty("azure.projectUrl", standIn.getProjectUrl());
+        props.setProperty("azure.planId", String.valueOf(standIn.getPlanId()));
+        props.setProperty("azure.loadWholePlan", "true");
+        props.setProperty("azure.http.maxConcurrentRequests", String.valueOf(maxConcurrentRequests));
+        props.setProperty("azure.http.requestsPerSecond", "0");
+        client = new AzureDevOpsClient(new FrameworkConfig(props));
+
+        List<TestCaseData> testCases = client.loadConfiguredTestCases();
+        if (testCases.size() != standIn.getTestCaseCount()) {
+            throw new IllegalStateException("Loaded " + testCases.size() + " of " + standIn.getTestCaseCount() + " test cases");
+        }
+        reports = new ArrayList<>(testCases.size());
+        for (TestCaseData testCase : testCases) {
+            reports.add(passedReport(testCase));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        standIn.close();
+    }
+
+    @Benchmark
+    public List<TestCaseData> loadWholePlan() throws Exception {
+        return client.loadConfiguredTestCases();
+    }
+
+    @Benchmark
+    public int publishResults() {
+        AzureResultPublisher publisher = new AzureResultPublisher(client, standIn.getRunId(), 1000, 100, 0);
+        for (ExecutionReport report : reports) {
+            publisher.submit(report);
+        }
+        publisher.close();
+        if (publisher.getFailedCount() > 0) {
+            throw new IllegalStateException("Publishing failed: " + publisher);
+        }
+        return publisher.getPublishedCount();
+    }
+
+    private static ExecutionReport passedReport(TestCaseData testCase) {
+        ExecutionReport report = ExecutionReport.start(testCase);
+        IterationReport iteration = new IterationReport();
+        iteration.iterationId = 1;
+        iteration.startTimeMillis = report.startTimeMillis;
+        for (int i = 0; i < 5; i++) {
+            StepReport step = new StepReport();
+            step.stepIndex = i + 2;
+            step.stepPath = String.format("%08x", i + 2);
+            step.indexString = String.valueOf(i + 1);
+            step.iterationId = 1;
+            step.status = StepStatus.PASSED;
+            step.startTimeMillis = report.startTimeMillis;
+            step.endTimeMillis = report.startTimeMillis + 10;
+            iteration.steps.add(step);
+        }
+        iteration.endTimeMillis = report.startTimeMillis + 50;
+        report.iterations.add(iteration);
+        report.endTimeMillis = iteration.endTimeMillis;
+        return report;
+    }
+}
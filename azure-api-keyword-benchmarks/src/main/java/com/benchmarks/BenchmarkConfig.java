@@ -0,0 +1,35 @@
+package com.benchmarks;
+
+import com.config.FrameworkConfig;
+
+import java.util.Properties;
+
+/**
+ * FrameworkConfig for benchmarks: no config.properties, no real Azure or Oracle.
+ * The database is an in-memory H2 in Oracle compatibility mode.
+ */
+public final class BenchmarkConfig {
+
+    public static final String H2_URL = "jdbc:h2:mem:benchmarks;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkConfig() {
+    }
+
+    public static Properties defaults() {
+        Properties props = new Properties();
+        props.setProperty("azure.projectUrl", "http://localhost:1/bench");
+        props.setProperty("azure.pat", "benchmark");
+        props.setProperty("azure.planId", "2008");
+        props.setProperty("azure.suiteId", "2060");
+        props.setProperty("azure.cache.enabled", "false");
+        props.setProperty("db.url", H2_URL);
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("metrics.enabled", "false");
+        return props;
+    }
+
+    public static FrameworkConfig create() {
+        return new FrameworkConfig(defaults());
+    }
+}
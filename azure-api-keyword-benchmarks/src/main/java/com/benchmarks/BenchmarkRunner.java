@@ -0,0 +1,46 @@
+package com.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Main class of target/benchmarks.jar: plain JMH command line, except that results are
+ * always written machine-readable. Without -rf/-rff the run writes JSON to
+ * jmh-results/jmh-result.json, which can be compared between commits (e.g. with
+ * jmh.morethan.me or any JSON diff).
+ *
+ *   java -jar target/benchmarks.jar                          all benchmarks
+ *   java -jar target/benchmarks.jar KeywordDispatch -p steps=20
+ *   java -jar target/benchmarks.jar -rf csv -rff before.csv  other format/file
+ */
+public class BenchmarkRunner {
+
+    private static final Path DEFAULT_RESULT = Paths.get("jmh-results", "jmh-result.json");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            // Listing and help are handled by JMH's own main
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            Files.createDirectories(DEFAULT_RESULT.getParent());
+            options.result(DEFAULT_RESULT.toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.benchmarks;
+
+import com.iso.Iso87BCodec;
+import com.iso.IsoChannel;
+import com.iso.IsoMessage;
+import com.standin.IsoSwitchStandIn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A batch of authorizations against IsoSwitchStandIn over loopback:
+ *  - socketPerMessage: new Socket, write, blocking read, close - one message at a time,
+ *    as the Iso87bSocketClient sketch in com/parser/Bitmapper does (without its hex dumps)
+ *  - pipelined:        IsoChannel, the whole batch in flight at once (up to maxInFlight)
+ *
+ * The stand-in's latencyMs is the simulated switch time per message.
+ * Run with: java -jar target/benchmarks.jar IsoChannelBenchmark -p latencyMs=5
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IsoChannelBenchmark {
+
+    private static final byte[] TPDU = {0x60, 0x01, 0x50, 0x00, 0x00};
+
+    @Param({"0", "5"})
+    public long latencyMs;
+
+    @Param({"200"})
+    public int batch;
+
+    private IsoSwitchStandIn standIn;
+    private IsoChannel channel;
+    private int stan;
+
+    @Setup
+    public void setUp() throws IOException {
+        standIn = IsoSwitchStandIn.start(new IsoSwitchStandIn.Options().latencyMs(latencyMs));
+        channel = new IsoChannel("127.0.0.1", standIn.getPort(), 2, 256, 10_000, 5_000, TPDU);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+        standIn.close();
+    }
+
+    private IsoMessage authorization() {
+        stan = stan % 999999 + 1;
+        return new IsoMessage("0200")
+                .set(2, "4111111111111111")
+                .set(3, "000000")
+                .set(4, "000000001000")
+                .set(11, String.format("%06d", stan))
+                .set(22, "071")
+                .set(41, "TERM0001")
+                .set(49, "634");
+    }
+
+    @Benchmark
+    public int socketPerMessage() throws IOException {
+        int approved = 0;
+        for (int i = 0; i < batch; i++) {
+            byte[] iso = Iso87BCodec.pack(authorization());
+            try (Socket socket = new Socket("127.0.0.1", standIn.getPort())) {
+                socket.setSoTimeout(20000);
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                byte[] frame = new byte[2 + TPDU.length + iso.length];
+                frame[0] = (byte) ((frame.length - 2) >>> 8);
+                frame[1] = (byte) (frame.length - 2);
+                System.arraycopy(TPDU, 0, frame, 2, TPDU.length);
+                System.arraycopy(iso, 0, frame, 2 + TPDU.length, iso.length);
+                out.write(frame);
+                out.flush();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                byte[] body = new byte[in.readUnsignedShort()];
+                in.readFully(body);
+                IsoMessage response = Iso87BCodec.unpack(body, TPDU.length, body.length - TPDU.length);
+                if ("00".equals(response.getString(39))) {
+                    approved++;
+                }
+            }
+        }
+        return approved;
+    }
+
+    @Benchmark
+    public int pipelined() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<IsoMessage>[] futures = new CompletableFuture[batch];
+        for (int i = 0; i < batch; i++) {
+            futures[i] = channel.send(authorization());
+        }
+        int approved = 0;
+        for (CompletableFuture<IsoMessage> future : futures) {
+            if ("00".equals(future.join().getString(39))) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+}
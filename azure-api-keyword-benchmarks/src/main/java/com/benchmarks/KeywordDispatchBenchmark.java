@@ -0,0 +1,113 @@
+package com.benchmarks;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.keywords.ExecutionPlan;
+import com.keywords.KeywordContext;
+import com.keywords.KeywordExecutor;
+import com.model.TestCaseData;
+import com.model.TestStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword extraction and dispatch for one data row of a test case whose handlers do
+ * almost nothing, so the numbers are framework overhead only:
+ *  - compile: keyword/argument extraction from the step HTML and handler lookup
+ *  - executeDispatch: KeywordExecutor.execute per step (handler lookup by name each time)
+ *  - planRun: ExecutionPlan.run over the precompiled steps
+ *
+ * Extent nodes are real (in-memory, no reporter attached); the root's children are
+ * dropped every CLEAR_EVERY rows so the report does not grow for the whole run.
+ * Run with: java -jar target/benchmarks.jar KeywordDispatchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeywordDispatchBenchmark {
+
+    private static final int CLEAR_EVERY = 256;
+
+    @Param({"5", "20", "100"})
+    public int steps;
+
+    private TestCaseData testCase;
+    private KeywordExecutor executor;
+    private ExecutionPlan plan;
+    private String[] keywords;
+    private Map<String, String> row;
+    private ExtentTest root;
+    private int rowsSinceClear;
+
+    @Setup
+    public void setUp() {
+        testCase = new TestCaseData(1, "Keyword dispatch");
+        testCase.setWorkItemXml(SuiteFixtures.stepsXml(steps), SuiteFixtures.dataSourceXml(1, 8));
+        row = testCase.getDataRows().get(0);
+
+        executor = new KeywordExecutor();
+        for (String keyword : SuiteFixtures.KEYWORDS) {
+            executor.register(keyword, ctx -> {
+                if (ctx.getDataRow().get("param0") == null || ctx.getArguments().isEmpty()) {
+                    throw new IllegalStateException("fixture without data");
+                }
+            });
+        }
+        plan = executor.compile(testCase);
+
+        List<TestStep> testSteps = testCase.getSteps();
+        keywords = new String[testSteps.size()];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = SuiteFixtures.KEYWORDS[testSteps.get(i).getId() % SuiteFixtures.KEYWORDS.length];
+        }
+        root = new ExtentReports().createTest("benchmark");
+    }
+
+    private ExtentTest rowNode() {
+        if (++rowsSinceClear == CLEAR_EVERY) {
+            root.getModel().getChildren().clear();
+            rowsSinceClear = 0;
+        }
+        return root.createNode("Data Row");
+    }
+
+    @Benchmark
+    public ExecutionPlan compile() {
+        return executor.compile(testCase);
+    }
+
+    @Benchmark
+    public ExtentTest executeDispatch() {
+        ExtentTest rowNode = rowNode();
+        List<TestStep> testSteps = testCase.getSteps();
+        for (int i = 0; i < keywords.length; i++) {
+            TestStep step = testSteps.get(i);
+            ExtentTest stepNode = rowNode.createNode("Step " + step.getId() + " [" + keywords[i] + "]");
+            executor.execute(keywords[i], new KeywordContext(testCase, step, row, null, null, stepNode, List.of("x")));
+        }
+        return rowNode;
+    }
+
+    @Benchmark
+    public ExtentTest planRun() {
+        ExtentTest rowNode = rowNode();
+        plan.run(row, null, null, rowNode);
+        return rowNode;
+    }
+}
@@ -0,0 +1,98 @@
+package com.benchmarks;
+
+import com.OracleDbClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OracleDbClient row mapping against an in-memory H2 database (Oracle mode), so the
+ * numbers cover the client's ResultSet-to-row conversion and pooling, not the network:
+ *  - queryForList: every row materialised as a Map
+ *  - queryForEach: rows streamed through a callback, one column read per row
+ *  - queryForListNamed: same as queryForList with :NAME binds from a data row
+ *
+ * Run with: java -jar target/benchmarks.jar OracleDbClientBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OracleDbClientBenchmark {
+
+    private static final String SELECT = "select id, pan, amount, currency, status, response_code, created_at, updated_at"
+            + " from card_auth where id <= ?";
+    private static final String SELECT_NAMED = "select id, pan, amount, currency, status, response_code, created_at, updated_at"
+            + " from card_auth where id <= :MAX_ID and status = :STATUS";
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private OracleDbClient db;
+    private Map<String, String> dataRow;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        db = new OracleDbClient(BenchmarkConfig.create());
+        db.executeUpdate("drop table if exists card_auth");
+        db.executeUpdate("create table card_auth (id number(10) primary key, pan varchar2(19), amount number(12,2),"
+                + " currency varchar2(3), status varchar2(16), response_code varchar2(2),"
+                + " created_at timestamp, updated_at timestamp)");
+
+        List<Map<String, Object>> seed = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("ID", i);
+            row.put("PAN", String.format("4000%012d", i));
+            row.put("AMOUNT", i % 1000 + 0.5);
+            row.put("STATUS", "APPROVED");
+            seed.add(row);
+        }
+        db.executeBatch("insert into card_auth values (:ID, :PAN, :AMOUNT, 'EUR', :STATUS, '00',"
+                + " current_timestamp, current_timestamp)", seed);
+
+        dataRow = new HashMap<>();
+        dataRow.put("MAX_ID", String.valueOf(rows));
+        dataRow.put("STATUS", "APPROVED");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> queryForList() throws SQLException {
+        return db.queryForList(SELECT, rows);
+    }
+
+    @Benchmark
+    public long queryForEach(Blackhole bh) throws SQLException {
+        return db.queryForEach(SELECT, row -> bh.consume(row.get(1)), rows);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> queryForListNamed() throws SQLException {
+        return db.queryForList(SELECT_NAMED, dataRow);
+    }
+}
@@ -0,0 +1,111 @@
+package com.benchmarks;
+
+import com.keywords.StepTemplate;
+import com.model.DataRow;
+import com.model.DataTable;
+import com.model.TestCaseData;
+import com.parser.HtmlTextNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @parameter substitution of one step's action and expected text for every data row:
+ *  - template:     StepTemplate compiled once, rendered per row (indexed column lookups)
+ *  - replaceLoop:  String.replace of "@column" for every column, per row - what each handler
+ *                  would otherwise do (and wrong for @param1 vs @param10)
+ *  - regex:        one Matcher pass per text and row with a map lookup per match
+ *
+ * Run with: java -jar target/benchmarks.jar StepTemplateBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StepTemplateBenchmark {
+
+    private static final Pattern PARAMETER = Pattern.compile("@([A-Za-z_]\\w*)");
+
+    @Param({"8", "32"})
+    public int columns;
+
+    private DataRow[] rows;
+    private String[] columnNames;
+    private String action;
+    private String expected;
+    private StepTemplate actionTemplate;
+    private StepTemplate expectedTemplate;
+
+    @Setup
+    public void setUp() {
+        TestCaseData testCase = new TestCaseData(1, "Step templates");
+        testCase.setWorkItemXml(SuiteFixtures.stepsXml(1), SuiteFixtures.dataSourceXml(64, columns));
+        DataTable table = testCase.getDataTable();
+        rows = new DataRow[table.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = table.get(i);
+        }
+        columnNames = table.getSchema().columns();
+        action = HtmlTextNormalizer.toPlainText(testCase.getSteps().get(0).getAction());
+        expected = HtmlTextNormalizer.toPlainText(testCase.getSteps().get(0).getExpected());
+        actionTemplate = StepTemplate.compile(action, table.getSchema(), null);
+        expectedTemplate = StepTemplate.compile(expected, table.getSchema(), null);
+    }
+
+    @Benchmark
+    public void template(Blackhole bh) {
+        for (DataRow row : rows) {
+            bh.consume(actionTemplate.render(row));
+            bh.consume(expectedTemplate.render(row));
+        }
+    }
+
+    @Benchmark
+    public void replaceLoop(Blackhole bh) {
+        for (DataRow row : rows) {
+            String a = action;
+            String e = expected;
+            for (String column : columnNames) {
+                String value = row.get(column);
+                a = a.replace("@" + column, value);
+                e = e.replace("@" + column, value);
+            }
+            bh.consume(a);
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        for (DataRow row : rows) {
+            bh.consume(regexRender(action, row));
+            bh.consume(regexRender(expected, row));
+        }
+    }
+
+    private static String regexRender(String text, Map<String, String> row) {
+        Matcher m = PARAMETER.matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String value = row.get(m.group(1));
+            m.appendReplacement(sb, Matcher.quoteReplacement(value != null ? value : ""));
+        }
+        return m.appendTail(sb).toString();
+    }
+}
@@ -0,0 +1,151 @@
+package com.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Benchmark inputs shaped like real Azure DevOps responses.
+ *
+ * Suite pages are built from fixtures/testcase-item.json (one recorded item of the
+ * testplan/.../TestCase endpoint): every copy gets its own id and generated Steps /
+ * LocalDataSource XML, so only the size varies between SMALL, MEDIUM and LARGE.
+ */
+public final class SuiteFixtures {
+
+    /**
+     * Keywords used by the generated steps, in rotation.
+     */
+    public static final String[] KEYWORDS = {"API_POST", "API_GET", "DB_CHECK", "SET_VAR"};
+
+    public enum Size {
+        // test cases per page, steps per case, data rows per case
+        SMALL(10, 5, 5),
+        MEDIUM(100, 20, 20),
+        LARGE(1000, 20, 50);
+
+        public final int testCases;
+        public final int steps;
+        public final int rows;
+
+        Size(int testCases, int steps, int rows) {
+            this.testCases = testCases;
+            this.steps = steps;
+            this.rows = rows;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectNode RECORDED_ITEM = recordedItem();
+
+    private SuiteFixtures() {
+    }
+
+    /**
+     * One page of the suite TestCase endpoint ({"value": [...], "count": n}) as UTF-8 bytes.
+     */
+    public static byte[] suitePage(Size size) {
+        return suitePage(size.testCases, size.steps, size.rows, 8);
+    }
+
+    public static byte[] suitePage(int testCases, int steps, int rows, int columns) {
+        String stepsXml = stepsXml(steps);
+        String dataSourceXml = dataSourceXml(rows, columns);
+
+        ObjectNode page = MAPPER.createObjectNode();
+        ArrayNode items = page.putArray("value");
+        for (int i = 0; i < testCases; i++) {
+            items.add(testCaseItem(2008, 2060, "Card authorisation - data driven", 100000 + i, i, stepsXml, dataSourceXml));
+        }
+        page.put("count", testCases);
+        try {
+            return MAPPER.writeValueAsBytes(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A copy of the recorded item for another test case. Null XML leaves the field out,
+     * as the server does when witFields does not ask for it.
+     */
+    public static ObjectNode testCaseItem(int planId, int suiteId, String suiteName, int id, int order,
+                                          String stepsXml, String dataSourceXml) {
+        ObjectNode item = RECORDED_ITEM.deepCopy();
+        item.put("order", order);
+        ((ObjectNode) item.get("testPlan")).put("id", planId);
+        ObjectNode suite = (ObjectNode) item.get("testSuite");
+        suite.put("id", suiteId);
+        suite.put("name", suiteName);
+        ObjectNode workItem = (ObjectNode) item.get("workItem");
+        workItem.put("id", id);
+        workItem.put("name", "Generated test case " + id);
+        ArrayNode fields = workItem.withArray("workItemFields");
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            ObjectNode f = (ObjectNode) fields.get(i);
+            if (f.has("Microsoft.VSTS.TCM.Steps")) {
+                replaceOrRemove(fields, i, "Microsoft.VSTS.TCM.Steps", stepsXml);
+            } else if (f.has("Microsoft.VSTS.TCM.LocalDataSource")) {
+                replaceOrRemove(fields, i, "Microsoft.VSTS.TCM.LocalDataSource", dataSourceXml);
+            }
+        }
+        return item;
+    }
+
+    private static void replaceOrRemove(ArrayNode fields, int index, String field, String value) {
+        if (value == null) {
+            fields.remove(index);
+        } else {
+            ((ObjectNode) fields.get(index)).put(field, value);
+        }
+    }
+
+    private static ObjectNode recordedItem() {
+        try (InputStream is = SuiteFixtures.class.getClassLoader().getResourceAsStream("fixtures/testcase-item.json")) {
+            if (is == null) {
+                throw new IllegalStateException("fixtures/testcase-item.json not found on classpath");
+            }
+            return (ObjectNode) MAPPER.readTree(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fixtures/testcase-item.json", e);
+        }
+    }
+
+    /**
+     * Microsoft.VSTS.TCM.Steps value with the given number of steps (ids 2..steps+1).
+     */
+    public static String stepsXml(int steps) {
+        StringBuilder sb = new StringBuilder("<steps id=\"0\" last=\"").append(steps + 1).append("\">");
+        for (int i = 2; i < steps + 2; i++) {
+            sb.append("<step id=\"").append(i).append("\" type=\"").append(i % 2 == 0 ? "ActionStep" : "ValidateStep").append("\">")
+                    .append("<parameterizedString isformatted=\"true\">")
+                    .append("&lt;DIV&gt;&lt;P&gt;").append(KEYWORDS[i % KEYWORDS.length])
+                    .append(" /cards/@param0/authorize amount=@param1 step ").append(i)
+                    .append("&lt;/P&gt;&lt;/DIV&gt;</parameterizedString>")
+                    .append("<parameterizedString isformatted=\"true\">")
+                    .append("&lt;P&gt;{&quot;responseCode&quot;: &quot;00&quot;, &quot;stan&quot;: &quot;@param2&quot;}&lt;BR/&gt;&lt;/P&gt;")
+                    .append("</parameterizedString><description/></step>");
+        }
+        return sb.append("</steps>").toString();
+    }
+
+    /**
+     * Microsoft.VSTS.TCM.LocalDataSource value with columns param0..param{columns-1}.
+     */
+    public static String dataSourceXml(int rows, int columns) {
+        StringBuilder sb = new StringBuilder("<NewDataSet>");
+        for (int r = 0; r < rows; r++) {
+            sb.append("<Table1>");
+            for (int c = 0; c < columns; c++) {
+                sb.append("<param").append(c).append('>').append("value-").append(r).append('-').append(c)
+                        .append("</param").append(c).append('>');
+            }
+            sb.append("</Table1>");
+        }
+        return sb.append("</NewDataSet>").toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.benchmarks;
+
+import com.model.TestCaseData;
+import com.parser.WorkItemXmlParser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained heap of a parsed suite: the previous TestCaseData layout (own copies of
+ * plan/suite/project names, one LinkedHashMap per data row) against the compact one
+ * (interned SuiteInfo, String[] rows over a shared RowSchema).
+ *
+ * Both sides parse the same LocalDataSource XML and hold every test case at once,
+ * as a DataProvider does. Run with a fixed heap for stable numbers, e.g. -Xmx2g:
+ *   java -Xmx2g -cp target/benchmarks.jar com.benchmarks.TestCaseFootprintBenchmark
+ */
+public class TestCaseFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int[][] shapes = {
+                // test cases, rows per case, columns
+                {1000, 10, 8},
+                {2000, 50, 12},
+                {500, 500, 16},
+        };
+
+        System.out.printf("%8s %6s %6s %14s %14s %12s %12s%n",
+                "cases", "rows", "cols", "legacy MB", "compact MB", "legacy B/row", "compact B/row");
+
+        for (int[] shape : shapes) {
+            int cases = shape[0];
+            int rows = shape[1];
+            int cols = shape[2];
+            String xml = SuiteFixtures.dataSourceXml(rows, cols);
+
+            long legacy = retained(() -> legacySuite(cases, xml));
+            long compact = retained(() -> compactSuite(cases, xml));
+            long totalRows = (long) cases * rows;
+
+            System.out.printf("%8d %6d %6d %14.1f %14.1f %12d %12d%n",
+                    cases, rows, cols,
+                    legacy / (1024.0 * 1024.0), compact / (1024.0 * 1024.0),
+                    legacy / totalRows, compact / totalRows);
+        }
+    }
+
+    // ---- Previous layout (baseline) ----
+
+    static final class LegacyTestCase {
+        int id;
+        String title;
+        int order;
+        int planId;
+        String planName;
+        int suiteId;
+        String suiteName;
+        String projectName;
+        String state;
+        Integer priority;
+        final List<String> configurations = new ArrayList<>();
+        final List<Map<String, String>> dataRows = new ArrayList<>();
+    }
+
+    private static List<Object> legacySuite(int cases, String xml) throws Exception {
+        List<Object> suite = new ArrayList<>(cases);
+        for (int i = 0; i < cases; i++) {
+            LegacyTestCase tc = new LegacyTestCase();
+            tc.id = i;
+            tc.title = "Test case " + i;
+            tc.order = i;
+            tc.planId = 2008;
+            // Every JSON item yields its own String instances
+            tc.planName = new String("Release 24.1 regression plan");
+            tc.suiteId = 2060;
+            tc.suiteName = new String("Card authorisation - data driven");
+            tc.projectName = new String("ITCards");
+            tc.state = new String("Ready");
+            tc.priority = 2;
+            tc.configurations.add(new String("Windows 10"));
+            WorkItemXmlParser.parseDataSource(xml, row -> tc.dataRows.add(new LinkedHashMap<>(row)));
+            suite.add(tc);
+        }
+        return suite;
+    }
+
+    // ---- Compact layout ----
+
+    private static List<Object> compactSuite(int cases, String xml) {
+        List<Object> suite = new ArrayList<>(cases);
+        for (int i = 0; i < cases; i++) {
+            TestCaseData tc = new TestCaseData(i, "Test case " + i, i,
+                    2008, new String("Release 24.1 regression plan"),
+                    2060, new String("Card authorisation - data driven"),
+                    new String("ITCards"), new String("Ready"), 2);
+            tc.addConfiguration(new String("Windows 10"));
+            tc.setWorkItemXml(null, xml);
+            tc.getDataRows();
+            suite.add(tc);
+        }
+        return suite;
+    }
+
+    // ---- Measurement ----
+
+    @FunctionalInterface
+    private interface Builder {
+        List<Object> build() throws Exception;
+    }
+
+    /**
+     * Heap still in use after building (and holding) the suite, minus the heap in use before.
+     */
+    private static long retained(Builder builder) throws Exception {
+        long before = usedAfterGc();
+        List<Object> suite = builder.build();
+        long after = usedAfterGc();
+        if (suite.isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Several rounds until the number settles
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+}
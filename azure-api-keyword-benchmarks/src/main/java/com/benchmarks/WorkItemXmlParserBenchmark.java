@@ -0,0 +1,136 @@
+package com.benchmarks;
+
+import com.parser.AzureStepParser;
+import com.parser.WorkItemXmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkItemXmlParser (StAX) and AzureStepParser on generated Steps / LocalDataSource XML
+ * of increasing size, with the previous per-call DOM parsing (new DocumentBuilderFactory +
+ * byte[] copy + full Document) kept as the baseline.
+ *
+ * Run with: java -jar target/benchmarks.jar WorkItemXmlParserBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkItemXmlParserBenchmark {
+
+    @Param({"20", "200", "2000"})
+    public int size;
+
+    private String steps;
+    private String data;
+
+    @Setup
+    public void setUp() throws Exception {
+        steps = SuiteFixtures.stepsXml(size);
+        data = SuiteFixtures.dataSourceXml(size, 8);
+        // Same output from both paths before timing anything
+        if (!domSteps(steps).equals(staxSteps(steps)) || !domRows(data).equals(WorkItemXmlParser.parseDataSource(data))) {
+            throw new IllegalStateException("DOM and StAX results differ for size " + size);
+        }
+    }
+
+    @Benchmark
+    public Object stepsStax() throws Exception {
+        return staxSteps(steps);
+    }
+
+    @Benchmark
+    public Object stepsDom() throws Exception {
+        return domSteps(steps);
+    }
+
+    @Benchmark
+    public Object stepsAzureStepParser() throws Exception {
+        return AzureStepParser.parseSteps(steps);
+    }
+
+    @Benchmark
+    public Object dataSourceStax() throws Exception {
+        return WorkItemXmlParser.parseDataSource(data);
+    }
+
+    @Benchmark
+    public Object dataSourceDom() throws Exception {
+        return domRows(data);
+    }
+
+    // ---- Previous DOM implementation (baseline) ----
+
+    private static List<String> domSteps(String stepsXml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(false);
+        ByteArrayInputStream is = new ByteArrayInputStream(stepsXml.getBytes(StandardCharsets.UTF_8));
+        Document doc = factory.newDocumentBuilder().parse(is);
+        NodeList stepNodes = doc.getElementsByTagName("step");
+
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < stepNodes.getLength(); i++) {
+            Element stepEl = (Element) stepNodes.item(i);
+            NodeList paramNodes = stepEl.getElementsByTagName("parameterizedString");
+            String action = paramNodes.getLength() > 0 ? paramNodes.item(0).getTextContent() : "";
+            String expected = paramNodes.getLength() > 1 ? paramNodes.item(1).getTextContent() : "";
+            out.add(stepEl.getAttribute("id") + "|" + stepEl.getAttribute("type") + "|" + action + "|" + expected);
+        }
+        return out;
+    }
+
+    private static List<Map<String, String>> domRows(String dataSourceXml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(false);
+        ByteArrayInputStream is = new ByteArrayInputStream(dataSourceXml.getBytes(StandardCharsets.UTF_8));
+        Document doc = factory.newDocumentBuilder().parse(is);
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        NodeList tableNodes = doc.getElementsByTagName("Table1");
+        for (int i = 0; i < tableNodes.getLength(); i++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            NodeList children = tableNodes.item(i).getChildNodes();
+            for (int j = 0; j < children.getLength(); j++) {
+                Node n = children.item(j);
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    row.put(((Element) n).getTagName(), n.getTextContent());
+                }
+            }
+            if (!row.isEmpty()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> staxSteps(String stepsXml) throws Exception {
+        List<String> out = new ArrayList<>();
+        WorkItemXmlParser.parseSteps(stepsXml, (id, type, action, expected) ->
+                out.add(id + "|" + type + "|" + action + "|" + expected));
+        return out;
+    }
+}
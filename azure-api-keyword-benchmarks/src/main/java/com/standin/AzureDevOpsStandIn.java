@@ -0,0 +1,534 @@
+package com.standin;
+
+import com.benchmarks.SuiteFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the parts of Azure DevOps Server that AzureDevOpsClient and
+ * AzureResultPublisher use, on the JDK HttpServer:
+ *
+ *   GET   {project}/_apis/testplan/Plans/{plan}/suites                      suite tree, paged
+ *   GET   {project}/_apis/testplan/Plans/{plan}/Suites/{suite}/TestCase[/{ids}]
+ *                                                      test cases, paged, witFields=System.Rev honoured
+ *   GET   {project}/_apis/test/Runs/{run}/results?$top=&$skip=              one result per test case
+ *   PATCH {project}/_apis/test/Runs/{run}/results                           counts updated results
+ *
+ * Paging uses the x-ms-continuationtoken header like the real server. Every response can
+ * be delayed (latencyMs + random jitter), and with requestsPerSecond set, requests beyond
+ * that rate in a one-second window get 429 with Retry-After and X-RateLimit-* headers.
+ *
+ * Point the framework at it with azure.projectUrl = getProjectUrl(). Also runnable on
+ * its own: java -cp target/benchmarks.jar com.standin.AzureDevOpsStandIn port=18080 suites=8
+ */
+public class AzureDevOpsStandIn implements AutoCloseable {
+
+    private static final Pattern SUITES = Pattern.compile(
+            ".*/_apis/testplan/Plans/(\\d+)/suites/?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TEST_CASES = Pattern.compile(
+            ".*/_apis/testplan/Plans/(\\d+)/Suites/(\\d+)/TestCase(?:/([\\d,]+))?/?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RUN_RESULTS = Pattern.compile(
+            ".*/_apis/test/Runs/(\\d+)/results/?", Pattern.CASE_INSENSITIVE);
+
+    private static final String CONTINUATION_TOKEN_HEADER = "x-ms-continuationtoken";
+    private static final int FIRST_RESULT_ID = 100000;
+    // The real server never returns more than this many results per GET
+    private static final int MAX_RESULTS_PER_PAGE = 1000;
+
+    /**
+     * Stand-in settings; fluent setters, all optional.
+     */
+    public static final class Options {
+        int port;
+        String projectPath = "/ITCards";
+        int planId = 2008;
+        int suites = 4;
+        int testCasesPerSuite = 100;
+        int stepsPerTestCase = 20;
+        int rowsPerTestCase = 10;
+        int columnsPerRow = 8;
+        int pageSize = 200;
+        int runId = 1;
+        long latencyMs;
+        long latencyJitterMs;
+        int requestsPerSecond;
+        int retryAfterSeconds = 1;
+        int threads = 32;
+
+        /** 0 picks a free port. */
+        public Options port(int port) { this.port = port; return this; }
+        public Options projectPath(String projectPath) { this.projectPath = projectPath; return this; }
+        public Options planId(int planId) { this.planId = planId; return this; }
+        public Options suites(int suites) { this.suites = suites; return this; }
+        public Options testCasesPerSuite(int count) { this.testCasesPerSuite = count; return this; }
+        public Options stepsPerTestCase(int count) { this.stepsPerTestCase = count; return this; }
+        public Options rowsPerTestCase(int count) { this.rowsPerTestCase = count; return this; }
+        public Options columnsPerRow(int count) { this.columnsPerRow = count; return this; }
+        /** Items per TestCase/suites page before a continuation token is returned. */
+        public Options pageSize(int pageSize) { this.pageSize = pageSize; return this; }
+        public Options runId(int runId) { this.runId = runId; return this; }
+        public Options latencyMs(long latencyMs) { this.latencyMs = latencyMs; return this; }
+        public Options latencyJitterMs(long jitterMs) { this.latencyJitterMs = jitterMs; return this; }
+        /** Requests accepted per one-second window; 0 disables throttling. */
+        public Options requestsPerSecond(int limit) { this.requestsPerSecond = limit; return this; }
+        public Options retryAfterSeconds(int seconds) { this.retryAfterSeconds = seconds; return this; }
+        /** Request handler threads; latency is simulated on these, so size for the concurrency under test. */
+        public Options threads(int threads) { this.threads = threads; return this; }
+
+        /**
+         * Applies key=value pairs named like the setters (port=18080 suites=8 latencyMs=20 ...).
+         */
+        public Options parse(String... args) {
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+                }
+                String key = arg.substring(0, eq);
+                String value = arg.substring(eq + 1);
+                switch (key) {
+                    case "port": port(Integer.parseInt(value)); break;
+                    case "projectPath": projectPath(value); break;
+                    case "planId": planId(Integer.parseInt(value)); break;
+                    case "suites": suites(Integer.parseInt(value)); break;
+                    case "testCasesPerSuite": testCasesPerSuite(Integer.parseInt(value)); break;
+                    case "stepsPerTestCase": stepsPerTestCase(Integer.parseInt(value)); break;
+                    case "rowsPerTestCase": rowsPerTestCase(Integer.parseInt(value)); break;
+                    case "columnsPerRow": columnsPerRow(Integer.parseInt(value)); break;
+                    case "pageSize": pageSize(Integer.parseInt(value)); break;
+                    case "runId": runId(Integer.parseInt(value)); break;
+                    case "latencyMs": latencyMs(Long.parseLong(value)); break;
+                    case "latencyJitterMs": latencyJitterMs(Long.parseLong(value)); break;
+                    case "requestsPerSecond": requestsPerSecond(Integer.parseInt(value)); break;
+                    case "retryAfterSeconds": retryAfterSeconds(Integer.parseInt(value)); break;
+                    case "threads": threads(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option '" + key + "'");
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * One generated test case, serialised once in both shapes the client asks for.
+     */
+    private static final class Fixture {
+        final byte[] fullItem;
+        final byte[] revisionItem;
+
+        Fixture(byte[] fullItem, byte[] revisionItem) {
+            this.fullItem = fullItem;
+            this.revisionItem = revisionItem;
+        }
+    }
+
+    private final Options options;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final int rootSuiteId;
+    private final List<byte[]> suiteItems = new ArrayList<>();
+    private final Map<Integer, List<Fixture>> testCasesBySuite = new LinkedHashMap<>();
+    private final Map<Integer, Fixture> testCasesById = new HashMap<>();
+    private final List<Integer> testCaseIds = new ArrayList<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong testCasesServed = new AtomicLong();
+    private final AtomicLong resultsUpdated = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    // Fixed one-second throttling window
+    private long windowStartNanos = System.nanoTime();
+    private int windowCount;
+
+    private AzureDevOpsStandIn(Options options) throws IOException {
+        this.options = options;
+        this.rootSuiteId = options.planId + 1;
+        generateFixtures();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, options.threads), runnable -> {
+            Thread t = new Thread(runnable, "azure-stand-in-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static AzureDevOpsStandIn start(Options options) throws IOException {
+        AzureDevOpsStandIn standIn = new AzureDevOpsStandIn(options);
+        standIn.server.start();
+        return standIn;
+    }
+
+    public static void main(String[] args) throws Exception {
+        AzureDevOpsStandIn standIn = start(new Options().port(18080).parse(args));
+        System.out.println("Azure DevOps stand-in listening, use:");
+        System.out.println("  azure.projectUrl=" + standIn.getProjectUrl());
+        System.out.println("  azure.planId=" + standIn.options.planId);
+        System.out.println("  azure.suiteIds=" + joinIds(standIn.getSuiteIds()));
+        System.out.println("  azure.runId=" + standIn.options.runId);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(standIn)));
+        Thread.currentThread().join();
+    }
+
+    public String getProjectUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + options.projectPath;
+    }
+
+    public int getPlanId() {
+        return options.planId;
+    }
+
+    public int getRunId() {
+        return options.runId;
+    }
+
+    /**
+     * Ids of the suites holding test cases (children of the plan's root suite), in tree order.
+     */
+    public List<Integer> getSuiteIds() {
+        return new ArrayList<>(testCasesBySuite.keySet());
+    }
+
+    public int getTestCaseCount() {
+        return testCaseIds.size();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    public long getTestCasesServed() {
+        return testCasesServed.get();
+    }
+
+    public long getResultsUpdated() {
+        return resultsUpdated.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requests.get() + " throttled=" + throttled.get()
+                + " testCasesServed=" + testCasesServed.get() + " resultsUpdated=" + resultsUpdated.get()
+                + " bytesSent=" + bytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ---- Fixtures ----
+
+    private void generateFixtures() throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("id", rootSuiteId);
+        root.put("name", "Plan " + options.planId);
+        root.put("suiteType", "staticTestSuite");
+        root.putObject("plan").put("id", options.planId);
+        suiteItems.add(mapper.writeValueAsBytes(root));
+
+        String stepsXml = SuiteFixtures.stepsXml(options.stepsPerTestCase);
+        String dataSourceXml = SuiteFixtures.dataSourceXml(options.rowsPerTestCase, options.columnsPerRow);
+        int nextTestCaseId = 100000;
+        for (int s = 0; s < options.suites; s++) {
+            int suiteId = rootSuiteId + 1 + s;
+            String suiteName = "Generated suite " + (s + 1);
+            ObjectNode suite = mapper.createObjectNode();
+            suite.put("id", suiteId);
+            suite.put("name", suiteName);
+            suite.put("suiteType", "staticTestSuite");
+            suite.putObject("parentSuite").put("id", rootSuiteId);
+            suite.putObject("plan").put("id", options.planId);
+            suiteItems.add(mapper.writeValueAsBytes(suite));
+
+            List<Fixture> testCases = new ArrayList<>(options.testCasesPerSuite);
+            for (int i = 0; i < options.testCasesPerSuite; i++) {
+                int id = nextTestCaseId++;
+                Fixture fixture = new Fixture(
+                        mapper.writeValueAsBytes(SuiteFixtures.testCaseItem(
+                                options.planId, suiteId, suiteName, id, i, stepsXml, dataSourceXml)),
+                        mapper.writeValueAsBytes(SuiteFixtures.testCaseItem(
+                                options.planId, suiteId, suiteName, id, i, null, null)));
+                testCases.add(fixture);
+                testCasesById.put(id, fixture);
+                testCaseIds.add(id);
+            }
+            testCasesBySuite.put(suiteId, testCases);
+        }
+    }
+
+    // ---- Request handling ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            simulateLatency();
+            if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+                sendError(exchange, 401, "Missing Authorization header");
+                return;
+            }
+            if (throttle(exchange)) {
+                return;
+            }
+
+            String path = exchange.getRequestURI().getRawPath();
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            Matcher m;
+            if ((m = TEST_CASES.matcher(path)).matches() && "GET".equals(method)) {
+                handleTestCases(exchange, Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), m.group(3), query);
+            } else if ((m = SUITES.matcher(path)).matches() && "GET".equals(method)) {
+                handleSuites(exchange, Integer.parseInt(m.group(1)), query);
+            } else if ((m = RUN_RESULTS.matcher(path)).matches() && "GET".equals(method)) {
+                handleGetResults(exchange, Integer.parseInt(m.group(1)), query);
+            } else if ((m = RUN_RESULTS.matcher(path)).matches() && "PATCH".equals(method)) {
+                handlePatchResults(exchange, Integer.parseInt(m.group(1)));
+            } else {
+                sendError(exchange, 404, "No stand-in route for " + method + " " + path);
+            }
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void simulateLatency() {
+        long delay = options.latencyMs;
+        if (options.latencyJitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(options.latencyJitterMs + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Sends 429 and returns true when the current one-second window is used up.
+     */
+    private boolean throttle(HttpExchange exchange) throws IOException {
+        if (options.requestsPerSecond <= 0) {
+            return false;
+        }
+        long windowEndNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStartNanos = now;
+                windowCount = 0;
+            }
+            if (++windowCount <= options.requestsPerSecond) {
+                return false;
+            }
+            windowEndNanos = windowStartNanos + TimeUnit.SECONDS.toNanos(1);
+        }
+        throttled.incrementAndGet();
+        long resetEpochSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()
+                + TimeUnit.NANOSECONDS.toMillis(windowEndNanos - System.nanoTime())) + 1;
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(options.retryAfterSeconds));
+        exchange.getResponseHeaders().set("X-RateLimit-Resource", "Core");
+        exchange.getResponseHeaders().set("X-RateLimit-Delay", "0");
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", String.valueOf(options.requestsPerSecond));
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", "0");
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(resetEpochSeconds));
+        sendError(exchange, 429, "Request was blocked due to exceeding usage of resource 'Core'");
+        return true;
+    }
+
+    private void handleTestCases(HttpExchange exchange, int planId, int suiteId, String idList,
+                                 Map<String, String> query) throws IOException {
+        // The root suite exists but holds no test cases of its own
+        List<Fixture> suite = suiteId == rootSuiteId ? List.of() : testCasesBySuite.get(suiteId);
+        if (planId != options.planId || suite == null) {
+            sendError(exchange, 404, "Test suite " + suiteId + " not found in plan " + planId);
+            return;
+        }
+        List<Fixture> selected = suite;
+        if (idList != null) {
+            selected = new ArrayList<>();
+            for (String id : idList.split(",")) {
+                Fixture fixture = testCasesById.get(Integer.parseInt(id));
+                if (fixture != null && suite.contains(fixture)) {
+                    selected.add(fixture);
+                }
+            }
+        }
+        // Only System.Rev requested -> items without Steps / LocalDataSource
+        boolean revisionsOnly = "System.Rev".equals(query.get("witFields"));
+        List<byte[]> items = new ArrayList<>(selected.size());
+        for (Fixture fixture : selected) {
+            items.add(revisionsOnly ? fixture.revisionItem : fixture.fullItem);
+        }
+        int served = sendPage(exchange, items, query);
+        testCasesServed.addAndGet(served);
+    }
+
+    private void handleSuites(HttpExchange exchange, int planId, Map<String, String> query) throws IOException {
+        if (planId != options.planId) {
+            sendError(exchange, 404, "Test plan " + planId + " not found");
+            return;
+        }
+        sendPage(exchange, suiteItems, query);
+    }
+
+    private void handleGetResults(HttpExchange exchange, int runId, Map<String, String> query) throws IOException {
+        if (runId != options.runId) {
+            sendError(exchange, 404, "Test run " + runId + " not found");
+            return;
+        }
+        int skip = Integer.parseInt(query.getOrDefault("$skip", "0"));
+        int top = Math.min(MAX_RESULTS_PER_PAGE, Integer.parseInt(query.getOrDefault("$top", "100")));
+        ArrayNode value = mapper.createArrayNode();
+        for (int i = skip; i < Math.min(testCaseIds.size(), skip + top); i++) {
+            ObjectNode result = value.addObject();
+            result.put("id", FIRST_RESULT_ID + i);
+            result.putObject("testCase").put("id", String.valueOf(testCaseIds.get(i)));
+            result.put("outcome", "Unspecified");
+            result.put("state", "Pending");
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("count", value.size());
+        body.set("value", value);
+        send(exchange, 200, mapper.writeValueAsBytes(body));
+    }
+
+    private void handlePatchResults(HttpExchange exchange, int runId) throws IOException {
+        if (runId != options.runId) {
+            sendError(exchange, 404, "Test run " + runId + " not found");
+            return;
+        }
+        JsonNode results;
+        try (InputStream in = exchange.getRequestBody()) {
+            results = mapper.readTree(in);
+        }
+        if (results == null || !results.isArray()) {
+            sendError(exchange, 400, "Expected a JSON array of test case results");
+            return;
+        }
+        ArrayNode value = mapper.createArrayNode();
+        for (JsonNode result : results) {
+            int index = result.path("id").asInt() - FIRST_RESULT_ID;
+            if (index < 0 || index >= testCaseIds.size()) {
+                sendError(exchange, 400, "Test result " + result.path("id").asText() + " not found in run " + runId);
+                return;
+            }
+            ObjectNode updated = value.addObject();
+            updated.put("id", FIRST_RESULT_ID + index);
+            updated.put("outcome", result.path("outcome").asText("Unspecified"));
+        }
+        resultsUpdated.addAndGet(value.size());
+        ObjectNode body = mapper.createObjectNode();
+        body.put("count", value.size());
+        body.set("value", value);
+        send(exchange, 200, mapper.writeValueAsBytes(body));
+    }
+
+    /**
+     * Writes items[offset, offset + pageSize) as {"value": [...], "count": n}; offset comes
+     * from the continuationToken parameter and the next one goes into x-ms-continuationtoken.
+     *
+     * @return number of items sent
+     */
+    private int sendPage(HttpExchange exchange, List<byte[]> items, Map<String, String> query) throws IOException {
+        int offset = Integer.parseInt(query.getOrDefault("continuationToken", "0"));
+        int end = Math.min(items.size(), offset + Math.max(1, options.pageSize));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("{\"value\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                body.write(',');
+            }
+            body.write(items.get(i));
+        }
+        body.write(("],\"count\":" + Math.max(0, end - offset) + "}").getBytes(StandardCharsets.UTF_8));
+        if (end < items.size()) {
+            exchange.getResponseHeaders().set(CONTINUATION_TOKEN_HEADER, String.valueOf(end));
+        }
+        send(exchange, 200, body.toByteArray());
+        return Math.max(0, end - offset);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("message", message);
+        body.put("typeKey", status == 429 ? "RequestBlockedException" : "StandInException");
+        send(exchange, status, mapper.writeValueAsBytes(body));
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static String joinIds(List<Integer> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (Integer id : ids) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,676 @@
+package com;
+
+import com.config.FrameworkConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded JDBC connection pool behind OracleDbClient.
+ *
+ *  - at most maxSize physical connections, borrowers wait up to borrowTimeoutMs for one
+ *  - idle connections are reused LIFO and validated with isValid() when idle for a while
+ *  - a daemon evictor closes connections idle longer than idleTimeoutMs (keeping minIdle)
+ *  - borrowed connections are proxies: close() hands the session back instead of closing it
+ *  - each session keeps an LRU cache of PreparedStatements keyed by SQL text (and the other
+ *    prepareStatement arguments), so repeated prepares reuse the cursor (soft parse)
+ *  - every other statement opened through the proxy (createStatement, prepareCall, uncached
+ *    prepares) is closed when the session is handed back, if the borrower did not close it
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIntervalMs;
+    private final int validationTimeoutSec;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(FrameworkConfig config) {
+        this(config.getDbUrl(),
+                config.getDbUser(),
+                config.getDbPassword(),
+                config.getDbPoolMaxSize(),
+                config.getDbPoolMinIdle(),
+                config.getDbPoolBorrowTimeoutMs(),
+                config.getDbPoolIdleTimeoutMs(),
+                config.getDbPoolValidationIntervalMs(),
+                config.getDbPoolValidationTimeoutSec(),
+                config.getDbStatementCacheSize());
+    }
+
+    public ConnectionPool(String url,
+                          String user,
+                          String password,
+                          int maxSize,
+                          int minIdle,
+                          long borrowTimeoutMs,
+                          long idleTimeoutMs,
+                          long validationIntervalMs,
+                          int validationTimeoutSec,
+                          int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("db.pool.maxSize must be > 0");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(Math.max(0, minIdle), maxSize);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIntervalMs = validationIntervalMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens minIdle connections up front, so a wrong URL/credential fails at startup.
+     */
+    public void prefill() throws SQLException {
+        List<PooledConnection> fresh = new ArrayList<>();
+        try {
+            for (int i = 0; i < minIdle; i++) {
+                fresh.add(create());
+            }
+        } finally {
+            synchronized (idle) {
+                fresh.forEach(idle::push);
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection; close() it to return it to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMs
+                        + " ms waiting for a DB connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a DB connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pc;
+            while ((pc = pollIdle()) != null) {
+                if (isUsable(pc)) {
+                    break;
+                }
+                validationFailures.incrementAndGet();
+                destroy(pc);
+            }
+            if (pc == null) {
+                pc = create();
+            }
+            borrows.incrementAndGet();
+            return pc.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a physical session outside the pool (not counted, not cached); the caller closes it.
+     */
+    Connection connectUnpooled() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    public PoolStats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long borrowCount = borrows.get();
+        return new PoolStats(
+                maxSize,
+                open.get(),
+                idleCount,
+                maxSize - permits.availablePermits(),
+                created.get(),
+                destroyed.get(),
+                borrowCount,
+                timeouts.get(),
+                validationFailures.get(),
+                evicted.get(),
+                borrowCount == 0 ? 0 : totalWaitNanos.get() / borrowCount / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                statementHits.get(),
+                statementMisses.get()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(this::destroy);
+    }
+
+    // ---- internals ----
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.poll();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastUsedMillis < validationIntervalMs) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        open.incrementAndGet();
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void destroy(PooledConnection pc) {
+        try {
+            pc.physical.close();
+        } catch (SQLException ignore) {
+        }
+        open.decrementAndGet();
+        destroyed.incrementAndGet();
+    }
+
+    /**
+     * Called by the proxy on close(): resets the session and parks it, or drops it if broken.
+     */
+    private void giveBack(PooledConnection pc) {
+        try {
+            boolean reusable = !closed && !pc.physical.isClosed();
+            if (reusable && !pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pc.releaseStatements();
+                pc.lastUsedMillis = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.push(pc);
+                }
+            } else {
+                destroy(pc);
+            }
+        } catch (SQLException e) {
+            destroy(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            // Oldest connections sit at the tail (LIFO reuse at the head)
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsedMillis >= idleTimeoutMs) {
+                    it.remove();
+                    expired.add(pc);
+                }
+            }
+        }
+        for (PooledConnection pc : expired) {
+            evicted.incrementAndGet();
+            destroy(pc);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * One physical session plus its pool bookkeeping.
+     */
+    final class PooledConnection {
+        final Connection physical;
+        volatile long lastUsedMillis = System.currentTimeMillis();
+
+        // Access-ordered: the eldest entry is the least recently used statement
+        private final Map<String, CachedStatement> statements =
+                new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        trimStatements();
+                        return false;
+                    }
+                };
+
+        // Statements opened in the current lease that are not in the cache
+        private final List<Statement> leased = new ArrayList<>();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Cached statement for a prepareStatement call, or a plain (tracked) one when caching is
+         * off or the cached statement is still open in this lease (same SQL prepared twice at once).
+         */
+        PreparedStatement prepare(Method method, Object[] args) throws SQLException {
+            if (statementCacheSize == 0) {
+                return track((PreparedStatement) invokePhysical(method, args));
+            }
+            String key = args.length == 1
+                    ? (String) args[0]
+                    : args[0] + "\u0000" + Arrays.deepToString(Arrays.copyOfRange(args, 1, args.length));
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.inUse) {
+                return track((PreparedStatement) invokePhysical(method, args));
+            }
+            if (cached == null) {
+                statementMisses.incrementAndGet();
+                cached = new CachedStatement((PreparedStatement) invokePhysical(method, args));
+                // In use before it goes in, so the trim on insertion cannot close it
+                cached.inUse = true;
+                statements.put(key, cached);
+            } else {
+                statementHits.incrementAndGet();
+            }
+            cached.inUse = true;
+            return cached.lease();
+        }
+
+        /**
+         * Closes least recently used statements until the cache fits statementCacheSize again.
+         * Statements still open in the current lease are skipped; a lease holding more than
+         * statementCacheSize of them lets the cache grow until it releases them.
+         */
+        private void trimStatements() {
+            int excess = statements.size() - statementCacheSize;
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (excess > 0 && it.hasNext()) {
+                CachedStatement cached = it.next();
+                if (!cached.inUse) {
+                    cached.closeQuietly();
+                    it.remove();
+                    excess--;
+                }
+            }
+        }
+
+        <T extends Statement> T track(T statement) throws SQLException {
+            if (leased.size() >= 64) {
+                // Long leases: forget statements the borrower has closed already
+                leased.removeIf(st -> {
+                    try {
+                        return st.isClosed();
+                    } catch (SQLException e) {
+                        return true;
+                    }
+                });
+            }
+            leased.add(statement);
+            return statement;
+        }
+
+        Object invokePhysical(Method method, Object[] args) throws SQLException {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+
+        /**
+         * Statements a borrower forgot to close: cached ones become reusable for the next
+         * lease, the others are closed.
+         */
+        void releaseStatements() {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (it.hasNext()) {
+                CachedStatement cached = it.next();
+                if (!cached.inUse) {
+                    continue;
+                }
+                try {
+                    cached.release();
+                } catch (SQLException e) {
+                    // Unusable now; the next prepare of this SQL creates a fresh one
+                    cached.closeQuietly();
+                    it.remove();
+                }
+            }
+            for (Statement statement : leased) {
+                try {
+                    statement.close();
+                } catch (SQLException ignore) {
+                }
+            }
+            leased.clear();
+            trimStatements();
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * A cached PreparedStatement; its proxies clear parameters on close() instead of closing it.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private Lease current;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement lease() {
+            current = new Lease();
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    current);
+        }
+
+        /**
+         * Ends the current lease as if its proxy had been closed.
+         */
+        void release() throws SQLException {
+            if (current != null) {
+                current.release();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignore) {
+            }
+        }
+
+        private final class Lease implements InvocationHandler {
+            private boolean released;
+
+            void release() throws SQLException {
+                if (released) {
+                    return;
+                }
+                released = true;
+                inUse = false;
+                statement.clearParameters();
+                // A failed executeBatch can leave queued rows behind
+                statement.clearBatch();
+                if (statement.getMaxRows() != 0) {
+                    statement.setMaxRows(0);
+                }
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        release();
+                        return null;
+                    case "isClosed":
+                        return released || statement.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        if (released) {
+                            throw new SQLException("Statement has already been closed");
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        }
+    }
+
+    /**
+     * Delegates to the physical connection until close(), which returns it to the pool exactly once.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.physical.isClosed();
+                case "prepareStatement":
+                    if (!returned) {
+                        return pc.prepare(method, args);
+                    }
+                    break;
+                case "createStatement":
+                case "prepareCall":
+                    if (!returned) {
+                        return pc.track((Statement) pc.invokePhysical(method, args));
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + (returned ? ", returned" : "") + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool metrics.
+     */
+    public static final class PoolStats {
+        private final int maxSize;
+        private final int open;
+        private final int idle;
+        private final int active;
+        private final long created;
+        private final long destroyed;
+        private final long borrows;
+        private final long timeouts;
+        private final long validationFailures;
+        private final long evicted;
+        private final double avgWaitMillis;
+        private final double maxWaitMillis;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        PoolStats(int maxSize, int open, int idle, int active, long created, long destroyed, long borrows,
+                  long timeouts, long validationFailures, long evicted, double avgWaitMillis, double maxWaitMillis,
+                  long statementCacheHits, long statementCacheMisses) {
+            this.maxSize = maxSize;
+            this.open = open;
+            this.idle = idle;
+            this.active = active;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.validationFailures = validationFailures;
+            this.evicted = evicted;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getOpen() {
+            return open;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getEvicted() {
+            return evicted;
+        }
+
+        public double getAvgWaitMillis() {
+            return avgWaitMillis;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("max=%d open=%d idle=%d active=%d created=%d destroyed=%d borrows=%d "
+                            + "timeouts=%d validationFailures=%d evicted=%d avgWaitMs=%.2f maxWaitMs=%.2f "
+                            + "stmtCacheHits=%d stmtCacheMisses=%d",
+                    maxSize, open, idle, active, created, destroyed, borrows,
+                    timeouts, validationFailures, evicted, avgWaitMillis, maxWaitMillis,
+                    statementCacheHits, statementCacheMisses);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column labels of one result set, read once and shared by all of its DbRows.
+ */
+public final class DbColumns {
+
+    private final String[] labels;
+    private final Map<String, Integer> index;
+
+    DbColumns(String[] labels) {
+        this.labels = labels;
+        this.index = new HashMap<>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++) {
+            index.putIfAbsent(labels[i], i);
+            index.putIfAbsent(labels[i].toUpperCase(Locale.ROOT), i);
+        }
+    }
+
+    static DbColumns of(ResultSetMetaData md) throws SQLException {
+        String[] labels = new String[md.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = md.getColumnLabel(i + 1);
+        }
+        return new DbColumns(labels);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public String label(int i) {
+        return labels[i];
+    }
+
+    /**
+     * Zero-based position of the column (exact label, else upper-cased as Oracle reports it), or -1.
+     */
+    public int indexOf(String label) {
+        Integer i = index.get(label);
+        if (i == null) {
+            i = index.get(label.toUpperCase(Locale.ROOT));
+        }
+        return i != null ? i : -1;
+    }
+}
@@ -0,0 +1,56 @@
+package com;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One result row as a plain value array plus the shared column index.
+ * Much smaller than a LinkedHashMap per row; use asMap() only when a Map is really needed.
+ */
+public final class DbRow {
+
+    private final DbColumns columns;
+    private final Object[] values;
+
+    DbRow(DbColumns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public DbColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Zero-based column access.
+     */
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public Object get(String label) {
+        int i = columns.indexOf(label);
+        if (i < 0) {
+            throw new IllegalArgumentException("No column '" + label + "' in result");
+        }
+        return values[i];
+    }
+
+    public String getString(String label) {
+        Object value = get(label);
+        return value != null ? value.toString() : null;
+    }
+
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(columns.label(i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+}
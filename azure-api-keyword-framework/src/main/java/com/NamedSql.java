@@ -0,0 +1,92 @@
+package com;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL with named binds (:PAN, :cardId) rewritten once to JDBC '?' placeholders.
+ * Literals, quoted identifiers, comments and '::' are left untouched.
+ */
+final class NamedSql {
+
+    private static final int MAX_CACHED = 512;
+    private static final Map<String, NamedSql> CACHE = new ConcurrentHashMap<>();
+
+    private final String jdbcSql;
+    private final String[] names;
+
+    private NamedSql(String jdbcSql, String[] names) {
+        this.jdbcSql = jdbcSql;
+        this.names = names;
+    }
+
+    static NamedSql of(String sql) {
+        NamedSql parsed = CACHE.get(sql);
+        if (parsed == null) {
+            parsed = parse(sql);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(sql, parsed);
+        }
+        return parsed;
+    }
+
+    String getJdbcSql() {
+        return jdbcSql;
+    }
+
+    /**
+     * Bind names in placeholder order (a name used twice appears twice).
+     */
+    String[] getNames() {
+        return names;
+    }
+
+    private static NamedSql parse(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        List<String> names = new ArrayList<>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? len : end + 1;
+                out.append(sql, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                end = end < 0 ? len : end;
+                out.append(sql, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? len : end + 2;
+                out.append(sql, i, end);
+                i = end;
+            } else if (c == ':' && i + 1 < len && sql.charAt(i + 1) == ':') {
+                out.append("::");
+                i += 2;
+            } else if (c == ':' && i + 1 < len && Character.isLetter(sql.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < len && isNameChar(sql.charAt(end))) {
+                    end++;
+                }
+                names.add(sql.substring(i + 1, end));
+                out.append('?');
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return new NamedSql(out.toString(), names.toArray(new String[0]));
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+    }
+}
@@ -1,44 +1,266 @@
 package com;
 
 import com.config.FrameworkConfig;
+import com.model.TestCaseData;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Oracle access for keyword handlers, backed by a bounded ConnectionPool
+ * so parallel test cases each run on their own session.
+ *
+ * Queries go through PreparedStatements with bind variables; the pool caches
+ * prepared statements per session, so repeated SQL text is only soft-parsed.
+ *
+ * For large verifications use queryForEach/stream: rows are read from the open
+ * cursor one at a time as compact DbRows, so memory stays flat whatever the row count.
+ *
+ * Bulk seeding/cleanup goes through executeBatch: rows are sent db.batchSize at a
+ * time with addBatch/executeBatch inside one transaction, so a few thousand rows
+ * cost a handful of round trips and either all land or none do.
+ */
 public class OracleDbClient implements AutoCloseable {
 
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final int fetchSize;
+    private final int streamFetchSize;
+    private final int batchSize;
+    private Connection sharedConnection;
 
     public OracleDbClient(FrameworkConfig config) {
         try {
             // Explicit driver load (optional for modern JDBC, but safe)
             Class.forName("oracle.jdbc.OracleDriver");
-            this.connection = DriverManager.getConnection(
-                    config.getDbUrl(),
-                    config.getDbUser(),
-                    config.getDbPassword()
-            );
+            this.fetchSize = config.getDbFetchSize();
+            this.streamFetchSize = config.getDbStreamFetchSize();
+            this.batchSize = config.getDbBatchSize();
+            this.pool = new ConnectionPool(config);
+            pool.prefill();
         } catch (Exception e) {
             throw new RuntimeException("Failed to connect to Oracle DB", e);
         }
     }
 
     public List<Map<String, Object>> queryForList(String sql) throws SQLException {
-        try (Statement st = connection.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+        return queryForList(sql, new Object[0]);
+    }
+
+    /**
+     * Runs sql with positional '?' binds.
+     */
+    public List<Map<String, Object>> queryForList(String sql, Object... binds) throws SQLException {
+        try (Connection connection = pool.borrow();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            bindAll(ps, binds);
+            return readAll(ps);
+        }
+    }
+
+    /**
+     * Runs sql with named binds (:PAN, :AMOUNT) taken from params, typically a
+     * KeywordContext data row. Names are matched exactly, then ignoring case.
+     */
+    public List<Map<String, Object>> queryForList(String namedSql, Map<String, ?> params) throws SQLException {
+        NamedSql parsed = NamedSql.of(namedSql);
+        return queryForList(parsed.getJdbcSql(), bindValues(parsed, params));
+    }
+
+    /**
+     * Streams the rows of sql (positional binds) to callback without keeping them.
+     *
+     * @return number of rows read
+     */
+    public long queryForEach(String sql, RowCallback callback, Object... binds) throws SQLException {
+        try (Stream<DbRow> rows = stream(sql, streamFetchSize, binds)) {
+            long[] count = {0};
+            rows.forEach(row -> {
+                count[0]++;
+                try {
+                    callback.onRow(row);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException("Row callback failed at row " + count[0], e);
+                }
+            });
+            return count[0];
+        }
+    }
 
+    /**
+     * Same as queryForEach(String, RowCallback, Object...) with :NAME binds taken from params.
+     */
+    public long queryForEach(String namedSql, Map<String, ?> params, RowCallback callback) throws SQLException {
+        NamedSql parsed = NamedSql.of(namedSql);
+        return queryForEach(parsed.getJdbcSql(), callback, bindValues(parsed, params));
+    }
+
+    /**
+     * Lazily reads rows from an open cursor. The stream owns a pooled session,
+     * statement and result set until it is closed - always use try-with-resources.
+     *
+     * @param fetchSize rows fetched per round trip
+     */
+    public Stream<DbRow> stream(String sql, int fetchSize, Object... binds) throws SQLException {
+        Connection connection = pool.borrow();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = connection.prepareStatement(sql);
+            bindAll(ps, binds);
+            ps.setFetchSize(fetchSize);
+            rs = ps.executeQuery();
+            ResultCursor cursor = new ResultCursor(connection, ps, rs);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(rs);
+            closeQuietly(ps);
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs one INSERT/UPDATE/DELETE with positional '?' binds (autocommit).
+     *
+     * @return affected row count
+     */
+    public int executeUpdate(String sql, Object... binds) throws SQLException {
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindAll(ps, binds);
+            return ps.executeUpdate();
+        }
+    }
+
+    public int executeUpdate(String namedSql, Map<String, ?> params) throws SQLException {
+        NamedSql parsed = NamedSql.of(namedSql);
+        return executeUpdate(parsed.getJdbcSql(), bindValues(parsed, params));
+    }
+
+    /**
+     * Runs namedSql once per row (its :NAME binds taken from the row) using JDBC batching,
+     * db.batchSize rows per round trip, in a single transaction.
+     *
+     * @return total affected rows (rows the driver reports as SUCCESS_NO_INFO count as 1)
+     */
+    public long executeBatch(String namedSql, Iterable<? extends Map<String, ?>> rows) throws SQLException {
+        return executeBatch(namedSql, rows, batchSize);
+    }
+
+    /**
+     * Seeds/cleans using the data rows of a test case, e.g. one INSERT per LocalDataSource row.
+     */
+    public long executeBatch(String namedSql, TestCaseData testCase) throws SQLException {
+        return executeBatch(namedSql, testCase.getDataRows(), batchSize);
+    }
+
+    public long executeBatch(String namedSql, Iterable<? extends Map<String, ?>> rows, int batchSize)
+            throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1: " + batchSize);
+        }
+        NamedSql parsed = NamedSql.of(namedSql);
+        try (Connection conn = pool.borrow()) {
+            // The pool restores autocommit when the session is returned
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(parsed.getJdbcSql())) {
+                long affected = 0;
+                int pending = 0;
+                int rowNo = 0;
+                for (Map<String, ?> row : rows) {
+                    rowNo++;
+                    try {
+                        bindAll(ps, bindValues(parsed, row));
+                    } catch (SQLException e) {
+                        throw new SQLException("Data row " + rowNo + ": " + e.getMessage(), e.getSQLState(), e);
+                    }
+                    ps.addBatch();
+                    if (++pending == batchSize) {
+                        affected += sum(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    affected += sum(ps.executeBatch());
+                }
+                conn.commit();
+                return affected;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Borrows a pooled session for direct JDBC work. Always close it
+     * (try-with-resources) - closing returns the session to the pool,
+     * together with any statement still open on it.
+     */
+    public Connection borrowConnection() throws SQLException {
+        return pool.borrow();
+    }
+
+    /**
+     * The client's long-lived session, outside the pool: opened on first use, shared by all
+     * callers and closed with the client. Do not close it.
+     *
+     * @deprecated one session for every caller serializes parallel test cases;
+     * use borrowConnection() in try-with-resources instead
+     */
+    @Deprecated
+    public synchronized Connection getConnection() {
+        try {
+            if (sharedConnection == null || sharedConnection.isClosed()) {
+                sharedConnection = pool.connectUnpooled();
+            }
+            return sharedConnection;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to connect to Oracle DB", e);
+        }
+    }
+
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closeQuietly(sharedConnection);
+            sharedConnection = null;
+        }
+        pool.close();
+    }
+
+    // ---- helpers ----
+
+    private List<Map<String, Object>> readAll(PreparedStatement ps) throws SQLException {
+        // Row prefetch: fewer round trips than the Oracle default of 10 rows
+        ps.setFetchSize(fetchSize);
+        try (ResultSet rs = ps.executeQuery()) {
             List<Map<String, Object>> list = new ArrayList<>();
-            ResultSetMetaData md = rs.getMetaData();
-            int cols = md.getColumnCount();
+            DbColumns columns = DbColumns.of(rs.getMetaData());
+            int cols = columns.size();
 
             while (rs.next()) {
                 Map<String, Object> row = new LinkedHashMap<>();
-                for (int i = 1; i <= cols; i++) {
-                    String colName = md.getColumnLabel(i);
-                    row.put(colName, rs.getObject(i));
+                for (int i = 0; i < cols; i++) {
+                    row.put(columns.label(i), rs.getObject(i + 1));
                 }
                 list.add(row);
             }
@@ -46,17 +268,103 @@ public class OracleDbClient implements AutoCloseable {
         }
     }
 
-    public Connection getConnection() {
-        return connection;
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
     }
 
-    @Override
-    public void close() {
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            resource.close();
+        } catch (Exception ignore) {
+        }
+    }
+
+    /**
+     * Spliterator over an open ResultSet; closes result set, statement and session once.
+     */
+    private static final class ResultCursor extends Spliterators.AbstractSpliterator<DbRow> {
+        private final Connection connection;
+        private final PreparedStatement ps;
+        private final ResultSet rs;
+        private final DbColumns columns;
+        private boolean closed;
+
+        ResultCursor(Connection connection, PreparedStatement ps, ResultSet rs) throws SQLException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.ps = ps;
+            this.rs = rs;
+            this.columns = DbColumns.of(rs.getMetaData());
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DbRow> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                Object[] values = new Object[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                action.accept(new DbRow(columns, values));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Failed to read DB row", e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closeQuietly(rs);
+            closeQuietly(ps);
+            closeQuietly(connection);
+        }
+    }
+
+    static void bindAll(PreparedStatement ps, Object[] binds) throws SQLException {
+        for (int i = 0; i < binds.length; i++) {
+            if (binds[i] == null) {
+                ps.setNull(i + 1, Types.VARCHAR);
+            } else {
+                ps.setObject(i + 1, binds[i]);
+            }
+        }
+    }
+
+    static Object[] bindValues(NamedSql sql, Map<String, ?> params) throws SQLException {
+        String[] names = sql.getNames();
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = lookup(params, names[i]);
+        }
+        return values;
+    }
+
+    private static Object lookup(Map<String, ?> params, String name) throws SQLException {
+        if (params.containsKey(name)) {
+            return params.get(name);
+        }
+        for (Map.Entry<String, ?> e : params.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(name)) {
+                return e.getValue();
             }
-        } catch (SQLException ignore) {
         }
+        throw new SQLException("No value for bind variable :" + name + " (available: " + params.keySet() + ")");
     }
 }
@@ -0,0 +1,9 @@
+package com;
+
+/**
+ * Receives rows one at a time from OracleDbClient.queryForEach while the cursor is open.
+ */
+@FunctionalInterface
+public interface RowCallback {
+    void onRow(DbRow row) throws Exception;
+}
@@ -2,23 +2,27 @@ package com.azure;
 
 import com.config.FrameworkConfig;
 import com.model.TestCaseData;
-import com.model.TestStep;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.text.StringEscapeUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Client to talk to Azure DevOps Server 2020 using REST
@@ -26,14 +30,23 @@ import java.util.*;
  */
 public class AzureDevOpsClient {
 
+    private static final String CONTINUATION_TOKEN_HEADER = "x-ms-continuationtoken";
+    private static final int IDS_PER_REQUEST = 100;
+    private static final int RESULTS_PER_REQUEST = 1000;
+
     private final FrameworkConfig config;
-    private final HttpClient httpClient;
+    private final AzureHttpTransport transport;
     private final ObjectMapper mapper = new ObjectMapper();
     private final String authHeader;
 
     public AzureDevOpsClient(FrameworkConfig config) {
+        // One shared transport so HTTP/2 connections, pacing and retry state span suites and pages
+        this(config, new AzureHttpTransport(config));
+    }
+
+    public AzureDevOpsClient(FrameworkConfig config, AzureHttpTransport transport) {
         this.config = config;
-        this.httpClient = HttpClient.newHttpClient();
+        this.transport = transport;
 
         String pat = Optional.ofNullable(config.getAzurePat())
                 .orElseThrow(() -> new IllegalStateException("azure.pat not configured"));
@@ -42,58 +55,571 @@ public class AzureDevOpsClient {
                 .encodeToString(token.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Latency, retry and throttling counters of all requests made so far.
+     */
+    public AzureHttpTransport.Stats getHttpStats() {
+        return transport.getStats();
+    }
+
     /**
      * Calls the Test Case endpoint:
      *   {projectUrl}/_apis/testplan/Plans/{planId}/Suites/{suiteId}/TestCase?api-version={apiVersion}
      * and converts the JSON array response into a list of TestCaseData objects.
      */
     public List<TestCaseData> loadTestCasesFromConfiguredSuite() throws Exception {
+        try (Stream<TestCaseData> testCases = streamTestCasesFromConfiguredSuite()) {
+            return testCases.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Loads whatever the configuration asks for: the whole plan (azure.loadWholePlan=true),
+     * an explicit list of suites (azure.suiteIds), or the single azure.suiteId.
+     */
+    public List<TestCaseData> loadConfiguredTestCases() throws Exception {
+        int planId = config.getAzurePlanId();
+        if (config.isAzureLoadWholePlan()) {
+            return loadTestCasesFromPlan(planId);
+        }
+        List<Integer> suiteIds = config.getAzureSuiteIds();
+        if (!suiteIds.isEmpty()) {
+            return loadTestCasesFromSuites(planId, suiteIds);
+        }
+        return loadTestCasesFromConfiguredSuite();
+    }
+
+    /**
+     * Walks the suite tree of a plan and loads every suite concurrently.
+     * Test cases are returned grouped by suite in depth-first tree order.
+     */
+    public List<TestCaseData> loadTestCasesFromPlan(int planId) throws Exception {
+        if (planId <= 0) {
+            throw new IllegalArgumentException("PlanId missing/invalid in config");
+        }
+        return loadTestCasesFromSuites(planId, loadSuiteIdsInTreeOrder(planId));
+    }
+
+    /**
+     * Loads several suites concurrently with HttpClient.sendAsync. At most
+     * azure.http.maxConcurrentRequests pages are in flight (and being parsed) at once;
+     * pages of one suite are fetched in sequence by following the continuation token.
+     * The merged result keeps the order of suiteIds, then the order inside each suite.
+     */
+    public List<TestCaseData> loadTestCasesFromSuites(int planId, List<Integer> suiteIds) throws Exception {
+        return loadSuitesConcurrently(suiteIds, (suiteId, limiter, parseExecutor) ->
+                fetchSuiteAsync(planId, suiteId, "", null, null, new ArrayList<>(), limiter, parseExecutor));
+    }
+
+    /**
+     * One asynchronous load of a single suite, sharing the caller's limiter and parse pool.
+     */
+    @FunctionalInterface
+    interface SuiteLoader {
+        CompletableFuture<List<TestCaseData>> load(int suiteId, AsyncRequestLimiter limiter, Executor parseExecutor);
+    }
+
+    /**
+     * Starts the loader for every suite at once under one AsyncRequestLimiter
+     * (azure.http.maxConcurrentRequests) and merges the results in suiteIds order.
+     * Failures are rethrown unwrapped from the CompletionException.
+     */
+    List<TestCaseData> loadSuitesConcurrently(List<Integer> suiteIds, SuiteLoader loader) throws Exception {
+        int maxInFlight = Math.max(1, config.getAzureMaxConcurrentRequests());
+        AsyncRequestLimiter limiter = new AsyncRequestLimiter(maxInFlight);
+        ExecutorService parseExecutor = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread t = new Thread(runnable, "azure-suite-loader");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<CompletableFuture<List<TestCaseData>>> perSuite = new ArrayList<>(suiteIds.size());
+            for (int suiteId : suiteIds) {
+                perSuite.add(loader.load(suiteId, limiter, parseExecutor));
+            }
+            CompletableFuture.allOf(perSuite.toArray(new CompletableFuture<?>[0])).join();
+
+            List<TestCaseData> merged = new ArrayList<>();
+            for (CompletableFuture<List<TestCaseData>> suite : perSuite) {
+                merged.addAll(suite.join());
+            }
+            return merged;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            parseExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetches one TestCase listing (see testCaseRequest for idPath/witFields) page by page into collected.
+     */
+    private CompletableFuture<List<TestCaseData>> fetchSuiteAsync(int planId,
+                                                                  int suiteId,
+                                                                  String idPath,
+                                                                  String witFields,
+                                                                  String continuationToken,
+                                                                  List<TestCaseData> collected,
+                                                                  AsyncRequestLimiter limiter,
+                                                                  Executor parseExecutor) {
+        HttpRequest request = testCaseRequest(planId, suiteId, idPath, witFields, continuationToken);
+        return limiter.submit(() -> transport
+                        .sendAsync(request, response -> readPage(response, suiteId), parseExecutor))
+                .thenCompose(page -> {
+                    collected.addAll(page.testCases);
+                    return page.continuationToken == null
+                            ? CompletableFuture.completedFuture(collected)
+                            : fetchSuiteAsync(planId, suiteId, idPath, witFields, page.continuationToken,
+                                    collected, limiter, parseExecutor);
+                });
+    }
+
+    /**
+     * Test cases of one listing page and the continuation token (null on the last page).
+     */
+    private static final class SuitePage {
+        final List<TestCaseData> testCases = new ArrayList<>();
+        String continuationToken;
+    }
+
+    /**
+     * Parses one page. An IOException (body stalled or cut off) is left to the transport, which
+     * fetches the page again; the page is only added to the suite once it was read whole.
+     */
+    private SuitePage readPage(HttpResponse<InputStream> response, int suiteId) throws IOException {
+        try {
+            failOnError(response, "Failed to get test cases from suite " + suiteId);
+            SuitePage page = new SuitePage();
+            page.continuationToken = continuationTokenOf(response);
+            try (TestCasePageReader reader = new TestCasePageReader(mapper, response.body())) {
+                JsonNode item;
+                while ((item = reader.nextItem()) != null) {
+                    TestCaseData data = parseTestCaseItem(item);
+                    if (data != null) {
+                        page.testCases.add(data);
+                    }
+                }
+            }
+            return page;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse test cases from suite " + suiteId, e);
+        }
+    }
+
+    /**
+     * Reads the flat suite list of a plan (all pages) and orders it depth-first
+     * by parentSuite, keeping the server order among siblings.
+     */
+    private List<Integer> loadSuiteIdsInTreeOrder(int planId) throws IOException, InterruptedException {
+        Map<Integer, Integer> parentOf = new LinkedHashMap<>();
+        String continuationToken = null;
+        do {
+            String url = String.format(
+                    "%s/_apis/testplan/Plans/%d/suites?api-version=%s",
+                    config.getAzureProjectUrl(),
+                    planId,
+                    config.getAzureApiVersion()
+            );
+            if (continuationToken != null) {
+                url += "&continuationToken=" + URLEncoder.encode(continuationToken, StandardCharsets.UTF_8);
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", authHeader)
+                    .build();
+
+            // Re-reading a page after a stalled body only puts the same entries again
+            continuationToken = transport.send(request, response -> {
+                failOnError(response, "Failed to get suites of plan " + planId);
+                try (TestCasePageReader page = new TestCasePageReader(mapper, response.body())) {
+                    JsonNode suite;
+                    while ((suite = page.nextItem()) != null) {
+                        int parentId = suite.path("parentSuite").path("id").asInt(0);
+                        parentOf.put(suite.path("id").asInt(), parentId);
+                    }
+                }
+                return continuationTokenOf(response);
+            });
+        } while (continuationToken != null);
+
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        List<Integer> roots = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : parentOf.entrySet()) {
+            if (parentOf.containsKey(e.getValue())) {
+                children.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+            } else {
+                roots.add(e.getKey());
+            }
+        }
+
+        List<Integer> ordered = new ArrayList<>(parentOf.size());
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(roots.get(i));
+        }
+        while (!stack.isEmpty()) {
+            int suiteId = stack.pop();
+            ordered.add(suiteId);
+            List<Integer> kids = children.getOrDefault(suiteId, Collections.emptyList());
+            for (int i = kids.size() - 1; i >= 0; i--) {
+                stack.push(kids.get(i));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Lists the test cases of a suite with only System.Rev requested, so the
+     * result carries identity, order and revision but no Steps/LocalDataSource.
+     * Used by SuiteCache to find out which cached work items are stale.
+     */
+    CompletableFuture<List<TestCaseData>> loadTestCaseRevisionsAsync(int planId,
+                                                                     int suiteId,
+                                                                     AsyncRequestLimiter limiter,
+                                                                     Executor parseExecutor) {
+        return fetchSuiteAsync(planId, suiteId, "", "System.Rev", null, new ArrayList<>(), limiter, parseExecutor);
+    }
+
+    /**
+     * Fetches full test case items (steps and data source included) for the given ids only.
+     * Ids are requested in chunks to keep the URL short; the chunks go out concurrently.
+     */
+    CompletableFuture<List<TestCaseData>> loadTestCasesByIdsAsync(int planId,
+                                                                  int suiteId,
+                                                                  Collection<Integer> ids,
+                                                                  AsyncRequestLimiter limiter,
+                                                                  Executor parseExecutor) {
+        List<Integer> all = new ArrayList<>(ids);
+        List<CompletableFuture<List<TestCaseData>>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IDS_PER_REQUEST) {
+            StringJoiner idPath = new StringJoiner(",", "/", "");
+            for (Integer id : all.subList(from, Math.min(all.size(), from + IDS_PER_REQUEST))) {
+                idPath.add(String.valueOf(id));
+            }
+            chunks.add(fetchSuiteAsync(planId, suiteId, idPath.toString(), null, null,
+                    new ArrayList<>(), limiter, parseExecutor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<TestCaseData> loaded = new ArrayList<>(all.size());
+            for (CompletableFuture<List<TestCaseData>> chunk : chunks) {
+                loaded.addAll(chunk.join());
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Maps test case id -> test result id for every result of a test run
+     * (GET _apis/test/Runs/{runId}/results, paged with $skip/$top).
+     */
+    Map<Integer, Integer> loadRunResultIds(int runId) throws IOException, InterruptedException {
+        Map<Integer, Integer> resultIds = new HashMap<>();
+        int skip = 0;
+        int pageSize;
+        do {
+            String url = String.format(
+                    "%s/_apis/test/Runs/%d/results?$top=%d&$skip=%d&api-version=%s",
+                    config.getAzureProjectUrl(),
+                    runId,
+                    RESULTS_PER_REQUEST,
+                    skip,
+                    config.getAzureApiVersion()
+            );
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", authHeader)
+                    .build();
+            pageSize = transport.send(request, response -> {
+                failOnError(response, "Failed to get results of run " + runId);
+                int count = 0;
+                try (TestCasePageReader page = new TestCasePageReader(mapper, response.body())) {
+                    JsonNode result;
+                    while ((result = page.nextItem()) != null) {
+                        count++;
+                        resultIds.put(result.path("testCase").path("id").asInt(), result.path("id").asInt());
+                    }
+                }
+                return count;
+            });
+            skip += pageSize;
+        } while (pageSize == RESULTS_PER_REQUEST);
+        return resultIds;
+    }
+
+    /**
+     * Updates several results of a run in one request
+     * (PATCH _apis/test/Runs/{runId}/results with a JSON array of TestCaseResult).
+     */
+    void updateRunResults(int runId, byte[] resultsJson) throws IOException, InterruptedException {
+        String url = String.format(
+                "%s/_apis/test/Runs/%d/results?api-version=%s",
+                config.getAzureProjectUrl(),
+                runId,
+                config.getAzureApiVersion()
+        );
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", authHeader)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(resultsJson))
+                .build();
+        HttpResponse<InputStream> response = transport.send(request);
+        failOnError(response, "Failed to update results of run " + runId);
+        response.body().close();
+    }
+
+    /**
+     * Suite ids the configuration asks for, in load order (see loadConfiguredTestCases).
+     */
+    List<Integer> configuredSuiteIds() throws IOException, InterruptedException {
+        int planId = config.getAzurePlanId();
+        if (config.isAzureLoadWholePlan()) {
+            return loadSuiteIdsInTreeOrder(planId);
+        }
+        List<Integer> suiteIds = config.getAzureSuiteIds();
+        if (!suiteIds.isEmpty()) {
+            return suiteIds;
+        }
+        return Collections.singletonList(config.getAzureSuiteId());
+    }
+
+    /**
+     * Lazily streams the test cases of the configured plan/suite, one page at a time.
+     * The stream holds an open HTTP response, so close it (try-with-resources).
+     */
+    public Stream<TestCaseData> streamTestCasesFromConfiguredSuite() {
         int planId = config.getAzurePlanId();
         int suiteId = config.getAzureSuiteId();
         if (planId <= 0 || suiteId <= 0) {
             throw new IllegalArgumentException("PlanId or SuiteId missing/invalid in config");
         }
+        return streamTestCases(planId, suiteId);
+    }
 
+    /**
+     * Lazily streams the test cases of one suite. Pages are requested on demand by following
+     * the x-ms-continuationtoken header, and every page is read from the response InputStream
+     * with a streaming parser, so peak heap does not depend on the suite size.
+     */
+    public Stream<TestCaseData> streamTestCases(int planId, int suiteId) {
+        SuiteTestCaseIterator iterator = new SuiteTestCaseIterator(planId, suiteId);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(iterator::close);
+    }
+
+    private HttpRequest testCaseRequest(int planId, int suiteId, String continuationToken) {
+        return testCaseRequest(planId, suiteId, "", null, continuationToken);
+    }
+
+    /**
+     * @param idPath      "" for the whole suite, or "/{id1,id2,...}" for selected test cases
+     * @param witFields   optional comma-separated work item fields to return (null = server default)
+     */
+    private HttpRequest testCaseRequest(int planId,
+                                        int suiteId,
+                                        String idPath,
+                                        String witFields,
+                                        String continuationToken) {
         String url = String.format(
-                "%s/_apis/testplan/Plans/%d/Suites/%d/TestCase?api-version=%s",
+                "%s/_apis/testplan/Plans/%d/Suites/%d/TestCase%s?api-version=%s",
                 config.getAzureProjectUrl(),
                 planId,
                 suiteId,
+                idPath,
                 config.getAzureApiVersion()
         );
-
-        HttpRequest request = HttpRequest.newBuilder()
+        if (witFields != null) {
+            url += "&witFields=" + URLEncoder.encode(witFields, StandardCharsets.UTF_8);
+        }
+        if (continuationToken != null) {
+            url += "&continuationToken=" + URLEncoder.encode(continuationToken, StandardCharsets.UTF_8);
+        }
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Authorization", authHeader)
                 .build();
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Failed to get test cases from suite: HTTP " + response.statusCode()
-                    + " body: " + response.body());
+    private static String continuationTokenOf(HttpResponse<?> response) {
+        return response.headers().firstValue(CONTINUATION_TOKEN_HEADER)
+                .filter(token -> !token.isBlank())
+                .orElse(null);
+    }
+
+    /**
+     * Throws with the (drained) error body when the response is not HTTP 200.
+     */
+    private static void failOnError(HttpResponse<InputStream> response, String message) throws IOException {
+        if (response.statusCode() == 200) {
+            return;
+        }
+        String body;
+        try (InputStream in = response.body()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
         }
+        throw new RuntimeException(message + ": HTTP " + response.statusCode() + " body: " + body);
+    }
 
-        JsonNode root = mapper.readTree(response.body());
-        if (!root.isArray()) {
-            throw new RuntimeException("Expected JSON array from testCase endpoint");
+    /**
+     * Pull-based iterator over all pages of one suite. Only the current page's
+     * response stream and the current test case item are held at any time.
+     * When a page body stalls or breaks off, the page is requested again and the items
+     * already returned are skipped (transport retry rules).
+     */
+    private final class SuiteTestCaseIterator implements Iterator<TestCaseData>, AutoCloseable {
+
+        private final int planId;
+        private final int suiteId;
+
+        private TestCasePageReader page;
+        private String continuationToken;
+        private boolean lastPageOpened;
+        private TestCaseData next;
+        // Token the current page was requested with, its items read so far and body retries
+        private String pageToken;
+        private int itemsRead;
+        private int bodyAttempt;
+
+        SuiteTestCaseIterator(int planId, int suiteId) {
+            this.planId = planId;
+            this.suiteId = suiteId;
         }
 
-        List<TestCaseData> testCases = new ArrayList<>();
-        for (JsonNode item : root) {
-            TestCaseData data = parseTestCaseItem(item);
-            if (data != null) {
-                testCases.add(data);
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
             }
+            return next != null;
         }
 
-        return testCases;
+        @Override
+        public TestCaseData next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TestCaseData current = next;
+            next = null;
+            return current;
+        }
+
+        private TestCaseData advance() {
+            try {
+                while (true) {
+                    if (page == null) {
+                        if (lastPageOpened) {
+                            return null;
+                        }
+                        pageToken = continuationToken;
+                        itemsRead = 0;
+                        bodyAttempt = 0;
+                        openPage();
+                    }
+                    JsonNode item;
+                    try {
+                        item = page.nextItem();
+                    } catch (IOException e) {
+                        closePage();
+                        retryDelay(e);
+                        openPage();
+                        continue;
+                    }
+                    if (item == null) {
+                        closePage();
+                        continue;
+                    }
+                    itemsRead++;
+                    TestCaseData data = parseTestCaseItem(item);
+                    if (data != null) {
+                        return data;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Failed to read test cases from suite " + suiteId, e);
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading suite " + suiteId, e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            } catch (Exception e) {
+                close();
+                throw new RuntimeException("Failed to parse test cases from suite " + suiteId, e);
+            }
+        }
+
+        /**
+         * Requests the page of pageToken and skips the itemsRead items already returned from it.
+         */
+        private void openPage() throws IOException, InterruptedException {
+            while (true) {
+                HttpResponse<InputStream> response = transport.send(
+                        testCaseRequest(planId, suiteId, pageToken));
+                failOnError(response, "Failed to get test cases from suite");
+
+                continuationToken = continuationTokenOf(response);
+                lastPageOpened = continuationToken == null;
+
+                try {
+                    page = new TestCasePageReader(mapper, response.body());
+                    for (int i = 0; i < itemsRead; i++) {
+                        if (page.nextItem() == null) {
+                            throw new IOException("Page of suite " + suiteId + " was shorter when read again");
+                        }
+                    }
+                    return;
+                } catch (IOException e) {
+                    closePage();
+                    response.body().close();
+                    retryDelay(e);
+                }
+            }
+        }
+
+        /**
+         * Waits before the page is requested again, or rethrows cause when the retries are used up.
+         */
+        private void retryDelay(IOException cause) throws IOException, InterruptedException {
+            long delay = transport.bodyRetryDelayMillis(bodyAttempt++);
+            if (delay < 0) {
+                throw cause;
+            }
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+
+        private void closePage() {
+            if (page != null) {
+                try {
+                    page.close();
+                } catch (IOException ignore) {
+                }
+                page = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            lastPageOpened = true;
+            closePage();
+        }
     }
 
     /**
      * Parse a single array element (one test case in the suite)
      * into TestCaseData, including multiple steps.
      */
-    private TestCaseData parseTestCaseItem(JsonNode item) throws Exception {
+    TestCaseData parseTestCaseItem(JsonNode item) throws Exception {
         JsonNode workItem = item.path("workItem");
         if (workItem.isMissingNode()) {
             // Unexpected, but we skip if no workItem
@@ -120,6 +646,7 @@ public class AzureDevOpsClient {
         // Work item fields (System.State, Priority, Steps, DataSource, etc.)
         String state = null;
         Integer priority = null;
+        int revision = 0;
         String stepsXml = null;
         String dataSourceXml = null;
 
@@ -133,6 +660,9 @@ public class AzureDevOpsClient {
                 if ("System.State".equals(fieldName) && valueNode != null) {
                     state = valueNode.asText(null);
                 }
+                if ("System.Rev".equals(fieldName) && valueNode != null) {
+                    revision = valueNode.asInt(0);
+                }
                 if ("Microsoft.VSTS.Common.Priority".equals(fieldName) && valueNode != null) {
                     priority = valueNode.isNumber() ? valueNode.intValue() : null;
                 }
@@ -151,6 +681,9 @@ public class AzureDevOpsClient {
             if (fieldNode.has("Microsoft.VSTS.TCM.LocalDataSource")) {
                 dataSourceXml = fieldNode.get("Microsoft.VSTS.TCM.LocalDataSource").asText(null);
             }
+            if (fieldNode.has("System.Rev")) {
+                revision = fieldNode.get("System.Rev").asInt(0);
+            }
         }
 
         // Title: prefer System.Title if present, else workItem.name
@@ -177,6 +710,7 @@ public class AzureDevOpsClient {
                 state,
                 priority
         );
+        data.setRevision(revision);
 
         // Point assignments -> configurations
         JsonNode pointAssignments = item.withArray("pointAssignments");
@@ -185,86 +719,9 @@ public class AzureDevOpsClient {
             data.addConfiguration(cfgName);
         }
 
-        // Steps
-        if (stepsXml != null && !stepsXml.isEmpty()) {
-            parseStepsXml(stepsXml, data);
-        }
-
-        // Data source (if present)
-        if (dataSourceXml != null && !dataSourceXml.isEmpty()) {
-            parseDataSourceXml(dataSourceXml, data);
-        }
+        // Steps and data source stay raw XML until the test case is actually run
+        data.setWorkItemXml(stepsXml, dataSourceXml);
 
         return data;
     }
-
-    /**
-     * Parse <steps> XML into TestStep objects and add to TestCaseData.
-     */
-    private void parseStepsXml(String stepsXml, TestCaseData data) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(false);
-        ByteArrayInputStream is = new ByteArrayInputStream(stepsXml.getBytes(StandardCharsets.UTF_8));
-        Document doc = factory.newDocumentBuilder().parse(is);
-        NodeList stepNodes = doc.getElementsByTagName("step");
-
-        for (int i = 0; i < stepNodes.getLength(); i++) {
-            Element stepEl = (Element) stepNodes.item(i);
-            int id = Integer.parseInt(stepEl.getAttribute("id"));
-            String type = stepEl.getAttribute("type");
-
-            NodeList paramNodes = stepEl.getElementsByTagName("parameterizedString");
-            String action = "";
-            String expected = "";
-            if (paramNodes.getLength() > 0) {
-                action = paramNodes.item(0).getTextContent();
-            }
-            if (paramNodes.getLength() > 1) {
-                expected = paramNodes.item(1).getTextContent();
-            }
-
-            // Unescape HTML entities (&lt;DIV&gt; -> <DIV>, etc.)
-            action = StringEscapeUtils.unescapeHtml4(action).trim();
-            expected = StringEscapeUtils.unescapeHtml4(expected).trim();
-
-            data.addStep(new TestStep(id, type, action, expected));
-        }
-    }
-
-    /**
-     * Parse LocalDataSource XML into list of data rows (parameter -> value).
-     * Expected structure like:
-     * <NewDataSet>
-     *   <Table1>
-     *     <param1>value1</param1>
-     *     <param2>value2</param2>
-     *   </Table1>
-     *   ...
-     * </NewDataSet>
-     */
-    private void parseDataSourceXml(String dataSourceXml, TestCaseData data) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(false);
-        ByteArrayInputStream is = new ByteArrayInputStream(dataSourceXml.getBytes(StandardCharsets.UTF_8));
-        Document doc = factory.newDocumentBuilder().parse(is);
-
-        NodeList tableNodes = doc.getElementsByTagName("Table1");
-        for (int i = 0; i < tableNodes.getLength(); i++) {
-            Element table = (Element) tableNodes.item(i);
-            Map<String, String> row = new LinkedHashMap<>();
-            NodeList children = table.getChildNodes();
-            for (int j = 0; j < children.getLength(); j++) {
-                Node n = children.item(j);
-                if (n.getNodeType() == Node.ELEMENT_NODE) {
-                    Element e = (Element) n;
-                    String name = e.getTagName();
-                    String value = e.getTextContent();
-                    row.put(name, value);
-                }
-            }
-            if (!row.isEmpty()) {
-                data.addDataRow(row);
-            }
-        }
-    }
 }
@@ -0,0 +1,475 @@
+package com.azure;
+
+import com.config.FrameworkConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared HTTP layer for all Azure DevOps calls: one HttpClient (HTTP/2, connections reused),
+ * connect/request timeouts, a client-side token bucket and retries with backoff.
+ *
+ * Retried: IOExceptions (including request timeouts), 429 and 5xx other than 501/505.
+ * Bodies fail with HttpTimeoutException when no data arrives for the request timeout (see
+ * BodyReadDeadline); the send variants taking a BodyReader retry that like a failed send.
+ * The wait before a retry is, in order of preference, the server's Retry-After, the
+ * X-RateLimit-Reset time when X-RateLimit-Remaining is 0, or jittered exponential backoff.
+ * A Retry-After / exhausted rate limit seen on ANY response also pauses every other request
+ * until then, so a throttled load slows down as a whole instead of hammering the server.
+ *
+ * send() waits on the calling thread; sendAsync() never blocks - delays are scheduled.
+ */
+public class AzureHttpTransport {
+
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    private static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+    // Upper bound for server-requested waits, so a bogus header cannot stall a run
+    private static final long MAX_SERVER_DELAY_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final HttpResponse.BodyHandler<InputStream> bodyHandler;
+    private final int maxRetries;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    // Token bucket (disabled when nanosPerToken == 0); nextFreeNanos is the time the next token is available
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+    // Shared pause requested by the server (System.nanoTime based)
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong ioErrors = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong waitedNanos = new AtomicLong();
+
+    public AzureHttpTransport(FrameworkConfig config) {
+        this(HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofMillis(config.getAzureConnectTimeoutMs()))
+                        .build(),
+                Duration.ofMillis(config.getAzureRequestTimeoutMs()),
+                config.getAzureMaxRetries(),
+                config.getAzureBackoffBaseMs(),
+                config.getAzureBackoffMaxMs(),
+                config.getAzureRequestsPerSecond(),
+                config.getAzureRequestBurst());
+    }
+
+    /**
+     * @param requestsPerSecond token bucket rate, 0 or less disables it
+     * @param burst             requests that may go out back-to-back after an idle period
+     */
+    public AzureHttpTransport(HttpClient httpClient,
+                              Duration requestTimeout,
+                              int maxRetries,
+                              long backoffBaseMs,
+                              long backoffMaxMs,
+                              double requestsPerSecond,
+                              int burst) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        this.bodyHandler = requestTimeout == null
+                ? HttpResponse.BodyHandlers.ofInputStream()
+                : info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+                        in -> new BodyReadDeadline(in, requestTimeout.toNanos()));
+        this.maxRetries = Math.max(0, maxRetries);
+        this.backoffBaseMs = Math.max(1, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+        this.nanosPerToken = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+        this.burstNanos = nanosPerToken * Math.max(1, burst);
+    }
+
+    /**
+     * Sends with retries. The returned response may still be an error (non-retryable status,
+     * or retries exhausted); the caller checks the status as before.
+     */
+    public HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpRequest timed = withTimeout(request);
+        for (int attempt = 0; ; attempt++) {
+            long wait = admissionDelayNanos();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(timed, bodyHandler);
+            } catch (IOException e) {
+                recordLatency(start);
+                long delay = retryDelayMillis(null, attempt);
+                if (delay < 0) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(delay);
+                continue;
+            }
+            recordLatency(start);
+            long delay = retryDelayMillis(response, attempt);
+            if (delay < 0) {
+                return response;
+            }
+            discard(response);
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+    }
+
+    /**
+     * Asynchronous send with the same retry rules as send(); waits are scheduled, not slept.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request) {
+        return attemptAsync(withTimeout(request), 0);
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> attemptAsync(HttpRequest request, int attempt) {
+        long[] start = new long[1];
+        return after(TimeUnit.NANOSECONDS.toMillis(admissionDelayNanos()))
+                .thenCompose(ignore -> {
+                    start[0] = System.nanoTime();
+                    return httpClient.sendAsync(request, bodyHandler);
+                })
+                .handle((response, error) -> {
+                    recordLatency(start[0]);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause != null && !(cause instanceof IOException)) {
+                        return CompletableFuture.<HttpResponse<InputStream>>failedFuture(cause);
+                    }
+                    long delay = retryDelayMillis(response, attempt);
+                    if (delay < 0) {
+                        if (cause != null) {
+                            failures.incrementAndGet();
+                            return CompletableFuture.<HttpResponse<InputStream>>failedFuture(cause);
+                        }
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    if (response != null) {
+                        // Closed, not drained: draining would block the HttpClient executor
+                        closeQuietly(response);
+                    }
+                    return after(delay).thenCompose(ignore -> attemptAsync(request, attempt + 1));
+                })
+                .thenCompose(next -> next);
+    }
+
+    /**
+     * Reads a response body of a request, returning reader's result.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(HttpResponse<InputStream> response) throws IOException;
+    }
+
+    /**
+     * send(request) followed by reader on the calling thread. When reading the body fails with
+     * an IOException (stalled or cut off), the request is sent again under the same retry
+     * rules, so reader must not have side effects that a second call would repeat. The body
+     * is closed afterwards.
+     */
+    public <T> T send(HttpRequest request, BodyReader<T> reader) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            HttpResponse<InputStream> response = send(request);
+            try (InputStream ignored = response.body()) {
+                return reader.read(response);
+            } catch (IOException e) {
+                long delay = bodyRetryDelayMillis(attempt);
+                if (delay < 0) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Asynchronous send(request, reader): reader runs on executor, body read failures are
+     * retried with scheduled delays.
+     */
+    public <T> CompletableFuture<T> sendAsync(HttpRequest request, BodyReader<T> reader, Executor executor) {
+        return readAsync(withTimeout(request), reader, executor, 0);
+    }
+
+    private <T> CompletableFuture<T> readAsync(HttpRequest request, BodyReader<T> reader, Executor executor,
+                                               int attempt) {
+        return attemptAsync(request, 0).thenComposeAsync(response -> {
+            try (InputStream ignored = response.body()) {
+                return CompletableFuture.completedFuture(reader.read(response));
+            } catch (IOException e) {
+                long delay = bodyRetryDelayMillis(attempt);
+                if (delay < 0) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                return after(delay).thenCompose(ignore -> readAsync(request, reader, executor, attempt + 1));
+            }
+        }, executor);
+    }
+
+    /**
+     * Delay before sending a request again because reading its response body failed, or -1
+     * when attempt used up the retries. Callers that stream a body themselves use this to
+     * retry under the same rules.
+     */
+    long bodyRetryDelayMillis(int attempt) {
+        long delay = retryDelayMillis(null, attempt);
+        if (delay < 0) {
+            failures.incrementAndGet();
+        }
+        return delay;
+    }
+
+    private static CompletableFuture<Void> after(long millis) {
+        if (millis <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+    }
+
+    // ---- policy ----
+
+    /**
+     * Milliseconds to wait before retrying, or -1 to hand the outcome to the caller.
+     * A null response means the attempt failed with an IOException.
+     */
+    private long retryDelayMillis(HttpResponse<?> response, int attempt) {
+        long serverDelay = -1;
+        if (response != null) {
+            serverDelay = serverRequestedDelayMillis(response.headers());
+            if (serverDelay > 0) {
+                pauseAllFor(serverDelay);
+            }
+            if (!isRetryableStatus(response.statusCode())) {
+                return -1;
+            }
+            if (response.statusCode() == 429 || response.statusCode() == 503) {
+                throttled.incrementAndGet();
+            }
+        } else {
+            ioErrors.incrementAndGet();
+        }
+        if (attempt >= maxRetries) {
+            if (response != null) {
+                failures.incrementAndGet();
+            }
+            return -1;
+        }
+        retries.incrementAndGet();
+        return serverDelay >= 0 ? serverDelay : backoffMillis(attempt);
+    }
+
+    private static boolean isRetryableStatus(int status) {
+        return status == 429 || (status >= 500 && status != 501 && status != 505);
+    }
+
+    /**
+     * Equal-jitter exponential backoff: half the capped exponential delay plus a random share of the other half.
+     */
+    private long backoffMillis(int attempt) {
+        long exp = backoffBaseMs << Math.min(attempt, 20);
+        long cap = Math.min(backoffMaxMs, exp);
+        long half = cap / 2;
+        return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+    }
+
+    /**
+     * Delay asked for by Retry-After (seconds or HTTP date), else by an exhausted
+     * X-RateLimit-Remaining with its X-RateLimit-Reset (epoch seconds); -1 when neither applies.
+     */
+    static long serverRequestedDelayMillis(HttpHeaders headers) {
+        String retryAfter = headers.firstValue(RETRY_AFTER).orElse(null);
+        if (retryAfter != null) {
+            long millis = parseRetryAfterMillis(retryAfter.trim());
+            if (millis >= 0) {
+                return Math.min(millis, MAX_SERVER_DELAY_MS);
+            }
+        }
+        String remaining = headers.firstValue(RATE_LIMIT_REMAINING).orElse(null);
+        String reset = headers.firstValue(RATE_LIMIT_RESET).orElse(null);
+        if (remaining != null && reset != null) {
+            try {
+                if (Double.parseDouble(remaining.trim()) <= 0) {
+                    long millis = Long.parseLong(reset.trim()) * 1000 - System.currentTimeMillis();
+                    return Math.min(Math.max(0, millis), MAX_SERVER_DELAY_MS);
+                }
+            } catch (NumberFormatException ignore) {
+                // Malformed header: fall back to backoff
+            }
+        }
+        return -1;
+    }
+
+    private static long parseRetryAfterMillis(String value) {
+        try {
+            return (long) (Double.parseDouble(value) * 1000);
+        } catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException notDate) {
+                return -1;
+            }
+        }
+    }
+
+    // ---- pacing ----
+
+    private void pauseAllFor(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        pausedUntilNanos.accumulateAndGet(until, Math::max);
+    }
+
+    /**
+     * Reserves a token and returns how long the caller must wait before sending
+     * (token bucket plus any shared server-requested pause).
+     */
+    private long admissionDelayNanos() {
+        requests.incrementAndGet();
+        long now = System.nanoTime();
+        long wait = 0;
+        if (nanosPerToken > 0) {
+            long slot = nextFreeNanos.getAndUpdate(next -> Math.max(next, now - burstNanos) + nanosPerToken);
+            wait = Math.max(0, Math.max(slot, now - burstNanos) - now);
+        }
+        wait = Math.max(wait, pausedUntilNanos.get() - now);
+        if (wait > 0) {
+            waitedNanos.addAndGet(wait);
+        }
+        return Math.max(0, wait);
+    }
+
+    private HttpRequest withTimeout(HttpRequest request) {
+        if (request.timeout().isPresent() || requestTimeout == null) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(requestTimeout)
+                .build();
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        totalLatencyNanos.addAndGet(elapsed);
+        maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Drains and closes a response we are not going to use, so its connection can be reused.
+     * Calling thread only; bounded by the body read deadline.
+     */
+    private static void discard(HttpResponse<InputStream> response) {
+        try (InputStream in = response.body()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException ignore) {
+        }
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    public Stats getStats() {
+        long count = requests.get();
+        return new Stats(
+                count,
+                retries.get(),
+                throttled.get(),
+                ioErrors.get(),
+                failures.get(),
+                count == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / count,
+                maxLatencyNanos.get() / 1_000_000.0,
+                waitedNanos.get() / 1_000_000.0
+        );
+    }
+
+    /**
+     * Counters since the transport was created; requests counts every attempt, retries included.
+     */
+    public static final class Stats {
+        private final long requests;
+        private final long retries;
+        private final long throttled;
+        private final long ioErrors;
+        private final long failures;
+        private final double avgLatencyMillis;
+        private final double maxLatencyMillis;
+        private final double waitedMillis;
+
+        Stats(long requests, long retries, long throttled, long ioErrors, long failures,
+              double avgLatencyMillis, double maxLatencyMillis, double waitedMillis) {
+            this.requests = requests;
+            this.retries = retries;
+            this.throttled = throttled;
+            this.ioErrors = ioErrors;
+            this.failures = failures;
+            this.avgLatencyMillis = avgLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+            this.waitedMillis = waitedMillis;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getThrottled() {
+            return throttled;
+        }
+
+        public long getIoErrors() {
+            return ioErrors;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getAvgLatencyMillis() {
+            return avgLatencyMillis;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        public double getWaitedMillis() {
+            return waitedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d retries=%d throttled=%d ioErrors=%d failures=%d "
+                            + "avgLatencyMs=%.1f maxLatencyMs=%.1f waitedMs=%.0f",
+                    requests, retries, throttled, ioErrors, failures,
+                    avgLatencyMillis, maxLatencyMillis, waitedMillis);
+        }
+    }
+}
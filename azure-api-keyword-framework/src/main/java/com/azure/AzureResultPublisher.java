@@ -0,0 +1,301 @@
+package com.azure;
+
+import com.config.FrameworkConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.model.ExecutionReport;
+import com.model.IterationReport;
+import com.model.StepReport;
+import com.model.StepStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes ExecutionReports to an Azure test run (azure.runId) from a background thread.
+ *
+ * Test threads only enqueue (submit blocks solely when azure.publish.queueCapacity reports
+ * are already waiting). The sender drains up to azure.publish.batchSize reports, waiting at
+ * most azure.publish.lingerMs for more, merges reports of the same test case and sends the
+ * batch as ONE PATCH _apis/test/Runs/{runId}/results. close() flushes everything queued.
+ *
+ * A failed request is counted and remembered (see getFailedCount/getLastError) but never
+ * fails the test run.
+ */
+public class AzureResultPublisher implements AutoCloseable {
+
+    // Queued by close() to tell the sender that nothing else follows
+    private static final ExecutionReport END_OF_REPORTS = new ExecutionReport();
+
+    private final AzureDevOpsClient client;
+    private final int runId;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<ExecutionReport> queue;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Thread sender;
+
+    private final AtomicInteger published = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile Exception lastError;
+    private volatile boolean closed;
+
+    // testCaseId -> resultId of the run, loaded by the sender on first use
+    private Map<Integer, Integer> resultIds;
+
+    public AzureResultPublisher(FrameworkConfig config, AzureDevOpsClient client) {
+        this(client,
+                config.getAzureRunId(),
+                config.getAzurePublishQueueCapacity(),
+                config.getAzurePublishBatchSize(),
+                config.getAzurePublishLingerMs());
+    }
+
+    public AzureResultPublisher(AzureDevOpsClient client, int runId, int queueCapacity, int batchSize, long lingerMs) {
+        this.client = client;
+        this.runId = runId;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (isEnabled()) {
+            this.sender = new Thread(this::sendLoop, "azure-result-publisher");
+            sender.setDaemon(true);
+            sender.start();
+        } else {
+            this.sender = null;
+        }
+    }
+
+    /**
+     * Publisher that ignores every report (no run, no sender thread), e.g. for a shard whose
+     * results ShardMerger publishes.
+     */
+    public static AzureResultPublisher disabled(AzureDevOpsClient client) {
+        return new AzureResultPublisher(client, 0, 1, 1, 0);
+    }
+
+    /**
+     * False when no azure.runId is configured; submit() then ignores reports.
+     */
+    public boolean isEnabled() {
+        return runId > 0;
+    }
+
+    /**
+     * Queues a finished report. The report must not be modified afterwards.
+     */
+    public void submit(ExecutionReport report) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("AzureResultPublisher is closed");
+        }
+        try {
+            queue.put(report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing result of test case " + report.testCaseId, e);
+        }
+    }
+
+    /**
+     * Sends everything still queued and stops the sender.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (sender == null) {
+            return;
+        }
+        try {
+            queue.put(END_OF_REPORTS);
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPublishedCount() {
+        return published.get();
+    }
+
+    public int getFailedCount() {
+        return failed.get();
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "run=" + runId + " published=" + published.get() + " failed=" + failed.get()
+                + " requests=" + requests.get()
+                + (lastError != null ? " lastError=" + lastError.getMessage() : "");
+    }
+
+    // ---- sender thread ----
+
+    private void sendLoop() {
+        boolean done = false;
+        try {
+            while (!done) {
+                List<ExecutionReport> batch = new ArrayList<>(batchSize);
+                ExecutionReport first = queue.take();
+                if (first == END_OF_REPORTS) {
+                    done = true;
+                } else {
+                    batch.add(first);
+                }
+                long deadline = System.nanoTime() + lingerNanos;
+                while (!done && batch.size() < batchSize) {
+                    ExecutionReport next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == END_OF_REPORTS) {
+                        done = true;
+                    } else {
+                        batch.add(next);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    send(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(List<ExecutionReport> batch) {
+        Map<Integer, ExecutionReport> merged = coalesce(batch);
+        int unknown = 0;
+        try {
+            if (resultIds == null) {
+                resultIds = client.loadRunResultIds(runId);
+            }
+            ArrayNode body = mapper.createArrayNode();
+            for (ExecutionReport report : merged.values()) {
+                Integer resultId = resultIds.get(report.testCaseId);
+                if (resultId == null) {
+                    unknown++;
+                    failed.incrementAndGet();
+                    lastError = new IllegalStateException("Test case " + report.testCaseId + " has no result in run " + runId);
+                    continue;
+                }
+                body.add(toResultJson(resultId, report));
+            }
+            if (body.isEmpty()) {
+                return;
+            }
+            requests.incrementAndGet();
+            client.updateRunResults(runId, mapper.writeValueAsBytes(body));
+            published.addAndGet(body.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.addAndGet(merged.size() - unknown);
+            lastError = e;
+        } catch (Exception e) {
+            failed.addAndGet(merged.size() - unknown);
+            lastError = e;
+        }
+    }
+
+    /**
+     * One report per test case: later reports of the same test case add their iterations.
+     */
+    private static Map<Integer, ExecutionReport> coalesce(List<ExecutionReport> batch) {
+        Map<Integer, ExecutionReport> merged = new LinkedHashMap<>();
+        for (ExecutionReport report : batch) {
+            ExecutionReport existing = merged.get(report.testCaseId);
+            if (existing == null) {
+                merged.put(report.testCaseId, report);
+                continue;
+            }
+            ExecutionReport combined = new ExecutionReport();
+            combined.testCaseId = existing.testCaseId;
+            combined.title = existing.title;
+            combined.startTimeMillis = Math.min(existing.startTimeMillis, report.startTimeMillis);
+            combined.endTimeMillis = Math.max(existing.endTimeMillis, report.endTimeMillis);
+            combined.iterations.addAll(existing.iterations);
+            combined.iterations.addAll(report.iterations);
+            combined.error = existing.error != null ? existing.error : report.error;
+            merged.put(report.testCaseId, combined);
+        }
+        return merged;
+    }
+
+    private ObjectNode toResultJson(int resultId, ExecutionReport report) {
+        ObjectNode result = mapper.createObjectNode();
+        result.put("id", resultId);
+        result.put("state", "Completed");
+        result.put("outcome", toAzureOutcome(report.getOverallStatus()));
+        result.put("errorMessage", report.getFirstErrorMessage());
+        result.put("startedDate", toAzureDate(report.startTimeMillis));
+        result.put("completedDate", toAzureDate(report.endTimeMillis));
+        result.put("durationInMs", report.getDurationMillis());
+
+        ArrayNode iterationDetails = result.putArray("iterationDetails");
+        for (IterationReport iteration : report.iterations) {
+            ObjectNode it = iterationDetails.addObject();
+            it.put("id", iteration.iterationId);
+            it.put("outcome", toAzureOutcome(iteration.getStatus()));
+            it.put("errorMessage", iteration.getFirstErrorMessage());
+            it.put("startedDate", toAzureDate(iteration.startTimeMillis));
+            it.put("completedDate", toAzureDate(iteration.endTimeMillis));
+            it.put("durationInMs", iteration.getDurationMillis());
+
+            ArrayNode actionResults = it.putArray("actionResults");
+            for (StepReport step : iteration.steps) {
+                ObjectNode action = actionResults.addObject();
+                action.put("actionPath", step.stepPath);
+                action.put("iterationId", step.iterationId);
+                action.put("stepIdentifier", String.valueOf(step.stepIndex));
+                action.put("outcome", toAzureOutcome(step.status));
+                action.put("errorMessage", step.errorMessage);
+                action.put("comment", step.comment);
+                action.put("startedDate", toAzureDate(step.startTimeMillis));
+                action.put("completedDate", toAzureDate(step.endTimeMillis));
+                action.put("durationInMs", step.getDurationMillis());
+            }
+        }
+        return result;
+    }
+
+    private static String toAzureOutcome(StepStatus status) {
+        if (status == null) {
+            return "NotExecuted";
+        }
+        switch (status) {
+            case PASSED:
+                return "Passed";
+            case FAILED:
+                return "Failed";
+            case NOT_RUN:
+            default:
+                return "NotExecuted";
+        }
+    }
+
+    private static String toAzureDate(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).toString();
+    }
+}
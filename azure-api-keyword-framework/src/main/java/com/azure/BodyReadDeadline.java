@@ -0,0 +1,103 @@
+package com.azure;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body stream that fails with HttpTimeoutException when no byte arrives for
+ * timeoutNanos. HttpRequest.timeout only covers the wait for the response headers; without
+ * this a server that stalls in the middle of a body blocks the reader forever.
+ *
+ * One shared daemon thread closes stalled streams, which wakes up a reader blocked on them.
+ */
+final class BodyReadDeadline extends FilterInputStream {
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "azure-http-body-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long timeoutNanos;
+    private volatile long lastProgressNanos = System.nanoTime();
+    private volatile boolean timedOut;
+    private volatile boolean closed;
+    private ScheduledFuture<?> check;
+
+    BodyReadDeadline(InputStream in, long timeoutNanos) {
+        super(in);
+        this.timeoutNanos = timeoutNanos;
+        schedule(timeoutNanos);
+    }
+
+    private synchronized void schedule(long delayNanos) {
+        if (!closed) {
+            check = WATCHDOG.schedule(this::check, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void check() {
+        long idle = System.nanoTime() - lastProgressNanos;
+        if (idle < timeoutNanos) {
+            schedule(timeoutNanos - idle);
+            return;
+        }
+        timedOut = true;
+        try {
+            close();
+        } catch (IOException ignore) {
+            // The reader gets the timeout either way
+        }
+    }
+
+    private int progress(int n) throws IOException {
+        if (timedOut) {
+            throw new HttpTimeoutException("No response body data within "
+                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        }
+        lastProgressNanos = System.nanoTime();
+        return n;
+    }
+
+    @Override
+    public int read() throws IOException {
+        try {
+            return progress(super.read());
+        } catch (IOException e) {
+            progress(0);
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        try {
+            return progress(super.read(b, off, len));
+        } catch (IOException e) {
+            progress(0);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledFuture<?> pending;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending = check;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        super.close();
+    }
+}
@@ -0,0 +1,342 @@
+package com.azure;
+
+import com.config.FrameworkConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.model.DataRow;
+import com.model.DataTable;
+import com.model.TestCaseData;
+import com.model.TestStep;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Persistent, revision-checked cache of parsed suite test cases.
+ *
+ * One Smile file per project/plan/suite holds the TestCaseData keyed by work item id and
+ * System.Rev, with the steps and data table already parsed (column names plus String[] rows).
+ * A load asks Azure for the lightweight id/revision list of the suite, fetches and parses full
+ * items only for new or changed ids, and rewrites the cache file when anything changed.
+ * Files live in a directory per azure.projectUrl, so another server or collection never
+ * sees them. Writing the cache is best effort: a failure is reported and the load goes on.
+ */
+public class SuiteCache {
+
+    // Bump whenever CachedTestCase changes shape; older files are then ignored
+    private static final int FORMAT_VERSION = 3;
+
+    private final FrameworkConfig config;
+    private final AzureDevOpsClient client;
+    private final Path cacheDir;
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public SuiteCache(FrameworkConfig config, AzureDevOpsClient client) {
+        this.config = config;
+        this.client = client;
+        this.cacheDir = Paths.get(config.getAzureCacheDir()).resolve(projectKey(config.getAzureProjectUrl()));
+    }
+
+    /**
+     * Cached equivalent of AzureDevOpsClient.loadConfiguredTestCases(). Suites are refreshed
+     * concurrently through the client's AsyncRequestLimiter, like an uncached plan load.
+     */
+    public List<TestCaseData> loadConfiguredTestCases() throws Exception {
+        int planId = config.getAzurePlanId();
+        if (planId <= 0) {
+            throw new IllegalArgumentException("PlanId missing/invalid in config");
+        }
+        List<Integer> suiteIds = client.configuredSuiteIds();
+        for (int suiteId : suiteIds) {
+            if (suiteId <= 0) {
+                throw new IllegalArgumentException("SuiteId missing/invalid in config");
+            }
+        }
+        return client.loadSuitesConcurrently(suiteIds, (suiteId, limiter, parseExecutor) ->
+                loadAsync(planId, suiteId, limiter, parseExecutor));
+    }
+
+    /**
+     * Returns the suite's test cases in suite order, re-downloading only work items
+     * whose revision differs from the cached copy.
+     */
+    public List<TestCaseData> load(int planId, int suiteId) throws Exception {
+        if (suiteId <= 0) {
+            throw new IllegalArgumentException("SuiteId missing/invalid in config");
+        }
+        return client.loadSuitesConcurrently(Collections.singletonList(suiteId), (id, limiter, parseExecutor) ->
+                loadAsync(planId, id, limiter, parseExecutor));
+    }
+
+    private CompletableFuture<List<TestCaseData>> loadAsync(int planId,
+                                                            int suiteId,
+                                                            AsyncRequestLimiter limiter,
+                                                            Executor parseExecutor) {
+        Path file = cacheFile(planId, suiteId);
+        // The cache file is read while the revision list is being fetched
+        CompletableFuture<Map<Integer, CachedTestCase>> cachedFuture =
+                CompletableFuture.supplyAsync(() -> read(file), parseExecutor);
+
+        return client.loadTestCaseRevisionsAsync(planId, suiteId, limiter, parseExecutor)
+                .thenCombine(cachedFuture, (current, cached) -> {
+                    List<Integer> stale = new ArrayList<>();
+                    for (TestCaseData light : current) {
+                        CachedTestCase hit = cached.get(light.getId());
+                        if (hit == null || hit.revision != light.getRevision()) {
+                            stale.add(light.getId());
+                        }
+                    }
+                    CompletableFuture<List<TestCaseData>> refreshed = stale.isEmpty()
+                            ? CompletableFuture.completedFuture(Collections.emptyList())
+                            : client.loadTestCasesByIdsAsync(planId, suiteId, stale, limiter, parseExecutor);
+                    return refreshed.thenApplyAsync(full -> merge(file, cached, current, stale, full), parseExecutor);
+                })
+                .thenCompose(merged -> merged);
+    }
+
+    /**
+     * Combines the revision list with cached and freshly loaded items, and rewrites the
+     * cache file when anything changed.
+     */
+    private List<TestCaseData> merge(Path file,
+                                     Map<Integer, CachedTestCase> cached,
+                                     List<TestCaseData> current,
+                                     List<Integer> stale,
+                                     List<TestCaseData> loaded) {
+        Map<Integer, TestCaseData> refreshed = new HashMap<>();
+        for (TestCaseData full : loaded) {
+            refreshed.put(full.getId(), full);
+        }
+
+        List<TestCaseData> result = new ArrayList<>(current.size());
+        List<CachedTestCase> toWrite = new ArrayList<>(current.size());
+        for (TestCaseData light : current) {
+            TestCaseData full = refreshed.get(light.getId());
+            CachedTestCase entry = full != null ? CachedTestCase.from(full) : cached.get(light.getId());
+            if (entry == null) {
+                // Listed but not returned by the by-id call (deleted meanwhile); skip it
+                continue;
+            }
+            // Order and point assignments are suite properties and may change without a new revision
+            entry.order = light.getOrder();
+            entry.configurations = new ArrayList<>(light.getConfigurations());
+            toWrite.add(entry);
+            result.add(entry.toTestCase());
+        }
+
+        if (!stale.isEmpty() || toWrite.size() != cached.size()) {
+            try {
+                write(file, toWrite);
+            } catch (IOException | RuntimeException e) {
+                // Only an optimisation: the next load fetches these test cases again
+                System.err.println("Suite cache not written (" + file + "): " + e);
+            }
+        }
+        return result;
+    }
+
+    private Path cacheFile(int planId, int suiteId) {
+        return cacheDir.resolve("plan-" + planId + "-suite-" + suiteId + ".smile");
+    }
+
+    /**
+     * Directory name for a project URL: the first 16 hex digits of its SHA-256, trailing '/' ignored.
+     */
+    static String projectKey(String projectUrl) {
+        String url = projectUrl == null ? "" : projectUrl.trim();
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder("project-");
+            for (int i = 0; i < 8; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Map<Integer, CachedTestCase> read(Path file) {
+        Map<Integer, CachedTestCase> byId = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return byId;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            CachedSuite suite = smile.readValue(in, CachedSuite.class);
+            if (suite.formatVersion == FORMAT_VERSION && suite.testCases != null) {
+                for (CachedTestCase tc : suite.testCases) {
+                    byId.put(tc.id, tc);
+                }
+            }
+        } catch (IOException e) {
+            // Corrupt or incompatible cache: treat as cold start
+            byId.clear();
+        }
+        return byId;
+    }
+
+    private void write(Path file, List<CachedTestCase> testCases) throws IOException {
+        Files.createDirectories(file.getParent());
+        CachedSuite suite = new CachedSuite();
+        suite.formatVersion = FORMAT_VERSION;
+        suite.testCases = testCases;
+
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                smile.writeValue(out, suite);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // ---- Cache file DTOs ----
+
+    public static class CachedSuite {
+        public int formatVersion;
+        public List<CachedTestCase> testCases;
+    }
+
+    public static class CachedTestCase {
+        public int id;
+        public int revision;
+        public String title;
+        public int order;
+        public int planId;
+        public String planName;
+        public int suiteId;
+        public String suiteName;
+        public String projectName;
+        public String state;
+        public Integer priority;
+        public List<String> configurations;
+        // Parsed content; null when the XML did not parse and is kept raw below instead
+        public List<CachedStep> steps;
+        public String[] columns;
+        public List<String[]> rows;
+        public String stepsXml;
+        public String dataSourceXml;
+
+        /**
+         * data must come straight from the client; its steps and data rows are parsed here.
+         * XML that fails to parse is kept raw, so the error shows when that test case runs,
+         * as it does without the cache.
+         */
+        static CachedTestCase from(TestCaseData data) {
+            CachedTestCase c = new CachedTestCase();
+            c.id = data.getId();
+            c.revision = data.getRevision();
+            c.title = data.getTitle();
+            c.order = data.getOrder();
+            c.planId = data.getPlanId();
+            c.planName = data.getPlanName();
+            c.suiteId = data.getSuiteId();
+            c.suiteName = data.getSuiteName();
+            c.projectName = data.getProjectName();
+            c.state = data.getState();
+            c.priority = data.getPriority();
+            c.configurations = new ArrayList<>(data.getConfigurations());
+
+            String stepsXml = data.getStepsXml();
+            try {
+                c.steps = new ArrayList<>();
+                for (TestStep step : data.getSteps()) {
+                    c.steps.add(CachedStep.from(step));
+                }
+            } catch (IllegalStateException e) {
+                c.steps = null;
+                c.stepsXml = stepsXml;
+            }
+            String dataSourceXml = data.getDataSourceXml();
+            try {
+                DataTable table = data.getDataTable();
+                c.columns = table.getSchema().columns();
+                c.rows = new ArrayList<>(table.size());
+                for (int r = 0; r < table.size(); r++) {
+                    DataRow row = table.get(r);
+                    String[] values = new String[c.columns.length];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = row.get(i);
+                    }
+                    c.rows.add(values);
+                }
+            } catch (IllegalStateException e) {
+                c.columns = null;
+                c.rows = null;
+                c.dataSourceXml = dataSourceXml;
+            }
+            return c;
+        }
+
+        TestCaseData toTestCase() {
+            TestCaseData data = new TestCaseData(id, title, order, planId, planName,
+                    suiteId, suiteName, projectName, state, priority);
+            data.setRevision(revision);
+            if (configurations != null) {
+                configurations.forEach(data::addConfiguration);
+            }
+            data.setWorkItemXml(stepsXml, dataSourceXml);
+
+            List<TestStep> parsedSteps = null;
+            if (steps != null) {
+                parsedSteps = new ArrayList<>(steps.size());
+                for (CachedStep step : steps) {
+                    parsedSteps.add(step.toTestStep());
+                }
+            }
+            DataTable table = null;
+            if (columns != null && rows != null) {
+                List<String[]> values = new ArrayList<>(rows.size());
+                for (String[] row : rows) {
+                    values.add(row.clone());
+                }
+                table = DataTable.of(columns, values);
+            }
+            data.setParsedContent(parsedSteps, table);
+            return data;
+        }
+    }
+
+    public static class CachedStep {
+        public int id;
+        public String type;
+        public String action;
+        public String expected;
+
+        static CachedStep from(TestStep step) {
+            CachedStep c = new CachedStep();
+            c.id = step.getId();
+            c.type = step.getType();
+            c.action = step.getAction();
+            c.expected = step.getExpected();
+            return c;
+        }
+
+        TestStep toTestStep() {
+            return new TestStep(id, type, action, expected);
+        }
+    }
+}
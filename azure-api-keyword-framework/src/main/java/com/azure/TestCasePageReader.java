@@ -0,0 +1,72 @@
+package com.azure;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads one page of the suite TestCase response item by item with Jackson's
+ * streaming parser, so only a single test case tree is held in memory at a time.
+ * Accepts both a bare JSON array and the {"value": [...], "count": n} envelope.
+ */
+class TestCasePageReader implements Closeable {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private boolean exhausted;
+
+    TestCasePageReader(ObjectMapper mapper, InputStream in) throws IOException {
+        this.mapper = mapper;
+        this.parser = mapper.getFactory().createParser(in);
+        positionAtItems();
+    }
+
+    /**
+     * Moves the parser to the START_ARRAY token of the item list.
+     */
+    private void positionAtItems() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected JSON array from testCase endpoint");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("value".equals(field) && value == JsonToken.START_ARRAY) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        // Envelope without a "value" array -> empty page
+        exhausted = true;
+    }
+
+    /**
+     * Returns the next test case element of the page, or null when the page is exhausted.
+     */
+    JsonNode nextItem() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            exhausted = true;
+            return null;
+        }
+        return mapper.readTree(parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        exhausted = true;
+        parser.close();
+    }
+}
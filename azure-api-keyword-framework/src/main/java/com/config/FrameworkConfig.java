@@ -1,14 +1,17 @@
 package com.config;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class FrameworkConfig {
 
     private static final String CONFIG_FILE = "config.properties";
-    private final Properties props = new Properties();
+    private final Properties props;
 
     public FrameworkConfig() {
+        this.props = new Properties();
         try (InputStream is = getClass().getClassLoader().getResourceAsStream(CONFIG_FILE)) {
             if (is == null) {
                 throw new IllegalStateException("config.properties not found on classpath");
@@ -19,10 +22,45 @@ public class FrameworkConfig {
         }
     }
 
+    /**
+     * Configuration from the given properties instead of config.properties (benchmarks, tools).
+     * Unset keys fall back to the same defaults.
+     */
+    public FrameworkConfig(Properties props) {
+        this.props = props;
+    }
+
+    /**
+     * Copy of this configuration as seen by shard index of count (see shard.index);
+     * forShard(0, 1) gives the unsharded output paths.
+     */
+    public FrameworkConfig forShard(int index, int count) {
+        Properties copy = new Properties();
+        copy.putAll(props);
+        copy.setProperty("shard.index", String.valueOf(index));
+        copy.setProperty("shard.count", String.valueOf(count));
+        return new FrameworkConfig(copy);
+    }
+
     private String get(String key, String def) {
         return props.getProperty(key, def);
     }
 
+    /**
+     * Output path of this shard: "reports/results.jsonl" becomes "reports/results.shard-2-of-4.jsonl"
+     * (unchanged when not sharded), so shards sharing a workspace never write the same file.
+     */
+    private String shardPath(String path) {
+        int count = getShardCount();
+        if (count <= 1) {
+            return path;
+        }
+        String suffix = ".shard-" + (getShardIndex() + 1) + "-of-" + count;
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        int dot = path.lastIndexOf('.');
+        return dot > slash + 1 ? path.substring(0, dot) + suffix + path.substring(dot) : path + suffix;
+    }
+
     public String getAzureProjectUrl() {
         return get("azure.projectUrl", null);
     }
@@ -35,6 +73,83 @@ public class FrameworkConfig {
         return Integer.parseInt(get("azure.suiteId", "0"));
     }
 
+    /**
+     * Optional comma-separated list of suite ids to load together (azure.suiteIds=2060,2061).
+     */
+    public List<Integer> getAzureSuiteIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (String part : getList("azure.suiteIds")) {
+            ids.add(Integer.parseInt(part));
+        }
+        return ids;
+    }
+
+    public boolean isAzureLoadWholePlan() {
+        return Boolean.parseBoolean(get("azure.loadWholePlan", "false"));
+    }
+
+    public int getAzureMaxConcurrentRequests() {
+        return Integer.parseInt(get("azure.http.maxConcurrentRequests", "8"));
+    }
+
+    public long getAzureConnectTimeoutMs() {
+        return Long.parseLong(get("azure.http.connectTimeoutMs", "10000"));
+    }
+
+    public long getAzureRequestTimeoutMs() {
+        return Long.parseLong(get("azure.http.requestTimeoutMs", "60000"));
+    }
+
+    public int getAzureMaxRetries() {
+        return Integer.parseInt(get("azure.http.maxRetries", "5"));
+    }
+
+    public long getAzureBackoffBaseMs() {
+        return Long.parseLong(get("azure.http.backoffBaseMs", "500"));
+    }
+
+    public long getAzureBackoffMaxMs() {
+        return Long.parseLong(get("azure.http.backoffMaxMs", "30000"));
+    }
+
+    /**
+     * Client-side request rate limit (token bucket); 0 disables it.
+     */
+    public double getAzureRequestsPerSecond() {
+        return Double.parseDouble(get("azure.http.requestsPerSecond", "50"));
+    }
+
+    public int getAzureRequestBurst() {
+        return Integer.parseInt(get("azure.http.burst", "20"));
+    }
+
+    public boolean isAzureCacheEnabled() {
+        return Boolean.parseBoolean(get("azure.cache.enabled", "true"));
+    }
+
+    public String getAzureCacheDir() {
+        return get("azure.cache.dir", ".azure-cache");
+    }
+
+    /**
+     * Test run whose results are updated after each test case; 0 disables publishing.
+     */
+    public int getAzureRunId() {
+        return Integer.parseInt(get("azure.runId", "0"));
+    }
+
+    public int getAzurePublishQueueCapacity() {
+        return Integer.parseInt(get("azure.publish.queueCapacity", "1000"));
+    }
+
+    public int getAzurePublishBatchSize() {
+        return Integer.parseInt(get("azure.publish.batchSize", "100"));
+    }
+
+    public long getAzurePublishLingerMs() {
+        return Long.parseLong(get("azure.publish.lingerMs", "500"));
+    }
+
     public String getAzureApiVersion() {
         return get("azure.apiVersion", "6.0");
     }
@@ -55,7 +170,227 @@ public class FrameworkConfig {
         return get("db.password", null);
     }
 
+    public boolean isParallelRowsEnabled() {
+        return Boolean.parseBoolean(get("execution.parallelRows", "false"));
+    }
+
+    /**
+     * Optional run filters (comma-separated; empty = no filter on that attribute).
+     */
+    public List<Integer> getFilterPriorities() {
+        List<Integer> priorities = new ArrayList<>();
+        for (String part : getList("execution.filter.priorities")) {
+            priorities.add(Integer.parseInt(part));
+        }
+        return priorities;
+    }
+
+    public List<String> getFilterStates() {
+        return getList("execution.filter.states");
+    }
+
+    public List<String> getFilterConfigurations() {
+        return getList("execution.filter.configurations");
+    }
+
+    private List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        for (String part : get(key, "").split(",")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+
+    public int getRowConcurrency() {
+        return Integer.parseInt(get("execution.rowConcurrency", "8"));
+    }
+
+    /**
+     * Test cases run at the same time (threads of the parallel azureTestCases DataProvider); 1, the
+     * default, runs them one by one. Becomes the suite's data-provider-thread-count, so it applies to
+     * every parallel DataProvider of the suite.
+     */
+    public int getTestCaseConcurrency() {
+        return Math.max(1, Integer.parseInt(get("execution.testCaseConcurrency", "1")));
+    }
+
+    public String getExecutionOrder() {
+        return get("execution.order", "duration");
+    }
+
+    public String getExecutionHistoryPath() {
+        return get("execution.history.path", ".test-history/durations.json");
+    }
+
+    public double getExecutionHistoryAlpha() {
+        return Double.parseDouble(get("execution.history.alpha", "0.3"));
+    }
+
+    public int getDbPoolMaxSize() {
+        return Integer.parseInt(get("db.pool.maxSize", "10"));
+    }
+
+    public int getDbPoolMinIdle() {
+        return Integer.parseInt(get("db.pool.minIdle", "1"));
+    }
+
+    public long getDbPoolBorrowTimeoutMs() {
+        return Long.parseLong(get("db.pool.borrowTimeoutMs", "30000"));
+    }
+
+    public long getDbPoolIdleTimeoutMs() {
+        return Long.parseLong(get("db.pool.idleTimeoutMs", "600000"));
+    }
+
+    public long getDbPoolValidationIntervalMs() {
+        return Long.parseLong(get("db.pool.validationIntervalMs", "30000"));
+    }
+
+    public int getDbPoolValidationTimeoutSec() {
+        return Integer.parseInt(get("db.pool.validationTimeoutSec", "5"));
+    }
+
+    public int getDbStatementCacheSize() {
+        return Integer.parseInt(get("db.statementCacheSize", "50"));
+    }
+
+    public int getDbFetchSize() {
+        return Integer.parseInt(get("db.fetchSize", "100"));
+    }
+
+    public int getDbStreamFetchSize() {
+        return Integer.parseInt(get("db.streamFetchSize", "1000"));
+    }
+
+    public int getDbBatchSize() {
+        return Integer.parseInt(get("db.batchSize", "500"));
+    }
+
+    public boolean isMetricsEnabled() {
+        return Boolean.parseBoolean(get("metrics.enabled", "true"));
+    }
+
+    public String getMetricsDir() {
+        return shardPath(get("metrics.dir", "reports/metrics"));
+    }
+
+    public int getMetricsTopSlowSteps() {
+        return Integer.parseInt(get("metrics.topSlowSteps", "20"));
+    }
+
     public String getReportPath() {
-        return get("report.path", "reports/AutomationReport.html");
+        return shardPath(get("report.path", "reports/AutomationReport.html"));
+    }
+
+    public boolean isReportAsync() {
+        return Boolean.parseBoolean(get("report.async", "true"));
+    }
+
+    public int getReportQueueCapacity() {
+        return Integer.parseInt(get("report.queueCapacity", "8192"));
+    }
+
+    /**
+     * What a test thread does when the report queue is full: block (wait for the consumer)
+     * or dropLogs (discard log events; creating tests/nodes still waits).
+     */
+    public String getReportOverflow() {
+        return get("report.overflow", "block");
+    }
+
+    public boolean isReportJournalEnabled() {
+        return Boolean.parseBoolean(get("report.journal.enabled", "true"));
+    }
+
+    /**
+     * Where the journal becomes the HTML report at suite end: fork (separate JVM),
+     * inline (this JVM's heap) or none (summary page only; render later with JournalRenderer).
+     */
+    public String getReportJournalRender() {
+        return get("report.journal.render", "fork");
+    }
+
+    /**
+     * JVM options of the forked report renderer, whitespace-separated (e.g. -Xmx2g).
+     */
+    public List<String> getReportJournalRenderJvmArgs() {
+        List<String> args = new ArrayList<>();
+        for (String part : get("report.journal.renderJvmArgs", "").trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                args.add(part);
+            }
+        }
+        return args;
+    }
+
+    public String getReportJournalPath() {
+        return shardPath(get("report.journal.path", "reports/results.jsonl"));
+    }
+
+    public String getReportSummaryPath() {
+        return shardPath(get("report.summary.path", "reports/summary.html"));
+    }
+
+    public boolean isRunCheckpointEnabled() {
+        return Boolean.parseBoolean(get("run.checkpoint.enabled", "true"));
+    }
+
+    public String getRunCheckpointPath() {
+        return shardPath(get("run.checkpoint.path", "reports/checkpoint.jsonl"));
+    }
+
+    public boolean isRunResume() {
+        return Boolean.parseBoolean(get("run.resume", "false"));
+    }
+
+    /**
+     * This JVM's shard, 0-based; see getShardCount().
+     */
+    public int getShardIndex() {
+        return Integer.parseInt(get("shard.index", "0"));
+    }
+
+    public int getShardCount() {
+        return Math.max(1, Integer.parseInt(get("shard.count", "1")));
+    }
+
+    public String getShardWeight() {
+        return get("shard.weight", "rows");
+    }
+
+    /**
+     * ISO 8583 switch for the ISO_SEND keyword; empty means no IsoChannel is opened.
+     */
+    public String getIsoHost() {
+        return get("iso.host", "").trim();
+    }
+
+    public int getIsoPort() {
+        return Integer.parseInt(get("iso.port", "4003"));
+    }
+
+    public int getIsoConnections() {
+        return Integer.parseInt(get("iso.connections", "2"));
+    }
+
+    public int getIsoMaxInFlight() {
+        return Integer.parseInt(get("iso.maxInFlight", "256"));
+    }
+
+    public long getIsoTimeoutMs() {
+        return Long.parseLong(get("iso.timeoutMs", "20000"));
+    }
+
+    public int getIsoConnectTimeoutMs() {
+        return Integer.parseInt(get("iso.connectTimeoutMs", "5000"));
+    }
+
+    /**
+     * Hex bytes between the length prefix and the ISO message (e.g. a TPDU); empty for none.
+     */
+    public String getIsoHeader() {
+        return get("iso.header", "").trim();
     }
 }
@@ -0,0 +1,425 @@
+package com.iso;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ISO 8583:1987 binary encoding ("ISO87B"), field for field the layout of jPOS's
+ * ISO87BPackager that the switch scripts in com/parser use, without the jPOS dependency:
+ *
+ *  - MTI and fixed numerics: BCD, left-padded with a zero nibble
+ *  - LL/LLL numerics (PAN, track 2, track 3, ...): one / two BCD length bytes, BCD digits
+ *    right-padded with a zero nibble; '=' in track data is the D nibble
+ *  - fixed character fields: ASCII, right-padded with spaces
+ *  - LL/LLL character and binary fields: one / two BCD length bytes, then the data. DE55
+ *    (IFB_LLLCHAR in jPOS) is read and written as bytes: the same frame, but EMV data stays binary
+ *  - amounts with a sign (DE28-31, DE97): one ASCII 'C'/'D' then BCD digits
+ *  - primary bitmap always, secondary bitmap when any of DE66..128 is set
+ *
+ * pack() sizes the frame first and fills one array; unpack() reads straight from the
+ * receive buffer. Stateless and thread-safe.
+ */
+public final class Iso87BCodec {
+
+    private static final int N = 1;        // fixed BCD numeric
+    private static final int LLNUM = 2;    // BCD length byte + BCD numeric
+    private static final int A = 3;        // fixed ASCII
+    private static final int LLCHAR = 4;   // BCD length byte + ASCII
+    private static final int LLLCHAR = 5;  // two BCD length bytes + ASCII
+    private static final int B = 6;        // fixed binary
+    private static final int LLLBIN = 7;   // two BCD length bytes + binary
+    private static final int AMOUNT = 8;   // 'C'/'D' + BCD numeric (length includes the sign)
+    private static final int LLLNUM = 9;   // two BCD length bytes + BCD numeric
+
+    private static final int[] TYPE = new int[IsoMessage.MAX_FIELD + 1];
+    private static final int[] LENGTH = new int[IsoMessage.MAX_FIELD + 1];
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        def(2, LLNUM, 19);
+        def(3, N, 6);
+        def(4, N, 12);
+        def(5, N, 12);
+        def(6, N, 12);
+        def(7, N, 10);
+        def(8, N, 8);
+        def(9, N, 8);
+        def(10, N, 8);
+        def(11, N, 6);
+        def(12, N, 6);
+        range(13, 18, N, 4);
+        range(19, 24, N, 3);
+        def(25, N, 2);
+        def(26, N, 2);
+        def(27, N, 1);
+        range(28, 31, AMOUNT, 9);
+        def(32, LLNUM, 11);
+        def(33, LLNUM, 11);
+        def(34, LLCHAR, 28);
+        def(35, LLNUM, 37);
+        def(36, LLLNUM, 104);
+        def(37, A, 12);
+        def(38, A, 6);
+        def(39, A, 2);
+        def(40, A, 3);
+        def(41, A, 8);
+        def(42, A, 15);
+        def(43, A, 40);
+        def(44, LLCHAR, 25);
+        def(45, LLCHAR, 76);
+        range(46, 48, LLLCHAR, 999);
+        range(49, 51, A, 3);
+        def(52, B, 8);
+        def(53, N, 16);
+        def(54, LLLCHAR, 120);
+        def(55, LLLBIN, 999);
+        range(56, 63, LLLCHAR, 999);
+        def(64, B, 8);
+        def(66, N, 1);
+        def(67, N, 2);
+        range(68, 70, N, 3);
+        def(71, N, 4);
+        def(72, N, 4);
+        def(73, N, 6);
+        range(74, 81, N, 10);
+        range(82, 85, N, 12);
+        range(86, 89, N, 16);
+        def(90, N, 42);
+        def(91, A, 1);
+        def(92, A, 2);
+        def(93, A, 5);
+        def(94, A, 7);
+        def(95, A, 42);
+        def(96, B, 8);
+        def(97, AMOUNT, 17);
+        def(98, A, 25);
+        def(99, LLNUM, 11);
+        def(100, LLNUM, 11);
+        def(101, LLCHAR, 17);
+        def(102, LLCHAR, 28);
+        def(103, LLCHAR, 28);
+        def(104, LLLCHAR, 100);
+        range(105, 127, LLLCHAR, 999);
+        def(128, B, 8);
+    }
+
+    private Iso87BCodec() {
+    }
+
+    private static void def(int de, int type, int length) {
+        TYPE[de] = type;
+        LENGTH[de] = length;
+    }
+
+    private static void range(int from, int to, int type, int length) {
+        for (int de = from; de <= to; de++) {
+            def(de, type, length);
+        }
+    }
+
+    /**
+     * MTI, bitmap(s) and fields of msg.
+     *
+     * @throws IllegalArgumentException when a value does not fit its field
+     */
+    public static byte[] pack(IsoMessage msg) {
+        return pack(msg, 0);
+    }
+
+    /**
+     * As pack(msg), starting at offset reserve of the returned array, so a transport can put
+     * its length prefix and header in front without copying the message.
+     */
+    static byte[] pack(IsoMessage msg, int reserve) {
+        String mti = msg.getMti();
+        if (mti == null || mti.length() != 4) {
+            throw new IllegalArgumentException("MTI must be 4 digits, got '" + mti + "'");
+        }
+        boolean secondary = msg.hasSecondaryFields();
+        int last = secondary ? IsoMessage.MAX_FIELD : 64;
+        int size = reserve + 2 + (secondary ? 16 : 8);
+        for (int de = 2; de <= last; de++) {
+            Object value = msg.get(de);
+            if (value != null) {
+                size += packedSize(de, value);
+            }
+        }
+
+        byte[] out = new byte[size];
+        int pos = putBcd(out, reserve, mti, 4, true, 0);
+        int bitmap = pos;
+        pos += secondary ? 16 : 8;
+        if (secondary) {
+            out[bitmap] |= (byte) 0x80;
+        }
+        for (int de = 2; de <= last; de++) {
+            Object value = msg.get(de);
+            if (value == null) {
+                continue;
+            }
+            out[bitmap + (de - 1) / 8] |= (byte) (0x80 >>> ((de - 1) % 8));
+            pos = packField(out, pos, de, value);
+        }
+        return out;
+    }
+
+    private static int packedSize(int de, Object value) {
+        int type = TYPE[de];
+        int max = LENGTH[de];
+        int length;
+        if (value instanceof byte[]) {
+            length = ((byte[]) value).length;
+        } else if (type == B || type == LLLBIN) {
+            length = ((String) value).length() / 2;
+        } else {
+            length = ((String) value).length();
+        }
+        if (length > max) {
+            throw tooLong(de, length, max);
+        }
+        switch (type) {
+            case N:
+                return (max + 1) / 2;
+            case LLNUM:
+                return 1 + (length + 1) / 2;
+            case LLLNUM:
+                return 2 + (length + 1) / 2;
+            case A:
+            case B:
+                return max;
+            case LLCHAR:
+                return 1 + length;
+            case LLLCHAR:
+            case LLLBIN:
+                return 2 + length;
+            case AMOUNT:
+                return 1 + max / 2;
+            default:
+                throw new IllegalArgumentException("Data element " + de + " is not defined in ISO87B");
+        }
+    }
+
+    private static IllegalArgumentException tooLong(int de, int length, int max) {
+        return new IllegalArgumentException("Data element " + de + " is " + length + " long, max " + max);
+    }
+
+    private static int packField(byte[] out, int pos, int de, Object value) {
+        int type = TYPE[de];
+        int max = LENGTH[de];
+        if (value instanceof byte[] && type != B && type != LLLBIN) {
+            // Binary value in a character field: sent as is, like jPOS does
+            byte[] bytes = (byte[]) value;
+            if (type == LLCHAR) {
+                pos = putBcd(out, pos, Integer.toString(bytes.length), 2, true, de);
+            } else if (type == LLLCHAR) {
+                pos = putBcd(out, pos, Integer.toString(bytes.length), 4, true, de);
+            } else if (type != A) {
+                throw new IllegalArgumentException("Data element " + de + " is numeric, not binary");
+            }
+            System.arraycopy(bytes, 0, out, pos, bytes.length);
+            return pos + (type == A ? max : bytes.length);
+        }
+        switch (type) {
+            case N:
+                return putBcd(out, pos, (String) value, max, true, de);
+            case LLNUM:
+            case LLLNUM: {
+                String s = (String) value;
+                pos = putBcd(out, pos, Integer.toString(s.length()), type == LLNUM ? 2 : 4, true, de);
+                return putBcd(out, pos, s, s.length(), false, de);
+            }
+            case A: {
+                String s = (String) value;
+                for (int i = 0; i < max; i++) {
+                    out[pos + i] = i < s.length() ? (byte) s.charAt(i) : (byte) ' ';
+                }
+                return pos + max;
+            }
+            case LLCHAR:
+            case LLLCHAR: {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.ISO_8859_1);
+                pos = putBcd(out, pos, Integer.toString(bytes.length), type == LLCHAR ? 2 : 4, true, de);
+                System.arraycopy(bytes, 0, out, pos, bytes.length);
+                return pos + bytes.length;
+            }
+            case B: {
+                byte[] bytes = value instanceof byte[] ? (byte[]) value : fromHex((String) value);
+                if (bytes.length != max) {
+                    throw new IllegalArgumentException("Data element " + de + " must be " + max + " bytes, got " + bytes.length);
+                }
+                System.arraycopy(bytes, 0, out, pos, max);
+                return pos + max;
+            }
+            case LLLBIN: {
+                byte[] bytes = value instanceof byte[] ? (byte[]) value : fromHex((String) value);
+                pos = putBcd(out, pos, Integer.toString(bytes.length), 4, true, de);
+                System.arraycopy(bytes, 0, out, pos, bytes.length);
+                return pos + bytes.length;
+            }
+            case AMOUNT: {
+                String s = (String) value;
+                char sign = s.isEmpty() ? 'C' : s.charAt(0);
+                if (sign != 'C' && sign != 'D') {
+                    throw new IllegalArgumentException("Data element " + de + " must start with C or D, got '" + s + "'");
+                }
+                out[pos] = (byte) sign;
+                return putBcd(out, pos + 1, s.isEmpty() ? "" : s.substring(1), max - 1, true, de);
+            }
+            default:
+                throw new IllegalArgumentException("Data element " + de + " is not defined in ISO87B");
+        }
+    }
+
+    /**
+     * Writes digits as BCD over width nibbles (rounded up to whole bytes); fixed fields are
+     * left-padded with zeros, variable ones (leftPad false) get a trailing zero nibble when odd.
+     */
+    private static int putBcd(byte[] out, int pos, String digits, int width, boolean leftPad, int de) {
+        int len = digits.length();
+        if (len > width) {
+            throw tooLong(de, len, width);
+        }
+        int nibbles = (width + 1) / 2 * 2;
+        int pad = leftPad ? nibbles - len : 0;
+        for (int n = 0; n < nibbles; n++) {
+            int d = n - pad;
+            int nibble = d >= 0 && d < len ? nibbleOf(digits.charAt(d), de) : 0;
+            if ((n & 1) == 0) {
+                out[pos + n / 2] = (byte) (nibble << 4);
+            } else {
+                out[pos + n / 2] |= (byte) nibble;
+            }
+        }
+        return pos + nibbles / 2;
+    }
+
+    private static int nibbleOf(char c, int de) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c == '=' || c == 'D' || c == 'd') {
+            return 0xD;
+        }
+        throw new IllegalArgumentException("Data element " + de + " is numeric, got '" + c + "'");
+    }
+
+    /**
+     * Message from the ISO bytes at buf[offset, offset + length) (MTI first, no length prefix or header).
+     *
+     * @throws IllegalArgumentException when the bytes are not a complete ISO87B message
+     */
+    public static IsoMessage unpack(byte[] buf, int offset, int length) {
+        int end = offset + length;
+        int pos = offset;
+        try {
+            IsoMessage msg = new IsoMessage(getBcd(buf, pos, 4, true));
+            pos += 2;
+            int bitmap = pos;
+            boolean secondary = (buf[bitmap] & 0x80) != 0;
+            pos += secondary ? 16 : 8;
+            int last = secondary ? IsoMessage.MAX_FIELD : 64;
+            for (int de = 2; de <= last; de++) {
+                if ((buf[bitmap + (de - 1) / 8] & (0x80 >>> ((de - 1) % 8))) == 0 || de == 65) {
+                    continue;
+                }
+                int type = TYPE[de];
+                int max = LENGTH[de];
+                switch (type) {
+                    case N:
+                        msg.set(de, getBcd(buf, pos, max, true));
+                        pos += (max + 1) / 2;
+                        break;
+                    case LLNUM:
+                    case LLLNUM: {
+                        int prefix = type == LLNUM ? 1 : 2;
+                        int len = Integer.parseInt(getBcd(buf, pos, prefix * 2, true));
+                        msg.set(de, getBcd(buf, pos + prefix, len, false));
+                        pos += prefix + (len + 1) / 2;
+                        break;
+                    }
+                    case A:
+                        msg.set(de, new String(buf, pos, max, StandardCharsets.ISO_8859_1));
+                        pos += max;
+                        break;
+                    case LLCHAR:
+                    case LLLCHAR: {
+                        int prefix = type == LLCHAR ? 1 : 2;
+                        int len = Integer.parseInt(getBcd(buf, pos, prefix * 2, true));
+                        msg.set(de, new String(buf, pos + prefix, len, StandardCharsets.ISO_8859_1));
+                        pos += prefix + len;
+                        break;
+                    }
+                    case B:
+                        msg.set(de, copy(buf, pos, max));
+                        pos += max;
+                        break;
+                    case LLLBIN: {
+                        int len = Integer.parseInt(getBcd(buf, pos, 4, true));
+                        msg.set(de, copy(buf, pos + 2, len));
+                        pos += 2 + len;
+                        break;
+                    }
+                    case AMOUNT:
+                        msg.set(de, (char) buf[pos] + getBcd(buf, pos + 1, max - 1, true));
+                        pos += 1 + max / 2;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Data element " + de + " is not defined in ISO87B");
+                }
+                if (pos > end) {
+                    throw new IllegalArgumentException("Message ends inside data element " + de);
+                }
+            }
+            return msg;
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed ISO87B message at byte " + (pos - offset), e);
+        }
+    }
+
+    /**
+     * digits BCD digits starting at pos; fixed fields (leftPad) skip the padding nibble first.
+     */
+    private static String getBcd(byte[] buf, int pos, int digits, boolean leftPad) {
+        int nibbles = (digits + 1) / 2 * 2;
+        int skip = leftPad ? nibbles - digits : 0;
+        char[] out = new char[digits];
+        for (int d = 0; d < digits; d++) {
+            int n = d + skip;
+            int b = buf[pos + n / 2];
+            int nibble = (n & 1) == 0 ? (b >> 4) & 0xF : b & 0xF;
+            out[d] = nibble == 0xD ? '=' : HEX[nibble];
+        }
+        return new String(out);
+    }
+
+    private static byte[] copy(byte[] buf, int pos, int len) {
+        byte[] out = new byte[len];
+        System.arraycopy(buf, pos, out, 0, len);
+        return out;
+    }
+
+    static byte[] fromHex(String hex) {
+        String s = hex.replace(" ", "");
+        if (s.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd number of hex digits: '" + hex + "'");
+        }
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(s.charAt(i * 2), 16);
+            int lo = Character.digit(s.charAt(i * 2 + 1), 16);
+            if (hi < 0 || lo < 0) {
+                throw new IllegalArgumentException("Not hex: '" + hex + "'");
+            }
+            out[i] = (byte) (hi << 4 | lo);
+        }
+        return out;
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,723 @@
+package com.iso;
+
+import com.config.FrameworkConfig;
+import com.reporting.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived, pipelined ISO 8583 (ISO87B) client channel to a switch.
+ *
+ * Keeps iso.connections TCP connections open and lets up to iso.maxInFlight requests be
+ * outstanding at once, spread round-robin over the connections. Frames are
+ * [2-byte big-endian length][iso.header][ISO message]; a response's header is skipped.
+ * Responses may come back in any order and on any connection: they are matched to their
+ * request by STAN (DE11) plus terminal id (DE41). A request without DE11 gets the next
+ * STAN of this channel.
+ *
+ * One daemon I/O thread owns the sockets: callers pack their message, queue it and wake
+ * the selector, which writes all queued frames per connection in one gathering write.
+ * Every request has a deadline (iso.timeoutMs unless given); a request that is not
+ * answered in time fails with TimeoutException and a late answer is counted as unmatched.
+ * A dropped connection fails its outstanding requests and is reconnected on next use; the
+ * reconnect is non-blocking (OP_CONNECT), so the I/O thread keeps serving the other
+ * connections meanwhile, and requests queued on it are written once it is up.
+ * Round-trip latency (send() to matched response) goes into a LatencyHistogram.
+ *
+ * Futures complete on the I/O thread; keep callbacks short or use exchange(...).
+ */
+public class IsoChannel implements AutoCloseable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    // Frames handed to one gathering write
+    private static final int MAX_GATHER = 64;
+    private static final long RECONNECT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InetSocketAddress address;
+    private final int readBufferSize;
+    private final byte[] header;
+    private final long timeoutMs;
+    private final int connectTimeoutMs;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final Connection[] connections;
+    private final Selector selector;
+    private final Thread ioThread;
+
+    private final Queue<Pending> outbound = new ConcurrentLinkedQueue<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // I/O thread only: written requests by deadline. Answered or failed ones are removed right away,
+    // so neither their frame nor their response outlives them (a linear remove, at most maxInFlight).
+    private final PriorityQueue<Pending> deadlines = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.deadlineNanos, b.deadlineNanos));
+    private final AtomicInteger stan = new AtomicInteger();
+    private int nextConnection;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    /**
+     * One request waiting for its response.
+     */
+    private static final class Pending {
+        final String key;
+        final byte[] frame;
+        final long startNanos;
+        final long deadlineNanos;
+        final long timeoutMs;
+        final CompletableFuture<IsoMessage> future = new CompletableFuture<>();
+        // Set by the I/O thread once written
+        Connection connection;
+
+        Pending(String key, byte[] frame, long timeoutMs) {
+            this.key = key;
+            this.frame = frame;
+            this.timeoutMs = timeoutMs;
+            this.startNanos = System.nanoTime();
+            this.deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+    }
+
+    /**
+     * One TCP connection; all fields are used by the I/O thread only (and by the constructor
+     * before that thread starts).
+     */
+    private final class Connection {
+        final int index;
+        SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(readBufferSize);
+        final ArrayDeque<ByteBuffer> writes = new ArrayDeque<>();
+        long lastConnectAttempt;
+        // Connect started but not finished (OP_CONNECT), and when it times out
+        boolean connecting;
+        long connectDeadline;
+
+        Connection(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Open or still connecting.
+         */
+        boolean isOpen() {
+            return channel != null && channel.isOpen();
+        }
+
+        boolean isConnected() {
+            return isOpen() && !connecting;
+        }
+
+        /**
+         * Starts a non-blocking connect; finishConnect() completes it once the key is connectable.
+         */
+        void connect() throws IOException {
+            lastConnectAttempt = System.nanoTime();
+            SocketChannel ch = SocketChannel.open();
+            try {
+                ch.configureBlocking(false);
+                ch.socket().setTcpNoDelay(true);
+                ch.socket().setKeepAlive(true);
+                connecting = !ch.connect(address);
+                key = ch.register(selector, connecting ? SelectionKey.OP_CONNECT : SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                ch.close();
+                connecting = false;
+                throw e;
+            }
+            channel = ch;
+            connectDeadline = lastConnectAttempt + TimeUnit.MILLISECONDS.toNanos(connectTimeoutMs);
+            in.clear();
+        }
+
+        /**
+         * @return true once connected
+         * @throws IOException when the connection was refused or failed
+         */
+        boolean finishConnect() throws IOException {
+            if (!channel.finishConnect()) {
+                return false;
+            }
+            connecting = false;
+            key.interestOps(writes.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return true;
+        }
+
+        boolean isConnectOverdue(long now) {
+            return connecting && connectTimeoutMs > 0 && now - connectDeadline >= 0;
+        }
+    }
+
+    public IsoChannel(FrameworkConfig config) {
+        this(config.getIsoHost(), config.getIsoPort(), config.getIsoConnections(), config.getIsoMaxInFlight(),
+                config.getIsoTimeoutMs(), config.getIsoConnectTimeoutMs(), Iso87BCodec.fromHex(config.getIsoHeader()));
+    }
+
+    /**
+     * Connects all connections before returning.
+     *
+     * @param header bytes between the length prefix and the message (e.g. a 5-byte TPDU), may be empty
+     * @throws UncheckedIOException when the switch cannot be reached
+     */
+    public IsoChannel(String host, int port, int connections, int maxInFlight, long timeoutMs,
+                      int connectTimeoutMs, byte[] header) {
+        this(host, port, connections, maxInFlight, timeoutMs, connectTimeoutMs, header, READ_BUFFER_SIZE);
+    }
+
+    // readBufferSize: initial receive buffer per connection (grows for larger frames)
+    IsoChannel(String host, int port, int connections, int maxInFlight, long timeoutMs,
+               int connectTimeoutMs, byte[] header, int readBufferSize) {
+        if (connections <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("connections and maxInFlight must be > 0");
+        }
+        this.address = new InetSocketAddress(host, port);
+        this.readBufferSize = readBufferSize;
+        this.header = header.clone();
+        this.timeoutMs = timeoutMs;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        this.connections = new Connection[connections];
+        try {
+            this.selector = Selector.open();
+            for (int i = 0; i < connections; i++) {
+                this.connections[i] = new Connection(i);
+                this.connections[i].connect();
+            }
+            awaitConnected();
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException("Failed to connect to ISO switch " + host + ":" + port, e);
+        }
+        this.ioThread = new Thread(this::run, "iso-channel-" + host + ":" + port);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    /**
+     * Constructor only: waits until every connection started by connect() is up, all in parallel.
+     */
+    private void awaitConnected() throws IOException {
+        while (true) {
+            long now = System.nanoTime();
+            long wait = Long.MAX_VALUE;
+            for (Connection conn : connections) {
+                if (conn.isConnectOverdue(now)) {
+                    throw new SocketTimeoutException("Connect timed out after " + connectTimeoutMs + " ms");
+                }
+                if (conn.connecting) {
+                    wait = Math.min(wait, connectTimeoutMs > 0 ? conn.connectDeadline - now : 0);
+                }
+            }
+            if (wait == Long.MAX_VALUE) {
+                return;
+            }
+            selector.select(wait > 0 ? Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)) : 0);
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (key.isValid() && key.isConnectable()) {
+                    ((Connection) key.attachment()).finishConnect();
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Sends request with the default timeout; see send(IsoMessage, long).
+     */
+    public CompletableFuture<IsoMessage> send(IsoMessage request) {
+        return send(request, timeoutMs);
+    }
+
+    /**
+     * Queues request and returns its response future. Waits (at most timeoutMs) only when
+     * maxInFlight requests are already outstanding. The future fails with TimeoutException
+     * when no response arrives within timeoutMs, IllegalStateException when a request with the
+     * same DE11/DE41 is still outstanding, IllegalArgumentException when the message cannot be
+     * packed and IOException when the connection is lost.
+     */
+    public CompletableFuture<IsoMessage> send(IsoMessage request, long timeoutMs) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("ISO channel is closed"));
+        }
+        if (!request.has(11)) {
+            request.set(11, nextStan());
+        }
+        String key = matchKey(request);
+        byte[] frame;
+        try {
+            frame = Iso87BCodec.pack(request, 2 + header.length);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        int length = frame.length - 2;
+        if (length > 0xFFFF) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "ISO message of " + length + " bytes does not fit the 2-byte length prefix"));
+        }
+        frame[0] = (byte) (length >>> 8);
+        frame[1] = (byte) length;
+        System.arraycopy(header, 0, frame, 2, header.length);
+
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                return CompletableFuture.failedFuture(new TimeoutException(
+                        "No free ISO channel slot within " + timeoutMs + " ms (" + maxInFlight + " in flight)"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        Pending p = new Pending(key, frame, timeoutMs);
+        if (pending.putIfAbsent(key, p) != null) {
+            permits.release();
+            return CompletableFuture.failedFuture(new IllegalStateException("A request with STAN "
+                    + request.getString(11) + " for terminal '" + request.getString(41) + "' is already in flight"));
+        }
+        outbound.add(p);
+        if (closed && outbound.remove(p) && pending.remove(key, p)) {
+            // Closed meanwhile; the I/O thread may already have drained the queue for the last time
+            fail(p, new IOException("ISO channel closed"));
+        }
+        selector.wakeup();
+        return p.future;
+    }
+
+    /**
+     * Sends request and waits for its response.
+     */
+    public IsoMessage exchange(IsoMessage request, long timeoutMs)
+            throws IOException, TimeoutException, InterruptedException {
+        try {
+            // The I/O thread enforces the deadline; the extra second only guards against a stuck channel
+            return send(request, timeoutMs).get(timeoutMs + 1000, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public IsoMessage exchange(IsoMessage request) throws IOException, TimeoutException, InterruptedException {
+        return exchange(request, timeoutMs);
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    private String nextStan() {
+        int next = stan.updateAndGet(s -> s >= 999999 ? 1 : s + 1);
+        String digits = Integer.toString(next);
+        return "000000".substring(digits.length()) + digits;
+    }
+
+    /**
+     * DE11 as 6 digits plus DE41 as 8 characters, the way both look once unpacked.
+     */
+    static String matchKey(IsoMessage msg) {
+        String stanValue = msg.getString(11);
+        String terminal = msg.getString(41);
+        StringBuilder key = new StringBuilder(15);
+        if (stanValue != null) {
+            for (int i = stanValue.length(); i < 6; i++) {
+                key.append('0');
+            }
+            key.append(stanValue);
+        }
+        key.append('|');
+        if (terminal != null) {
+            key.append(terminal);
+            for (int i = terminal.length(); i < 8; i++) {
+                key.append(' ');
+            }
+        }
+        return key.toString();
+    }
+
+    // ---- I/O thread ----
+
+    private void run() {
+        try {
+            while (!closed) {
+                long wait = 0;
+                long now = System.nanoTime();
+                Pending first = deadlines.peek();
+                if (first != null) {
+                    wait = Math.max(1, TimeUnit.NANOSECONDS.toMillis(first.deadlineNanos - now) + 1);
+                }
+                for (Connection conn : connections) {
+                    if (conn.connecting && connectTimeoutMs > 0) {
+                        long untilConnectDeadline = Math.max(1, TimeUnit.NANOSECONDS.toMillis(conn.connectDeadline - now) + 1);
+                        wait = wait == 0 ? untilConnectDeadline : Math.min(wait, untilConnectDeadline);
+                    }
+                }
+                selector.select(wait);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection conn = (Connection) key.attachment();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isConnectable()) {
+                        connected(conn);
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        read(conn);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(conn);
+                    }
+                }
+                selector.selectedKeys().clear();
+                drainOutbound();
+                expire();
+                expireConnects();
+            }
+        } catch (IOException | RuntimeException e) {
+            closed = true;
+            failAll(new IOException("ISO channel I/O thread stopped", e));
+        }
+        failAll(new IOException("ISO channel closed"));
+        closeQuietly();
+    }
+
+    private void drainOutbound() {
+        Pending p;
+        while ((p = outbound.poll()) != null) {
+            Connection conn = pickConnection();
+            if (conn == null) {
+                if (pending.remove(p.key, p)) {
+                    fail(p, new IOException("Not connected to ISO switch " + address));
+                }
+                continue;
+            }
+            p.connection = conn;
+            conn.writes.add(ByteBuffer.wrap(p.frame));
+            deadlines.add(p);
+            sent.incrementAndGet();
+        }
+        for (Connection conn : connections) {
+            if (!conn.writes.isEmpty() && conn.isConnected()) {
+                flush(conn);
+            }
+        }
+    }
+
+    /**
+     * Next connected connection round-robin. A dropped one is reconnected (at most once a second)
+     * without waiting; when no connection is up, the request is queued on one still connecting.
+     */
+    private Connection pickConnection() {
+        Connection connecting = null;
+        for (int i = 0; i < connections.length; i++) {
+            Connection conn = connections[nextConnection];
+            nextConnection = (nextConnection + 1) % connections.length;
+            if (conn.isConnected()) {
+                return conn;
+            }
+            if (!conn.isOpen() && System.nanoTime() - conn.lastConnectAttempt >= RECONNECT_INTERVAL_NANOS) {
+                try {
+                    conn.connect();
+                    reconnects.incrementAndGet();
+                } catch (IOException e) {
+                    // Try the next one; the request fails only when none is reachable
+                    continue;
+                }
+                if (conn.isConnected()) {
+                    return conn;
+                }
+            }
+            if (connecting == null && conn.connecting && conn.isOpen()) {
+                connecting = conn;
+            }
+        }
+        return connecting;
+    }
+
+    /**
+     * OP_CONNECT: completes the connect and writes what was queued meanwhile.
+     */
+    private void connected(Connection conn) {
+        try {
+            if (conn.finishConnect() && !conn.writes.isEmpty()) {
+                flush(conn);
+            }
+        } catch (IOException e) {
+            lost(conn, e);
+        }
+    }
+
+    private void expireConnects() {
+        long now = System.nanoTime();
+        for (Connection conn : connections) {
+            if (conn.isConnectOverdue(now)) {
+                lost(conn, new SocketTimeoutException("Connect timed out after " + connectTimeoutMs + " ms"));
+            }
+        }
+    }
+
+    private void flush(Connection conn) {
+        if (conn.connecting) {
+            // Written once connected
+            return;
+        }
+        try {
+            ByteBuffer[] batch = new ByteBuffer[Math.min(MAX_GATHER, conn.writes.size())];
+            while (!conn.writes.isEmpty()) {
+                int n = 0;
+                for (ByteBuffer buffer : conn.writes) {
+                    if (n == batch.length) {
+                        break;
+                    }
+                    batch[n++] = buffer;
+                }
+                conn.channel.write(batch, 0, n);
+                while (!conn.writes.isEmpty() && !conn.writes.peek().hasRemaining()) {
+                    conn.writes.poll();
+                }
+                if (n > 0 && batch[n - 1].hasRemaining()) {
+                    // Socket buffer full: continue when writable
+                    break;
+                }
+            }
+            int ops = conn.writes.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (conn.key.interestOps() != ops) {
+                conn.key.interestOps(ops);
+            }
+        } catch (IOException e) {
+            lost(conn, e);
+        }
+    }
+
+    private void read(Connection conn) {
+        try {
+            int n = conn.channel.read(conn.in);
+            if (n < 0) {
+                lost(conn, new IOException("ISO switch closed the connection"));
+                return;
+            }
+            ByteBuffer in = conn.in;
+            in.flip();
+            while (in.remaining() >= 2) {
+                int length = ((in.get(in.position()) & 0xFF) << 8) | (in.get(in.position() + 1) & 0xFF);
+                if (in.remaining() < 2 + length) {
+                    if (2 + length > in.capacity()) {
+                        // Larger than the buffer: grow it so the frame can be completed
+                        ByteBuffer bigger = ByteBuffer.allocate(2 + length);
+                        bigger.put(in);
+                        conn.in = bigger;
+                        return;
+                    }
+                    break;
+                }
+                int start = in.arrayOffset() + in.position() + 2;
+                in.position(in.position() + 2 + length);
+                if (length < header.length) {
+                    unmatched.incrementAndGet();
+                    continue;
+                }
+                dispatch(in.array(), start + header.length, length - header.length);
+            }
+            in.compact();
+        } catch (IOException e) {
+            lost(conn, e);
+        }
+    }
+
+    private void dispatch(byte[] buf, int offset, int length) {
+        IsoMessage response;
+        try {
+            response = Iso87BCodec.unpack(buf, offset, length);
+        } catch (IllegalArgumentException e) {
+            unmatched.incrementAndGet();
+            return;
+        }
+        Pending p = pending.remove(matchKey(response));
+        if (p == null) {
+            // Unknown, or answered after its request timed out
+            unmatched.incrementAndGet();
+            return;
+        }
+        deadlines.remove(p);
+        latency.recordNanos(System.nanoTime() - p.startNanos);
+        received.incrementAndGet();
+        permits.release();
+        p.future.complete(response);
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        Pending p;
+        while ((p = deadlines.peek()) != null && (p.future.isDone() || p.deadlineNanos - now <= 0)) {
+            deadlines.poll();
+            if (!p.future.isDone() && pending.remove(p.key, p)) {
+                timeouts.incrementAndGet();
+                permits.release();
+                p.future.completeExceptionally(new TimeoutException("No response to STAN " + p.key.substring(0, 6)
+                        + " from " + address + " within " + p.timeoutMs + " ms"));
+            }
+        }
+    }
+
+    private void lost(Connection conn, IOException cause) {
+        try {
+            conn.channel.close();
+        } catch (IOException e) {
+            // Already failing
+        }
+        conn.connecting = false;
+        conn.writes.clear();
+        for (Pending p : pending.values()) {
+            if (p.connection == conn && pending.remove(p.key, p)) {
+                deadlines.remove(p);
+                fail(p, new IOException("Connection " + (conn.index + 1) + " to " + address + " lost", cause));
+            }
+        }
+    }
+
+    private void fail(Pending p, Throwable error) {
+        failed.incrementAndGet();
+        permits.release();
+        p.future.completeExceptionally(error);
+    }
+
+    private void failAll(IOException error) {
+        Pending queued;
+        while ((queued = outbound.poll()) != null) {
+            if (pending.remove(queued.key, queued)) {
+                fail(queued, error);
+            }
+        }
+        for (Pending p : pending.values()) {
+            if (pending.remove(p.key, p)) {
+                fail(p, error);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        for (Connection conn : connections) {
+            if (conn != null && conn.channel != null) {
+                try {
+                    conn.channel.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+        }
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    // ---- Metrics ----
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Responses that matched no outstanding request (late, duplicated or unreadable).
+     */
+    public long getUnmatchedCount() {
+        return unmatched.get();
+    }
+
+    public long getReconnectCount() {
+        return reconnects.get();
+    }
+
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Requests still waiting for their deadline; read after their futures completed (tests).
+     */
+    int getDeadlineCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Fails outstanding requests and closes the connections.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        selector.wakeup();
+        try {
+            ioThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return address.getHostString() + ":" + address.getPort() + " x" + connections.length
+                + " sent=" + sent.get() + " received=" + received.get() + " timeouts=" + timeouts.get()
+                + " failed=" + failed.get() + " unmatched=" + unmatched.get() + " reconnects=" + reconnects.get()
+                + " p50=" + latency.percentileMicros(0.50) + "us p99=" + latency.percentileMicros(0.99) + "us"
+                + " max=" + latency.getMaxMicros() + "us";
+    }
+}
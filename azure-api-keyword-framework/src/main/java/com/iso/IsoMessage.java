@@ -0,0 +1,173 @@
+package com.iso;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * One ISO 8583 message: the MTI plus data elements 2..128, each a String (numeric and
+ * character fields) or a byte[] (binary fields). Packed and unpacked by Iso87BCodec.
+ * Not thread-safe; a message is built by one thread and handed over to IsoChannel.
+ */
+public final class IsoMessage {
+
+    static final int MAX_FIELD = 128;
+
+    private String mti;
+    private final Object[] fields = new Object[MAX_FIELD + 1];
+
+    public IsoMessage() {
+    }
+
+    public IsoMessage(String mti) {
+        this.mti = mti;
+    }
+
+    /**
+     * Message from the JSON shape used by the step text (and the Bitmapper sketch):
+     * {"mti": "0200", "fields": {"3": "000000", "11": "123456", "55@hex": "9F2608..."}}.
+     * A "@hex" suffix marks a binary field given as hex digits.
+     */
+    public static IsoMessage fromJson(JsonNode root) {
+        String mti = root.path("mti").asText("");
+        if (mti.isEmpty()) {
+            throw new IllegalArgumentException("ISO message JSON has no \"mti\"");
+        }
+        IsoMessage msg = new IsoMessage(mti);
+        Iterator<Map.Entry<String, JsonNode>> it = root.path("fields").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            String key = e.getKey();
+            String value = e.getValue().asText("");
+            int at = key.indexOf('@');
+            int de = parseField(at >= 0 ? key.substring(0, at) : key);
+            if (at >= 0) {
+                if (!"hex".equals(key.substring(at + 1))) {
+                    throw new IllegalArgumentException("Unknown field suffix in \"" + key + "\" (only @hex)");
+                }
+                msg.set(de, Iso87BCodec.fromHex(value));
+            } else {
+                msg.set(de, value);
+            }
+        }
+        return msg;
+    }
+
+    static int parseField(String key) {
+        int de;
+        try {
+            de = Integer.parseInt(key.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a data element number: \"" + key + "\"");
+        }
+        checkField(de);
+        return de;
+    }
+
+    private static void checkField(int de) {
+        if (de < 2 || de > MAX_FIELD || de == 65) {
+            throw new IllegalArgumentException("Data element " + de + " cannot be set (2..128, not 65)");
+        }
+    }
+
+    public String getMti() {
+        return mti;
+    }
+
+    public IsoMessage setMti(String mti) {
+        this.mti = mti;
+        return this;
+    }
+
+    public IsoMessage set(int de, String value) {
+        checkField(de);
+        fields[de] = value;
+        return this;
+    }
+
+    public IsoMessage set(int de, byte[] value) {
+        checkField(de);
+        fields[de] = value;
+        return this;
+    }
+
+    public IsoMessage unset(int de) {
+        checkField(de);
+        fields[de] = null;
+        return this;
+    }
+
+    public boolean has(int de) {
+        return de > 0 && de <= MAX_FIELD && fields[de] != null;
+    }
+
+    /**
+     * Value of a numeric/character field, or of a binary field as hex; null when absent.
+     */
+    public String getString(int de) {
+        Object value = de > 0 && de <= MAX_FIELD ? fields[de] : null;
+        if (value instanceof byte[]) {
+            return Iso87BCodec.toHex((byte[]) value);
+        }
+        return (String) value;
+    }
+
+    /**
+     * Value of a binary field; null when absent or not binary.
+     */
+    public byte[] getBytes(int de) {
+        Object value = de > 0 && de <= MAX_FIELD ? fields[de] : null;
+        return value instanceof byte[] ? (byte[]) value : null;
+    }
+
+    Object get(int de) {
+        return fields[de];
+    }
+
+    boolean hasSecondaryFields() {
+        for (int de = 66; de <= MAX_FIELD; de++) {
+            if (fields[de] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy with the same MTI and fields (binary values are shared).
+     */
+    public IsoMessage copy() {
+        IsoMessage copy = new IsoMessage(mti);
+        System.arraycopy(fields, 0, copy.fields, 0, fields.length);
+        return copy;
+    }
+
+    /**
+     * MTI and fields, with the PAN, track data and PIN block masked.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(mti != null ? mti : "????");
+        for (int de = 2; de <= MAX_FIELD; de++) {
+            if (fields[de] == null) {
+                continue;
+            }
+            sb.append(' ').append(de).append('=');
+            String value = getString(de);
+            switch (de) {
+                case 2:
+                    sb.append(value.length() > 10 ? value.substring(0, 6) + "..." + value.substring(value.length() - 4) : "***");
+                    break;
+                case 35:
+                case 45:
+                case 52:
+                    sb.append("***");
+                    break;
+                default:
+                    sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,341 @@
+package com.keywords;
+
+import com.OracleDbClient;
+import com.aventstack.extentreports.ExtentTest;
+import com.azure.AzureDevOpsClient;
+import com.config.FrameworkConfig;
+import com.model.ExecutionReport;
+import com.model.IterationReport;
+import com.model.StepStatus;
+import com.reporting.ReportNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the data rows of one ExecutionPlan, either one after another (default) or,
+ * with execution.parallelRows=true, concurrently with at most execution.rowConcurrency
+ * rows in flight.
+ *
+ * Parallel rows run on virtual threads when the JVM provides them (Java 21+) and on a
+ * cached daemon pool otherwise. Every row gets its own KeywordContext (built by the plan)
+ * and its own Extent node, created up front so the report keeps row order.
+ *
+ * With a RunCheckpoint every finished row and test case is recorded, and rows that an
+ * interrupted run already finished are skipped: their checkpointed IterationReport takes
+ * their place in the ExecutionReport, so results still cover every row.
+ */
+public class DataRowRunner implements AutoCloseable {
+
+    private final boolean parallel;
+    private final int concurrency;
+    private ExecutorService executor;
+
+    public DataRowRunner(FrameworkConfig config) {
+        this(config.isParallelRowsEnabled(), config.getRowConcurrency());
+    }
+
+    public DataRowRunner(boolean parallel, int concurrency) {
+        this.parallel = parallel;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Outcome of one data row; rows are returned in their original order.
+     */
+    public static final class RowResult {
+        private final int index;
+        private final Map<String, String> row;
+        private final Throwable error;
+        private final long durationMillis;
+
+        RowResult(int index, Map<String, String> row, Throwable error, long durationMillis) {
+            this.index = index;
+            this.row = row;
+            this.error = error;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Map<String, String> getRow() {
+            return row;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isPassed() {
+            return error == null;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    /**
+     * Runs all rows and returns their results in row order.
+     * Sequential mode stops at the first failing row (as before) and rethrows its exception;
+     * parallel mode lets all rows finish, then rethrows the first failure in row order.
+     */
+    public List<RowResult> runAll(ExecutionPlan plan,
+                                  List<Map<String, String>> rows,
+                                  OracleDbClient dbClient,
+                                  AzureDevOpsClient azureClient,
+                                  ExtentTest testNode) {
+        return runAll(plan, rows, dbClient, azureClient, testNode, null);
+    }
+
+    /**
+     * As runAll(...), also adding one IterationReport per started row to report (when not null),
+     * in row order, for publishing to Azure.
+     */
+    public List<RowResult> runAll(ExecutionPlan plan,
+                                  List<Map<String, String>> rows,
+                                  OracleDbClient dbClient,
+                                  AzureDevOpsClient azureClient,
+                                  ExtentTest testNode,
+                                  ExecutionReport report) {
+        return runAll(plan, rows, dbClient, azureClient, ReportNode.of(testNode), report);
+    }
+
+    /**
+     * As runAll(...), reporting through a ReportNode (see ReportSink).
+     */
+    public List<RowResult> runAll(ExecutionPlan plan,
+                                  List<Map<String, String>> rows,
+                                  OracleDbClient dbClient,
+                                  AzureDevOpsClient azureClient,
+                                  ReportNode testNode,
+                                  ExecutionReport report) {
+        return runAll(plan, rows, dbClient, azureClient, testNode, report, null);
+    }
+
+    /**
+     * As runAll(...), recording finished rows and the finished test case in checkpoint (when
+     * not null) and skipping the rows it says an interrupted run already finished.
+     * A row that failed in the interrupted run fails the test case again, as if it had just run.
+     */
+    public List<RowResult> runAll(ExecutionPlan plan,
+                                  List<Map<String, String>> rows,
+                                  OracleDbClient dbClient,
+                                  AzureDevOpsClient azureClient,
+                                  ReportNode testNode,
+                                  ExecutionReport report,
+                                  RunCheckpoint checkpoint) {
+        if (rows.isEmpty()) {
+            rows = Collections.singletonList(Collections.emptyMap());
+        }
+        int testCaseId = plan.getTestCase().getId();
+        RunCheckpoint.CaseState resumed = checkpoint != null ? checkpoint.getResumed(testCaseId) : null;
+        if (resumed != null) {
+            testNode.info("Resumed: " + resumed.getRowCount() + " of " + rows.size()
+                    + " data rows finished in the interrupted run and are not run again");
+            if (report != null) {
+                report.startTimeMillis = Math.min(report.startTimeMillis, resumed.getStartTimeMillis());
+            }
+        }
+        long start = System.currentTimeMillis();
+        List<RowResult> results;
+        try {
+            if (!parallel || rows.size() == 1) {
+                results = runSequential(plan, rows, dbClient, azureClient, testNode, report, checkpoint, resumed);
+            } else {
+                results = runParallel(plan, rows, dbClient, azureClient, testNode, report, checkpoint, resumed);
+            }
+        } catch (RuntimeException e) {
+            // An interrupted run is exactly what must not be marked finished
+            if (checkpoint != null && !Thread.currentThread().isInterrupted()) {
+                checkpoint.caseCompleted(testCaseId, e, start);
+            }
+            throw e;
+        }
+        if (checkpoint != null) {
+            checkpoint.caseCompleted(testCaseId, null, start);
+        }
+        return results;
+    }
+
+    private static IterationReport newIteration(ExecutionReport report, int index) {
+        if (report == null) {
+            return null;
+        }
+        IterationReport iteration = new IterationReport();
+        iteration.iterationId = index + 1;
+        report.iterations.add(iteration);
+        return iteration;
+    }
+
+    /**
+     * Puts a checkpointed row back in place: its iteration into report, a result into the list.
+     */
+    private static RowResult restoreRow(RunCheckpoint.CaseState resumed, int index, Map<String, String> row,
+                                        ExecutionReport report) {
+        IterationReport iteration = resumed.getIteration(index);
+        if (report != null && iteration != null) {
+            report.iterations.add(iteration);
+        }
+        Throwable error = resumed.getRowOutcome(index) == StepStatus.FAILED
+                ? new RuntimeException(resumed.getRowError(index)) : null;
+        return new RowResult(index, row, error, iteration != null ? iteration.getDurationMillis() : 0);
+    }
+
+    private List<RowResult> runSequential(ExecutionPlan plan,
+                                          List<Map<String, String>> rows,
+                                          OracleDbClient dbClient,
+                                          AzureDevOpsClient azureClient,
+                                          ReportNode testNode,
+                                          ExecutionReport report,
+                                          RunCheckpoint checkpoint,
+                                          RunCheckpoint.CaseState resumed) {
+        int testCaseId = plan.getTestCase().getId();
+        List<RowResult> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, String> row = rows.get(i);
+            if (resumed != null && resumed.isRowDone(i)) {
+                RowResult result = restoreRow(resumed, i, row, report);
+                if (!result.isPassed()) {
+                    throw new RuntimeException("Data row " + (i + 1) + " failed in the interrupted run: "
+                            + result.getError().getMessage());
+                }
+                results.add(result);
+                continue;
+            }
+            testNode.info("Executing data row: " + row);
+            long start = System.currentTimeMillis();
+            IterationReport iteration = newIteration(report, i);
+            try {
+                plan.run(row, dbClient, azureClient, testNode, iteration);
+            } catch (RuntimeException e) {
+                if (checkpoint != null && !Thread.currentThread().isInterrupted()) {
+                    checkpoint.rowCompleted(testCaseId, i, iteration, e, start);
+                }
+                throw e;
+            }
+            if (checkpoint != null) {
+                checkpoint.rowCompleted(testCaseId, i, iteration, null, start);
+            }
+            results.add(new RowResult(i, row, null, System.currentTimeMillis() - start));
+        }
+        return results;
+    }
+
+    private List<RowResult> runParallel(ExecutionPlan plan,
+                                        List<Map<String, String>> rows,
+                                        OracleDbClient dbClient,
+                                        AzureDevOpsClient azureClient,
+                                        ReportNode testNode,
+                                        ExecutionReport report,
+                                        RunCheckpoint checkpoint,
+                                        RunCheckpoint.CaseState resumed) {
+        int testCaseId = plan.getTestCase().getId();
+        // Nodes (and iteration reports) are created here, on the test thread, so both keep row order
+        ReportNode[] rowNodes = new ReportNode[rows.size()];
+        IterationReport[] iterations = new IterationReport[rows.size()];
+        RowResult[] restored = new RowResult[rows.size()];
+        for (int i = 0; i < rowNodes.length; i++) {
+            if (resumed != null && resumed.isRowDone(i)) {
+                restored[i] = restoreRow(resumed, i, rows.get(i), report);
+                continue;
+            }
+            rowNodes[i] = testNode.createNode("Data row " + (i + 1))
+                    .info("Executing data row: " + rows.get(i));
+            iterations[i] = newIteration(report, i);
+        }
+
+        Semaphore slots = new Semaphore(concurrency);
+        List<Future<RowResult>> futures = new ArrayList<>(rows.size());
+        ExecutorService pool = executor();
+        try {
+            for (int i = 0; i < rowNodes.length; i++) {
+                if (restored[i] != null) {
+                    futures.add(CompletableFuture.completedFuture(restored[i]));
+                    continue;
+                }
+                slots.acquire();
+                final int index = i;
+                final Map<String, String> row = rows.get(i);
+                futures.add(pool.submit(() -> {
+                    long start = System.currentTimeMillis();
+                    Throwable error = null;
+                    try {
+                        plan.run(row, dbClient, azureClient, rowNodes[index], iterations[index]);
+                    } catch (Throwable t) {
+                        error = t;
+                    } finally {
+                        slots.release();
+                    }
+                    // A row cancelled by the interrupt is not finished; a resumed run repeats it
+                    if (checkpoint != null && !Thread.currentThread().isInterrupted()) {
+                        checkpoint.rowCompleted(testCaseId, index, iterations[index], error, start);
+                    }
+                    return new RowResult(index, row, error, System.currentTimeMillis() - start);
+                }));
+            }
+
+            List<RowResult> results = new ArrayList<>(futures.size());
+            for (Future<RowResult> f : futures) {
+                results.add(f.get());
+            }
+            for (RowResult r : results) {
+                if (!r.isPassed()) {
+                    throw new RuntimeException("Data row " + (r.getIndex() + 1) + " failed: "
+                            + r.getError().getMessage(), r.getError());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running data rows", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = newRowExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * Virtual-thread-per-task executor when available (looked up reflectively so the
+     * framework still builds for Java 17), else a cached pool of daemon threads.
+     * The semaphore in runParallel bounds concurrency either way.
+     */
+    private static ExecutorService newRowExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread t = new Thread(runnable, "data-row-runner");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
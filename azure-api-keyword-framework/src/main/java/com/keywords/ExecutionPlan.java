@@ -0,0 +1,244 @@
+package com.keywords;
+
+import com.OracleDbClient;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.azure.AzureDevOpsClient;
+import com.model.IterationReport;
+import com.model.StepReport;
+import com.model.StepStatus;
+import com.model.TestCaseData;
+import com.model.TestStep;
+import com.reporting.ReportNode;
+import com.reporting.KeywordMetrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-resolved form of one TestCaseData, produced by KeywordExecutor.compile.
+ *
+ * Keywords are extracted, handlers looked up, arguments split and @parameter templates
+ * compiled once per test case; running a data row is then a plain walk over the step
+ * array, rendering only the templates that have parameters.
+ * With KeywordMetrics attached, step and row durations are recorded against series
+ * resolved here, so the hot path does no map lookups.
+ */
+public final class ExecutionPlan {
+
+    private final TestCaseData testCase;
+    private final CompiledStep[] steps;
+    private final KeywordMetrics metrics;
+    private final KeywordMetrics.Series rowSeries;
+
+    ExecutionPlan(TestCaseData testCase, CompiledStep[] steps, KeywordMetrics metrics) {
+        this.testCase = testCase;
+        this.steps = steps;
+        this.metrics = metrics;
+        this.rowSeries = metrics != null ? metrics.testCase(testCase.getId(), testCase.getTitle()) : null;
+    }
+
+    public TestCaseData getTestCase() {
+        return testCase;
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+     * Runs every step for one data row, each under its own Extent node of testNode.
+     * Stops at the first failing step (the exception propagates, as with KeywordExecutor.execute).
+     */
+    public void run(Map<String, String> dataRow,
+                    OracleDbClient dbClient,
+                    AzureDevOpsClient azureClient,
+                    ExtentTest testNode) {
+        run(dataRow, dbClient, azureClient, testNode, null);
+    }
+
+    /**
+     * Same as run(...), additionally recording a StepReport per executed step into iteration
+     * (when not null). The failing step is recorded before its exception propagates.
+     */
+    public void run(Map<String, String> dataRow,
+                    OracleDbClient dbClient,
+                    AzureDevOpsClient azureClient,
+                    ExtentTest testNode,
+                    IterationReport iteration) {
+        run(dataRow, dbClient, azureClient, ReportNode.of(testNode), iteration);
+    }
+
+    /**
+     * Same as run(...) with step nodes created through a ReportNode (see ReportSink).
+     */
+    public void run(Map<String, String> dataRow,
+                    OracleDbClient dbClient,
+                    AzureDevOpsClient azureClient,
+                    ReportNode testNode,
+                    IterationReport iteration) {
+        if (iteration != null) {
+            iteration.startTimeMillis = System.currentTimeMillis();
+        }
+        int iterationId = iteration != null ? iteration.iterationId : 0;
+        long rowStart = System.nanoTime();
+        boolean rowFailed = true;
+        try {
+            for (int i = 0; i < steps.length; i++) {
+                CompiledStep step = steps[i];
+                ReportNode stepNode = testNode.createNode(step.nodeTitle).info(step.description(dataRow));
+                KeywordContext ctx = new KeywordContext(
+                        testCase,
+                        step.step,
+                        dataRow,
+                        dbClient,
+                        azureClient,
+                        stepNode,
+                        step.arguments(dataRow),
+                        step.action,
+                        step.expected
+                );
+                StepReport report = null;
+                if (iteration != null) {
+                    report = step.newReport(i, iterationId);
+                    iteration.steps.add(report);
+                }
+                long stepStart = System.nanoTime();
+                boolean stepFailed = true;
+                try {
+                    boolean executed = step.execute(ctx);
+                    stepFailed = false;
+                    if (report != null) {
+                        report.status = executed ? StepStatus.PASSED : StepStatus.NOT_RUN;
+                    }
+                } catch (RuntimeException e) {
+                    if (report != null) {
+                        report.status = StepStatus.FAILED;
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        report.errorMessage = String.valueOf(cause.getMessage());
+                    }
+                    throw e;
+                } finally {
+                    if (step.series != null) {
+                        metrics.recordStep(step.series, testCase.getId(), step.step.getId(), iterationId,
+                                System.nanoTime() - stepStart, stepFailed);
+                    }
+                    if (report != null) {
+                        report.endTimeMillis = System.currentTimeMillis();
+                    }
+                }
+            }
+            rowFailed = false;
+        } finally {
+            if (rowSeries != null) {
+                rowSeries.record(System.nanoTime() - rowStart, rowFailed);
+            }
+            if (iteration != null) {
+                iteration.endTimeMillis = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * One step with its handler already resolved (null when the step carries no keyword).
+     */
+    static final class CompiledStep {
+
+        private final TestStep step;
+        private final String keyword;
+        private final KeywordHandler handler;
+        private final StepTemplate[] argumentTemplates;
+        // Shared by all rows when no argument has a parameter, else null
+        private final List<String> arguments;
+        private final StepTemplate action;
+        private final StepTemplate expected;
+        private final StepTemplate description;
+        private final KeywordMetrics.Series series;
+
+        // Report strings built once instead of per row
+        private final String nodeTitle;
+        private final String passMessage;
+        private final String failPrefix;
+        private final String stepPath;
+
+        CompiledStep(TestStep step, String keyword, KeywordHandler handler, StepTemplate[] argumentTemplates,
+                     StepTemplate action, StepTemplate expected, StepTemplate description,
+                     KeywordMetrics.Series series) {
+            this.step = step;
+            this.keyword = keyword;
+            this.handler = handler;
+            this.argumentTemplates = argumentTemplates;
+            this.arguments = constantArguments(argumentTemplates);
+            this.action = action;
+            this.expected = expected;
+            this.description = description;
+            this.series = series;
+            this.nodeTitle = "Step " + step.getId() + " [" + keyword + "]";
+            this.passMessage = "Keyword '" + keyword + "' executed successfully for step ID " + step.getId();
+            this.failPrefix = "Keyword '" + keyword + "' failed: ";
+            // Azure identifies a step result by the step id as 8 hex digits
+            this.stepPath = String.format("%08x", step.getId());
+        }
+
+        private static List<String> constantArguments(StepTemplate[] templates) {
+            String[] values = new String[templates.length];
+            for (int i = 0; i < templates.length; i++) {
+                if (!templates[i].isConstant()) {
+                    return null;
+                }
+                values[i] = templates[i].render(null);
+            }
+            return values.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        List<String> arguments(Map<String, String> dataRow) {
+            if (arguments != null) {
+                return arguments;
+            }
+            String[] values = new String[argumentTemplates.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = argumentTemplates[i].render(dataRow);
+            }
+            return Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        String description(Map<String, String> dataRow) {
+            return description.render(dataRow);
+        }
+
+        StepReport newReport(int position, int iterationId) {
+            StepReport report = new StepReport();
+            report.stepIndex = step.getId();
+            report.stepPath = stepPath;
+            report.indexString = String.valueOf(position + 1);
+            report.iterationId = iterationId;
+            report.startTimeMillis = System.currentTimeMillis();
+            return report;
+        }
+
+        /**
+         * @return false when the step has no handler and was skipped
+         */
+        boolean execute(KeywordContext ctx) {
+            if (handler == null) {
+                ctx.getReport().log(Status.WARNING,
+                        "No keyword found for step ID " + step.getId());
+                return false;
+            }
+            try {
+                handler.execute(ctx);
+                ctx.getReport().log(Status.PASS, passMessage);
+                return true;
+            } catch (Exception e) {
+                ctx.getReport().log(Status.FAIL, failPrefix + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        }
+
+        String getKeyword() {
+            return keyword;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.keywords;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iso.IsoChannel;
+import com.iso.IsoMessage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ISO_SEND: sends one ISO 8583 message over the shared IsoChannel and checks the response.
+ *
+ * Action:   ISO_SEND {"mti": "0200", "fields": {"3": "000000", "4": "@amount", "41": "TERM0001"}}
+ *           optionally with "timeoutMs" next to "mti"; binary fields as "55@hex": "9F26...".
+ *           DE11 may be left out, the channel then assigns a STAN.
+ * Expected: {"mti": "0210", "39": "00"} - every listed field must equal the response's
+ *           (trimmed, binary fields as hex). Expected text that is not a JSON object is
+ *           not checked.
+ *
+ * Parameters are substituted from the data row before parsing (see StepTemplate). Many rows
+ * or test cases running at once share the channel's connections and are pipelined.
+ */
+public class IsoSendKeyword implements KeywordHandler {
+
+    public static final String KEYWORD = "ISO_SEND";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final IsoChannel channel;
+
+    public IsoSendKeyword(IsoChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void execute(KeywordContext ctx) throws Exception {
+        JsonNode request = parse(requestJson(ctx.getAction()), "action");
+        IsoMessage message = IsoMessage.fromJson(request);
+        long timeoutMs = request.path("timeoutMs").asLong(channel.getTimeoutMs());
+
+        long start = System.nanoTime();
+        IsoMessage response = channel.exchange(message, timeoutMs);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        ctx.getReport().info(String.format(Locale.ROOT, "%s -> %s in %.1f ms", message, response, millis));
+
+        String expected = ctx.getExpected().trim();
+        if (!expected.startsWith("{")) {
+            return;
+        }
+        List<String> mismatches = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> it = parse(expected, "expected result").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            String key = e.getKey();
+            String want = e.getValue().asText("").trim();
+            String got;
+            if ("mti".equalsIgnoreCase(key)) {
+                got = response.getMti();
+            } else {
+                int at = key.indexOf('@');
+                got = response.getString(Integer.parseInt((at >= 0 ? key.substring(0, at) : key).trim()));
+            }
+            if (got == null || !got.trim().equalsIgnoreCase(want)) {
+                mismatches.add(key + " expected '" + want + "' but was " + (got == null ? "absent" : "'" + got.trim() + "'"));
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("ISO response " + response + ": " + String.join(", ", mismatches));
+        }
+    }
+
+    /**
+     * The JSON after the keyword in the step action.
+     */
+    private static String requestJson(String action) {
+        int brace = action.indexOf('{');
+        if (brace < 0) {
+            throw new IllegalArgumentException(KEYWORD + " needs the message as JSON after the keyword");
+        }
+        return action.substring(brace);
+    }
+
+    private static JsonNode parse(String json, String what) {
+        try {
+            JsonNode node = MAPPER.readTree(json);
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException(KEYWORD + " " + what + " is not a JSON object: " + json);
+            }
+            return node;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(KEYWORD + " " + what + " is not valid JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -3,9 +3,16 @@ package com.keywords;
 import com.aventstack.extentreports.ExtentTest;
 import com.azure.AzureDevOpsClient;
 import com.OracleDbClient;
+import com.RowCallback;
+import com.model.RowSchema;
 import com.model.TestCaseData;
 import com.model.TestStep;
+import com.parser.HtmlTextNormalizer;
+import com.reporting.ReportNode;
 
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class KeywordContext {
@@ -15,7 +22,10 @@ public class KeywordContext {
     private final Map<String, String> dataRow;
     private final OracleDbClient dbClient;
     private final AzureDevOpsClient azureClient;
-    private final ExtentTest extentTest;
+    private final ReportNode report;
+    private final List<String> arguments;
+    private final StepTemplate actionTemplate;
+    private final StepTemplate expectedTemplate;
 
     public KeywordContext(TestCaseData testCase,
                           TestStep step,
@@ -23,12 +33,48 @@ public class KeywordContext {
                           OracleDbClient dbClient,
                           AzureDevOpsClient azureClient,
                           ExtentTest extentTest) {
+        this(testCase, step, dataRow, dbClient, azureClient, extentTest, Collections.emptyList());
+    }
+
+    public KeywordContext(TestCaseData testCase,
+                          TestStep step,
+                          Map<String, String> dataRow,
+                          OracleDbClient dbClient,
+                          AzureDevOpsClient azureClient,
+                          ExtentTest extentTest,
+                          List<String> arguments) {
+        this(testCase, step, dataRow, dbClient, azureClient, ReportNode.of(extentTest), arguments);
+    }
+
+    public KeywordContext(TestCaseData testCase,
+                          TestStep step,
+                          Map<String, String> dataRow,
+                          OracleDbClient dbClient,
+                          AzureDevOpsClient azureClient,
+                          ReportNode report,
+                          List<String> arguments) {
+        this(testCase, step, dataRow, dbClient, azureClient, report, arguments, null, null);
+    }
+
+    // From ExecutionPlan, with the step's templates compiled against the data table
+    KeywordContext(TestCaseData testCase,
+                   TestStep step,
+                   Map<String, String> dataRow,
+                   OracleDbClient dbClient,
+                   AzureDevOpsClient azureClient,
+                   ReportNode report,
+                   List<String> arguments,
+                   StepTemplate actionTemplate,
+                   StepTemplate expectedTemplate) {
         this.testCase = testCase;
         this.step = step;
         this.dataRow = dataRow;
         this.dbClient = dbClient;
         this.azureClient = azureClient;
-        this.extentTest = extentTest;
+        this.report = report;
+        this.arguments = arguments;
+        this.actionTemplate = actionTemplate;
+        this.expectedTemplate = expectedTemplate;
     }
 
     public TestCaseData getTestCase() {
@@ -51,7 +97,81 @@ public class KeywordContext {
         return azureClient;
     }
 
+    /**
+     * This step's report node; logging through it never blocks the test thread.
+     */
+    public ReportNode getReport() {
+        return report;
+    }
+
+    /**
+     * The step's Extent node for handlers that need the full ExtentTest API.
+     * With asynchronous reporting this waits for pending report events first; with a result
+     * journal it is a stand-in whose logs are journaled, valid for this step only - prefer getReport().
+     */
     public ExtentTest getExtentTest() {
-        return extentTest;
+        return report.getExtentTest();
+    }
+
+    /**
+     * Tokens after the keyword in the step action (plain text, whitespace-separated).
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Plain text of the step action with this row's values in place of its @parameters.
+     */
+    public String getAction() {
+        return render(actionTemplate, step.getAction());
+    }
+
+    /**
+     * Plain text of the step's expected result with this row's values in place of its @parameters.
+     */
+    public String getExpected() {
+        return render(expectedTemplate, step.getExpected());
+    }
+
+    private String render(StepTemplate template, String html) {
+        if (template == null) {
+            // Context built outside an ExecutionPlan: bind against the test case's columns as the plan
+            // does; without a test case there are no columns and the text stays as written
+            RowSchema schema = testCase != null ? testCase.getDataTable().getSchema() : new RowSchema();
+            template = StepTemplate.compile(HtmlTextNormalizer.toPlainText(html), schema, null);
+        }
+        return template.render(dataRow);
+    }
+
+    /**
+     * Runs a query whose :NAME binds are filled from this step's data row,
+     * e.g. "select status from cards where pan = :pan".
+     */
+    public List<Map<String, Object>> queryForList(String namedSql) throws SQLException {
+        return dbClient.queryForList(namedSql, dataRow);
+    }
+
+    /**
+     * Streams a query's rows to callback without holding them; :NAME binds come from the data row.
+     *
+     * @return number of rows read
+     */
+    public long queryForEach(String namedSql, RowCallback callback) throws SQLException {
+        return dbClient.queryForEach(namedSql, dataRow, callback);
+    }
+
+    /**
+     * Single DML statement with :NAME binds from the data row.
+     */
+    public int executeUpdate(String namedSql) throws SQLException {
+        return dbClient.executeUpdate(namedSql, dataRow);
+    }
+
+    /**
+     * Batched DML over all data rows of the current test case (seeding/cleanup), in one transaction.
+     */
+    public long executeBatchForAllRows(String namedSql) throws SQLException {
+        return dbClient.executeBatch(namedSql, testCase);
     }
 }
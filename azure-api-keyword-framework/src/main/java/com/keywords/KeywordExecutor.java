@@ -1,14 +1,34 @@
 package com.keywords;
 
 import com.aventstack.extentreports.Status;
+import com.model.RowSchema;
+import com.model.TestCaseData;
+import com.model.TestStep;
+import com.parser.HtmlTextNormalizer;
+import com.reporting.KeywordMetrics;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 public class KeywordExecutor {
 
     private final Map<String, KeywordHandler> handlers = new HashMap<>();
+    private final KeywordMetrics metrics;
+
+    public KeywordExecutor() {
+        this(null);
+    }
+
+    /**
+     * @param metrics receives step/test case latencies and errors; null disables recording
+     */
+    public KeywordExecutor(KeywordMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     public void register(String keyword, KeywordHandler handler) {
         handlers.put(keyword.toUpperCase(Locale.ROOT), handler);
@@ -16,28 +36,98 @@ public class KeywordExecutor {
 
     public void execute(String keyword, KeywordContext ctx) {
         if (keyword == null || keyword.isBlank()) {
-            ctx.getExtentTest().log(Status.WARNING,
+            ctx.getReport().log(Status.WARNING,
                     "No keyword found for step ID " + ctx.getStep().getId());
             return;
         }
 
         KeywordHandler handler = handlers.get(keyword.toUpperCase(Locale.ROOT));
         if (handler == null) {
-            ctx.getExtentTest().log(Status.WARNING,
+            ctx.getReport().log(Status.WARNING,
                     "No handler registered for keyword '" + keyword +
                             "'. Step will be marked as skipped.");
             return;
         }
 
+        long start = System.nanoTime();
+        boolean failed = false;
         try {
             handler.execute(ctx);
-            ctx.getExtentTest().log(Status.PASS,
+            ctx.getReport().log(Status.PASS,
                     "Keyword '" + keyword + "' executed successfully for step ID " +
                             ctx.getStep().getId());
         } catch (Exception e) {
-            ctx.getExtentTest().log(Status.FAIL,
+            failed = true;
+            ctx.getReport().log(Status.FAIL,
                     "Keyword '" + keyword + "' failed: " + e.getMessage());
             throw new RuntimeException(e);
+        } finally {
+            if (metrics != null) {
+                metrics.recordStep(metrics.keyword(keyword), ctx.getTestCase().getId(),
+                        ctx.getStep().getId(), 0, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Resolves every step of the test case to its handler and arguments up front, and compiles
+     * the action, expected result and arguments into StepTemplates over the data table's columns.
+     * Unknown keywords and @parameters that are not data columns (of a test case that has a
+     * data source) are reported together, before any data row runs. Steps without a keyword are kept and logged as warnings at run time.
+     */
+    public ExecutionPlan compile(TestCaseData testCase) {
+        List<TestStep> steps = testCase.getSteps();
+        RowSchema schema = testCase.getDataTable().getSchema();
+        ExecutionPlan.CompiledStep[] compiled = new ExecutionPlan.CompiledStep[steps.size()];
+        List<String> unknown = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+
+        for (int i = 0; i < compiled.length; i++) {
+            TestStep step = steps.get(i);
+            String text = HtmlTextNormalizer.toPlainText(step.getAction());
+            String[] tokens = HtmlTextNormalizer.tokens(text);
+            String keyword = tokens.length > 0 ? tokens[0] : "";
+
+            List<String> stepMissing = new ArrayList<>();
+            StepTemplate[] arguments = new StepTemplate[Math.max(0, tokens.length - 1)];
+            for (int a = 0; a < arguments.length; a++) {
+                arguments[a] = StepTemplate.compile(tokens[a + 1], schema, stepMissing);
+            }
+            String expectedText = HtmlTextNormalizer.toPlainText(step.getExpected());
+            StepTemplate action = StepTemplate.compile(text, schema, stepMissing);
+            StepTemplate expected = StepTemplate.compile(expectedText, schema, stepMissing);
+            // From the plain text: parameters split by markup or written as entities are still found
+            StepTemplate description = StepTemplate.compileHtml(
+                    "Action: " + text + "\nExpected: " + expectedText, schema, null);
+            if (!stepMissing.isEmpty()) {
+                // The action text repeats its arguments' parameters
+                missing.add("step " + step.getId() + " " + String.join(", ", new LinkedHashSet<>(stepMissing)));
+            }
+
+            KeywordHandler handler = null;
+            if (!keyword.isEmpty()) {
+                handler = handlers.get(keyword.toUpperCase(Locale.ROOT));
+                if (handler == null) {
+                    unknown.add("step " + step.getId() + " '" + keyword + "'");
+                }
+            }
+            KeywordMetrics.Series series = metrics != null && handler != null ? metrics.keyword(keyword) : null;
+            compiled[i] = new ExecutionPlan.CompiledStep(step, keyword, handler, arguments, action, expected,
+                    description, series);
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (!unknown.isEmpty()) {
+            problems.add("No handler registered for keyword(s) in test case "
+                    + testCase.getId() + ": " + String.join(", ", unknown));
+        }
+        if (!missing.isEmpty()) {
+            problems.add("Unknown parameter(s) in test case " + testCase.getId() + ": " + String.join("; ", missing)
+                    + " (data columns: " + String.join(", ", schema.columns()) + "; write @@ for a literal @)");
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException(String.join(". ", problems));
         }
+        return new ExecutionPlan(testCase, compiled, metrics);
     }
 }
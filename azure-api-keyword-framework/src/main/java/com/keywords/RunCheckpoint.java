@@ -0,0 +1,346 @@
+package com.keywords;
+
+import com.config.FrameworkConfig;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.model.ExecutionReport;
+import com.model.IterationReport;
+import com.model.StepStatus;
+import com.model.TestCaseData;
+import com.reporting.ResultJournal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durable record of the work a run has finished, so an interrupted run can be resumed.
+ *
+ * One JSON line per finished data row (test case id, row index, outcome and its
+ * IterationReport for Azure) and one per finished test case, written straight to the file
+ * channel as it happens: a killed process loses nothing that was recorded. The first line
+ * names azure.runId / azure.planId, and resuming into a different run is refused.
+ *
+ * With run.resume=true the existing file is loaded and appended to; DataRowRunner skips
+ * rows recorded here and puts their checkpointed iterations back into the ExecutionReport,
+ * so the Azure result and the (journaled) report cover both runs. Otherwise the file is
+ * started afresh.
+ */
+public class RunCheckpoint implements AutoCloseable {
+
+    private static final String RUN = "run";
+    private static final String ROW = "row";
+    private static final String CASE = "case";
+
+    private final Path path;
+    private final FileChannel channel;
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.PUBLIC_ONLY)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Loaded on resume only; rows finished in this run are not kept
+    private final Map<Integer, CaseState> resumed = new ConcurrentHashMap<>();
+
+    /**
+     * One checkpoint line.
+     */
+    static final class Record {
+        public String type;
+        public Integer runId;
+        public Integer planId;
+        public int testCaseId;
+        public int row;
+        public StepStatus outcome;
+        public String error;
+        public long startTimeMillis;
+        public long endTimeMillis;
+        public IterationReport iteration;
+    }
+
+    /**
+     * What the interrupted run finished of one test case.
+     */
+    public static final class CaseState {
+        private final int testCaseId;
+        private final TreeMap<Integer, Record> rows = new TreeMap<>();
+        private Record completed;
+
+        CaseState(int testCaseId) {
+            this.testCaseId = testCaseId;
+        }
+
+        /**
+         * True when the whole test case finished; it is then not run again.
+         */
+        public boolean isComplete() {
+            return completed != null;
+        }
+
+        public boolean isRowDone(int rowIndex) {
+            return rows.containsKey(rowIndex);
+        }
+
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        /**
+         * Failure message of the finished test case, or of the first failed row; null when none failed.
+         */
+        public String getError() {
+            if (completed != null && completed.error != null) {
+                return completed.error;
+            }
+            for (Record row : rows.values()) {
+                if (row.outcome == StepStatus.FAILED) {
+                    return row.error;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checkpointed iteration of a finished row (null when it was run without an ExecutionReport).
+         */
+        public IterationReport getIteration(int rowIndex) {
+            Record row = rows.get(rowIndex);
+            return row != null ? row.iteration : null;
+        }
+
+        StepStatus getRowOutcome(int rowIndex) {
+            Record row = rows.get(rowIndex);
+            return row != null ? row.outcome : null;
+        }
+
+        String getRowError(int rowIndex) {
+            Record row = rows.get(rowIndex);
+            return row != null ? row.error : null;
+        }
+
+        long getStartTimeMillis() {
+            long start = Long.MAX_VALUE;
+            for (Record row : rows.values()) {
+                start = Math.min(start, row.startTimeMillis);
+            }
+            return start;
+        }
+
+        public int getTestCaseId() {
+            return testCaseId;
+        }
+
+        /**
+         * The test case's result as the interrupted run had it, for publishing again.
+         */
+        public ExecutionReport toReport(TestCaseData testCase) {
+            ExecutionReport report = toReport();
+            report.title = testCase.getTitle();
+            return report;
+        }
+
+        /**
+         * As toReport(TestCaseData), without the title (Azure results do not use it).
+         */
+        public ExecutionReport toReport() {
+            ExecutionReport report = new ExecutionReport();
+            report.testCaseId = testCaseId;
+            report.startTimeMillis = rows.isEmpty() ? completed.startTimeMillis : getStartTimeMillis();
+            report.endTimeMillis = completed != null ? completed.endTimeMillis : report.startTimeMillis;
+            report.error = completed != null ? completed.error : null;
+            for (Record row : rows.values()) {
+                report.endTimeMillis = Math.max(report.endTimeMillis, row.endTimeMillis);
+                if (row.iteration != null) {
+                    report.iterations.add(row.iteration);
+                }
+            }
+            return report;
+        }
+
+        @Override
+        public String toString() {
+            return "test case " + testCaseId + ": " + rows.size() + " rows done" + (isComplete() ? ", complete" : "");
+        }
+    }
+
+    public RunCheckpoint(FrameworkConfig config) {
+        this(Paths.get(config.getRunCheckpointPath()), config.isRunResume(), config.getAzureRunId(), config.getAzurePlanId());
+    }
+
+    /**
+     * @param resume load and append to an existing checkpoint at path instead of starting a new one
+     */
+    public RunCheckpoint(Path path, boolean resume, int runId, int planId) {
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (resume && Files.isRegularFile(path)) {
+                this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    resumed.putAll(read(path, runId, planId));
+                    channel.position(ResultJournal.trimToLastLine(channel));
+                } catch (IOException | RuntimeException e) {
+                    // Another run's checkpoint or a corrupt one: leave the file as it is
+                    channel.close();
+                    throw e;
+                }
+            } else {
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                Record header = new Record();
+                header.type = RUN;
+                header.runId = runId;
+                header.planId = planId;
+                header.startTimeMillis = System.currentTimeMillis();
+                write(header);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open run checkpoint " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * What the interrupted run finished of this test case, or null (nothing, or not resuming).
+     */
+    public CaseState getResumed(int testCaseId) {
+        return resumed.get(testCaseId);
+    }
+
+    public boolean isResuming() {
+        return !resumed.isEmpty();
+    }
+
+    /**
+     * Records a finished data row.
+     *
+     * @param iteration the row's IterationReport, may be null
+     * @param error     failure of the row, null when it passed
+     */
+    public void rowCompleted(int testCaseId, int rowIndex, IterationReport iteration, Throwable error,
+                             long startTimeMillis) {
+        Record record = new Record();
+        record.type = ROW;
+        record.testCaseId = testCaseId;
+        record.row = rowIndex;
+        record.outcome = error == null ? StepStatus.PASSED : StepStatus.FAILED;
+        record.error = error != null ? String.valueOf(error.getMessage()) : null;
+        record.startTimeMillis = startTimeMillis;
+        record.endTimeMillis = System.currentTimeMillis();
+        record.iteration = iteration;
+        write(record);
+    }
+
+    /**
+     * Records a finished test case; a resumed run will not start it again.
+     */
+    public void caseCompleted(int testCaseId, Throwable error, long startTimeMillis) {
+        Record record = new Record();
+        record.type = CASE;
+        record.testCaseId = testCaseId;
+        record.outcome = error == null ? StepStatus.PASSED : StepStatus.FAILED;
+        record.error = error != null ? String.valueOf(error.getMessage()) : null;
+        record.startTimeMillis = startTimeMillis;
+        record.endTimeMillis = System.currentTimeMillis();
+        write(record);
+    }
+
+    private synchronized void write(Record record) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(record);
+            ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n');
+            line.flip();
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write run checkpoint " + path, e);
+        }
+    }
+
+    /**
+     * Everything recorded in the checkpoint at path, by test case id (e.g. to merge shards).
+     * A torn last line is ignored.
+     *
+     * @throws IllegalStateException when the checkpoint belongs to another run or plan
+     */
+    public static Map<Integer, CaseState> read(Path path, int runId, int planId) {
+        Map<Integer, CaseState> states = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            String torn = null;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (torn != null) {
+                    throw new IllegalStateException("Corrupt run checkpoint " + path + " at line " + (lineNo - 1));
+                }
+                Record record;
+                try {
+                    record = MAPPER.readValue(line, Record.class);
+                } catch (IOException e) {
+                    torn = line;
+                    continue;
+                }
+                if (RUN.equals(record.type)) {
+                    if (record.runId != null && record.runId != runId || record.planId != null && record.planId != planId) {
+                        throw new IllegalStateException("Checkpoint " + path + " belongs to run " + record.runId
+                                + " of plan " + record.planId + ", not run " + runId + " of plan " + planId
+                                + "; set run.resume=false to start over");
+                    }
+                } else if (ROW.equals(record.type)) {
+                    states.computeIfAbsent(record.testCaseId, CaseState::new).rows.put(record.row, record);
+                } else if (CASE.equals(record.type)) {
+                    states.computeIfAbsent(record.testCaseId, CaseState::new).completed = record;
+                } else {
+                    throw new IllegalStateException("Unknown record '" + record.type + "' at line " + lineNo + " of " + path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read run checkpoint " + path, e);
+        }
+        return states;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close run checkpoint " + path, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        long complete = resumed.values().stream().filter(CaseState::isComplete).count();
+        int rows = resumed.values().stream().mapToInt(CaseState::getRowCount).sum();
+        return "resumed " + resumed.size() + " test cases (" + complete + " complete, " + rows + " rows) from " + path;
+    }
+}
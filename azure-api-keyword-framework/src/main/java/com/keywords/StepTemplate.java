@@ -0,0 +1,237 @@
+package com.keywords;
+
+import com.model.DataRow;
+import com.model.RowSchema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Step text with Azure @parameter references, compiled once per test case into literal
+ * and slot segments. Slots are bound to column positions of the test case's RowSchema,
+ * so rendering a DataRow is one StringBuilder pass with indexed lookups - no regex, no
+ * String.replace per parameter. Other Map rows are looked up by column name.
+ *
+ * A parameter is '@' followed by a letter or '_' and then letters, digits or '_', and not
+ * preceded by a letter or digit (so "ops@bank.com" stays literal). "@@" is a literal '@'.
+ * Names are matched to columns exactly first, then ignoring case (as Azure does).
+ * A column a row does not have renders as the empty string. Against a schema without
+ * columns (a test case with no data source) nothing is a parameter: the text stays as written.
+ */
+public final class StepTemplate {
+
+    private final String text;
+    // literals[i] is followed by slot i (slotNames/slotIndexes); the last literal ends the text
+    private final String[] literals;
+    private final String[] slotNames;
+    private final int[] slotIndexes;
+    private final RowSchema schema;
+    private final boolean escapeHtml;
+    private final int literalLength;
+
+    private StepTemplate(String text, String[] literals, String[] slotNames, int[] slotIndexes,
+                         RowSchema schema, boolean escapeHtml) {
+        this.text = text;
+        this.literals = literals;
+        this.slotNames = slotNames;
+        this.slotIndexes = slotIndexes;
+        this.schema = schema;
+        this.escapeHtml = escapeHtml;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles text against schema. Parameters that are not columns of schema are added to
+     * missing (as "@name") and render empty; pass a null schema to bind by name only.
+     */
+    public static StepTemplate compile(String text, RowSchema schema, List<String> missing) {
+        return compile(text, schema, missing, false);
+    }
+
+    /**
+     * As compile(...), rendering the plain text as HTML (report descriptions): the text and the
+     * values are HTML-escaped and line breaks become &lt;br/&gt;.
+     */
+    public static StepTemplate compileHtml(String text, RowSchema schema, List<String> missing) {
+        return compile(text, schema, missing, true);
+    }
+
+    private static StepTemplate compile(String text, RowSchema schema, List<String> missing, boolean escapeHtml) {
+        if (text == null) {
+            text = "";
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean bind = schema == null || schema.size() > 0;
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            char c = text.charAt(i);
+            if (c != '@' || !bind) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < len && text.charAt(i + 1) == '@') {
+                literal.append('@');
+                i += 2;
+                continue;
+            }
+            boolean startsName = i + 1 < len && isNameStart(text.charAt(i + 1));
+            boolean inWord = i > 0 && Character.isLetterOrDigit(text.charAt(i - 1));
+            if (!startsName || inWord) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int end = i + 2;
+            while (end < len && isNamePart(text.charAt(end))) {
+                end++;
+            }
+            literals.add(literalOf(literal, escapeHtml));
+            literal.setLength(0);
+            names.add(text.substring(i + 1, end));
+            i = end;
+        }
+        literals.add(literalOf(literal, escapeHtml));
+
+        int[] indexes = new int[names.size()];
+        for (int s = 0; s < indexes.length; s++) {
+            indexes[s] = schema != null ? columnOf(schema, names.get(s)) : -1;
+            if (schema != null && indexes[s] < 0 && missing != null) {
+                missing.add("@" + names.get(s));
+            } else if (indexes[s] >= 0) {
+                // Render by the column's own spelling when the parameter differs in case
+                names.set(s, schema.column(indexes[s]));
+            }
+        }
+        return new StepTemplate(text, literals.toArray(new String[0]), names.toArray(new String[0]), indexes,
+                schema, escapeHtml);
+    }
+
+    private static String literalOf(StringBuilder literal, boolean escapeHtml) {
+        if (!escapeHtml) {
+            return literal.toString();
+        }
+        StringBuilder html = new StringBuilder(literal.length() + 16);
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) == '\n') {
+                html.append("<br/>");
+            } else {
+                appendEscaped(html, literal.charAt(i));
+            }
+        }
+        return html.toString();
+    }
+
+    private static boolean isNameStart(char c) {
+        return c == '_' || Character.isLetter(c);
+    }
+
+    private static boolean isNamePart(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static int columnOf(RowSchema schema, String name) {
+        int i = schema.indexOf(name);
+        if (i >= 0) {
+            return i;
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (int c = 0; c < schema.size(); c++) {
+            if (schema.column(c).toLowerCase(Locale.ROOT).equals(lower)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True when the text has no parameters; render(...) then returns the same String for every row.
+     */
+    public boolean isConstant() {
+        return slotNames.length == 0;
+    }
+
+    /**
+     * The text as compiled (parameters unresolved).
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Parameter names in order of appearance, as the columns they are bound to.
+     */
+    public List<String> getParameters() {
+        List<String> names = new ArrayList<>(slotNames.length);
+        Collections.addAll(names, slotNames);
+        return names;
+    }
+
+    /**
+     * The text with every parameter replaced by the row's value.
+     */
+    public String render(Map<String, String> row) {
+        if (slotNames.length == 0) {
+            return literals[0];
+        }
+        DataRow indexed = row instanceof DataRow && ((DataRow) row).getSchema() == schema ? (DataRow) row : null;
+        StringBuilder out = new StringBuilder(literalLength + 16 * slotNames.length);
+        for (int s = 0; s < slotNames.length; s++) {
+            out.append(literals[s]);
+            String value;
+            if (indexed != null && slotIndexes[s] >= 0) {
+                value = indexed.get(slotIndexes[s]);
+            } else {
+                value = row != null ? row.get(slotNames[s]) : null;
+            }
+            if (value != null) {
+                if (escapeHtml) {
+                    appendEscaped(out, value);
+                } else {
+                    out.append(value);
+                }
+            }
+        }
+        return out.append(literals[slotNames.length]).toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(out, value.charAt(i));
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, char c) {
+        switch (c) {
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '&':
+                out.append("&amp;");
+                break;
+            case '"':
+                out.append("&quot;");
+                break;
+            default:
+                out.append(c);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,149 @@
+package com.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * One data row as a String[] over the test case's shared RowSchema, seen as a Map
+ * (column -> value) so KeywordContext.getDataRow() callers keep working.
+ * A null slot means the column is absent from this row. Iteration follows schema order.
+ */
+public final class DataRow extends AbstractMap<String, String> {
+
+    private final RowSchema schema;
+    private String[] values;
+
+    DataRow(RowSchema schema, String[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Value of the column at schema position i (null when absent).
+     */
+    public String get(int i) {
+        String[] v = values;
+        return i < v.length ? v[i] : null;
+    }
+
+    @Override
+    public String get(Object key) {
+        int i = schema.indexOf(key);
+        return i >= 0 ? get(i) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        if (value == null) {
+            throw new NullPointerException("Data row values cannot be null (column " + key + ")");
+        }
+        int i = schema.indexOrAdd(key);
+        if (i >= values.length) {
+            values = Arrays.copyOf(values, schema.size());
+        }
+        String old = values[i];
+        values[i] = value;
+        return old;
+    }
+
+    @Override
+    public String remove(Object key) {
+        int i = schema.indexOf(key);
+        if (i < 0 || i >= values.length) {
+            return null;
+        }
+        String old = values[i];
+        values[i] = null;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    public int size() {
+        int n = 0;
+        for (String v : values) {
+            if (v != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return DataRow.this.size();
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+        private int next = advance(0);
+        private int last = -1;
+
+        private int advance(int from) {
+            String[] v = values;
+            int i = from;
+            while (i < v.length && v[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            final int i = last;
+            return new SimpleEntry<>(schema.column(i), values[i]) {
+                @Override
+                public String setValue(String value) {
+                    super.setValue(value);
+                    return DataRow.this.put(schema.column(i), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            values[last] = null;
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The data rows of one test case: a shared RowSchema plus one compact DataRow per row.
+ * Behaves as the List<Map<String, String>> that getDataRows() always returned;
+ * add() accepts any Map and stores it in compact form.
+ */
+public final class DataTable extends AbstractList<Map<String, String>> {
+
+    private final RowSchema schema = new RowSchema();
+    private final List<DataRow> rows = new ArrayList<>();
+
+    /**
+     * Table with the given columns and rows of values in column order (null = absent).
+     * The row arrays are used as they are.
+     */
+    public static DataTable of(String[] columns, List<String[]> rows) {
+        DataTable table = new DataTable();
+        for (String column : columns) {
+            table.schema.indexOrAdd(column);
+        }
+        for (String[] values : rows) {
+            table.rows.add(new DataRow(table.schema, values));
+        }
+        return table;
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public DataRow get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public boolean add(Map<String, String> row) {
+        add(rows.size(), row);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Map<String, String> row) {
+        String[] values = new String[schema.size()];
+        for (Map.Entry<String, String> e : row.entrySet()) {
+            if (e.getValue() == null) {
+                continue;
+            }
+            int i = schema.indexOrAdd(e.getKey());
+            if (i >= values.length) {
+                values = Arrays.copyOf(values, schema.size());
+            }
+            values[i] = e.getValue();
+        }
+        rows.add(index, new DataRow(schema, values));
+    }
+
+    @Override
+    public DataRow remove(int index) {
+        return rows.remove(index);
+    }
+}
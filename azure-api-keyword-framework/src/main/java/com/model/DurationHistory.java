@@ -0,0 +1,151 @@
+package com.model;
+
+import com.config.FrameworkConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Local store of how long each test case takes and how often it fails, kept across runs
+ * in one JSON file (execution.history.path) for the TestCaseScheduler.
+ *
+ * Durations and failure rates are exponentially weighted moving averages with weight
+ * execution.history.alpha for the newest run, so a case that got slower is picked up
+ * within a few runs while one odd run does not reorder everything. A missing or
+ * unreadable file is an empty history. save() re-reads the file and replaces only the
+ * cases recorded by this JVM, so shards sharing a workspace keep each other's entries.
+ */
+public class DurationHistory {
+
+    // Bump whenever Stats changes shape; older files are then ignored
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final double alpha;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<Integer, Stats> stats = new TreeMap<>();
+    private final Set<Integer> recorded = new HashSet<>();
+
+    /**
+     * History of one test case.
+     */
+    public static final class Stats {
+        public double durationMillis;
+        public double failureRate;
+        public int runs;
+        public boolean lastFailed;
+        public long lastRunMillis;
+    }
+
+    // On-disk shape
+    static final class HistoryFile {
+        public int version;
+        public Map<Integer, Stats> testCases = new TreeMap<>();
+    }
+
+    public DurationHistory(FrameworkConfig config) {
+        this(Paths.get(config.getExecutionHistoryPath()), config.getExecutionHistoryAlpha());
+    }
+
+    public DurationHistory(Path file, double alpha) {
+        this.file = file;
+        this.alpha = Math.min(1.0, Math.max(0.01, alpha));
+        stats.putAll(read());
+    }
+
+    /**
+     * Stats of a test case, or null when it has never been recorded.
+     */
+    public synchronized Stats get(int testCaseId) {
+        return stats.get(testCaseId);
+    }
+
+    public synchronized int size() {
+        return stats.size();
+    }
+
+    /**
+     * Folds one finished run of a test case into its averages.
+     */
+    public synchronized void record(int testCaseId, long durationMillis, boolean failed) {
+        Stats s = stats.get(testCaseId);
+        if (s == null) {
+            s = new Stats();
+            s.durationMillis = durationMillis;
+            s.failureRate = failed ? 1.0 : 0.0;
+            stats.put(testCaseId, s);
+        } else {
+            s.durationMillis += alpha * (durationMillis - s.durationMillis);
+            s.failureRate += alpha * ((failed ? 1.0 : 0.0) - s.failureRate);
+        }
+        s.runs++;
+        s.lastFailed = failed;
+        s.lastRunMillis = System.currentTimeMillis();
+        recorded.add(testCaseId);
+    }
+
+    public synchronized void save() {
+        HistoryFile content = new HistoryFile();
+        content.version = FORMAT_VERSION;
+        content.testCases = new TreeMap<>(read());
+        for (Integer id : recorded) {
+            content.testCases.put(id, stats.get(id));
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path dir = file.toAbsolutePath().getParent();
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    mapper.writeValue(out, content);
+                }
+                try {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save test duration history " + file, e);
+        }
+    }
+
+    private Map<Integer, Stats> read() {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        try {
+            HistoryFile content = mapper.readValue(file.toFile(), HistoryFile.class);
+            if (content.version == FORMAT_VERSION && content.testCases != null) {
+                return content.testCases;
+            }
+        } catch (IOException e) {
+            // Only scheduling quality depends on it: start over rather than fail the run
+        }
+        return Map.of();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return stats.size() + " test cases in " + file;
+    }
+}
@@ -0,0 +1,61 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whole test case execution: one IterationReport per data row that was run.
+ */
+public class ExecutionReport {
+    public int testCaseId;
+    public String title;
+
+    public long startTimeMillis;
+    public long endTimeMillis;
+
+    public List<IterationReport> iterations = new ArrayList<>();
+
+    // Failure of the test case as a whole, e.g. a step keyword that does not compile; null when none
+    public String error;
+
+    public static ExecutionReport start(TestCaseData testCase) {
+        ExecutionReport report = new ExecutionReport();
+        report.testCaseId = testCase.getId();
+        report.title = testCase.getTitle();
+        report.startTimeMillis = System.currentTimeMillis();
+        return report;
+    }
+
+    // Aggregate status from all steps of all iterations (FAILED when the test case itself failed)
+    public StepStatus getOverallStatus() {
+        if (error != null) {
+            return StepStatus.FAILED;
+        }
+        boolean anyPassed = false;
+        for (IterationReport it : iterations) {
+            StepStatus status = it.getStatus();
+            if (status == StepStatus.FAILED) {
+                return StepStatus.FAILED;
+            }
+            if (status == StepStatus.PASSED) {
+                anyPassed = true;
+            }
+        }
+        return anyPassed ? StepStatus.PASSED : StepStatus.NOT_RUN;
+    }
+
+    // First error message (if any), good for testCaseResult.errorMessage
+    public String getFirstErrorMessage() {
+        for (IterationReport it : iterations) {
+            String error = it.getFirstErrorMessage();
+            if (!error.isEmpty()) {
+                return error;
+            }
+        }
+        return this.error != null ? this.error : "";
+    }
+
+    public long getDurationMillis() {
+        return Math.max(0, endTimeMillis - startTimeMillis);
+    }
+}
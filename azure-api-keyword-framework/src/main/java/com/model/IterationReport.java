@@ -0,0 +1,28 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All steps for a given iteration (data row) of a test case.
+ */
+public class IterationReport {
+    public int iterationId;
+
+    public long startTimeMillis;
+    public long endTimeMillis;
+
+    public List<StepReport> steps = new ArrayList<>();
+
+    public StepStatus getStatus() {
+        return StepReports.aggregate(steps);
+    }
+
+    public String getFirstErrorMessage() {
+        return StepReports.firstError(steps);
+    }
+
+    public long getDurationMillis() {
+        return Math.max(0, endTimeMillis - startTimeMillis);
+    }
+}
@@ -0,0 +1,58 @@
+package com.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column names of a test case's data table, shared by all of its rows.
+ * Append-only; readers see an immutable snapshot, so lookups take no lock.
+ */
+public final class RowSchema {
+
+    private volatile String[] columns = new String[0];
+    private volatile Map<String, Integer> index = new HashMap<>();
+
+    public int size() {
+        return columns.length;
+    }
+
+    public String column(int i) {
+        return columns[i];
+    }
+
+    public String[] columns() {
+        return columns.clone();
+    }
+
+    /**
+     * Position of the column, or -1.
+     */
+    public int indexOf(Object column) {
+        Integer i = index.get(column);
+        return i != null ? i : -1;
+    }
+
+    /**
+     * Position of the column, adding it at the end when new.
+     */
+    public int indexOrAdd(String column) {
+        int i = indexOf(column);
+        return i >= 0 ? i : add(column);
+    }
+
+    private synchronized int add(String column) {
+        Integer existing = index.get(column);
+        if (existing != null) {
+            return existing;
+        }
+        int i = columns.length;
+        Map<String, Integer> newIndex = new HashMap<>(index);
+        newIndex.put(column, i);
+        String[] newColumns = Arrays.copyOf(columns, i + 1);
+        newColumns[i] = column.intern();
+        index = newIndex;
+        columns = newColumns;
+        return i;
+    }
+}
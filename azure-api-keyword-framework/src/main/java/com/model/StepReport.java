@@ -0,0 +1,22 @@
+package com.model;
+
+/**
+ * One executed step in ONE iteration.
+ */
+public class StepReport {
+    public int stepIndex;          // step id, e.g. 2, 3 (matches actionId)
+    public String stepPath;        // e.g. "00000002" (matches actionPath)
+    public String indexString;     // e.g. "1", "2" (what the UI shows)
+    public int iterationId;        // 1, 2, 3... (data row number)
+
+    public StepStatus status = StepStatus.NOT_RUN;
+    public String errorMessage = "";
+    public String comment = "";
+
+    public long startTimeMillis;   // System.currentTimeMillis()
+    public long endTimeMillis;     // System.currentTimeMillis()
+
+    public long getDurationMillis() {
+        return Math.max(0, endTimeMillis - startTimeMillis);
+    }
+}
@@ -0,0 +1,34 @@
+package com.model;
+
+import java.util.List;
+
+/**
+ * Status roll-up shared by IterationReport and ExecutionReport.
+ */
+final class StepReports {
+
+    private StepReports() {
+    }
+
+    static StepStatus aggregate(List<StepReport> steps) {
+        boolean anyPassed = false;
+        for (StepReport s : steps) {
+            if (s.status == StepStatus.FAILED) {
+                return StepStatus.FAILED;
+            }
+            if (s.status == StepStatus.PASSED) {
+                anyPassed = true;
+            }
+        }
+        return anyPassed ? StepStatus.PASSED : StepStatus.NOT_RUN;
+    }
+
+    static String firstError(List<StepReport> steps) {
+        for (StepReport s : steps) {
+            if (s.status == StepStatus.FAILED && s.errorMessage != null && !s.errorMessage.isEmpty()) {
+                return s.errorMessage;
+            }
+        }
+        return "";
+    }
+}
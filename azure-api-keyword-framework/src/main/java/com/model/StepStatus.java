@@ -0,0 +1,10 @@
+package com.model;
+
+/**
+ * Outcome of a step, an iteration (data row) or a whole test case.
+ */
+public enum StepStatus {
+    NOT_RUN,
+    PASSED,
+    FAILED
+}
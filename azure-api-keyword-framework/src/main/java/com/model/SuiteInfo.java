@@ -0,0 +1,77 @@
+package com.model;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Plan / suite / project identity shared by every test case of a suite.
+ * Instances are interned: all test cases of one suite reference the same object.
+ */
+public final class SuiteInfo {
+
+    private static final ConcurrentMap<SuiteInfo, SuiteInfo> POOL = new ConcurrentHashMap<>();
+
+    static final SuiteInfo NONE = of(0, null, 0, null, null);
+
+    private final int planId;
+    private final String planName;
+    private final int suiteId;
+    private final String suiteName;
+    private final String projectName;
+
+    private SuiteInfo(int planId, String planName, int suiteId, String suiteName, String projectName) {
+        this.planId = planId;
+        this.planName = planName;
+        this.suiteId = suiteId;
+        this.suiteName = suiteName;
+        this.projectName = projectName;
+    }
+
+    public static SuiteInfo of(int planId, String planName, int suiteId, String suiteName, String projectName) {
+        SuiteInfo info = new SuiteInfo(planId, planName, suiteId, suiteName, projectName);
+        SuiteInfo shared = POOL.putIfAbsent(info, info);
+        return shared != null ? shared : info;
+    }
+
+    public int getPlanId() {
+        return planId;
+    }
+
+    public String getPlanName() {
+        return planName;
+    }
+
+    public int getSuiteId() {
+        return suiteId;
+    }
+
+    public String getSuiteName() {
+        return suiteName;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SuiteInfo)) {
+            return false;
+        }
+        SuiteInfo other = (SuiteInfo) o;
+        return planId == other.planId
+                && suiteId == other.suiteId
+                && Objects.equals(planName, other.planName)
+                && Objects.equals(suiteName, other.suiteName)
+                && Objects.equals(projectName, other.projectName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(planId, planName, suiteId, suiteName, projectName);
+    }
+}
@@ -1,33 +1,46 @@
 package com.model;
 
+import com.parser.WorkItemXmlParser;
+import org.apache.commons.text.StringEscapeUtils;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * One Azure test case. Steps and data rows are kept as the raw work item XML and
+ * parsed on first getSteps()/getDataRows() call (once, thread-safe), so listing or
+ * filtering a large suite does not pay for parsing cases that never run.
+ *
+ * Kept compact for large suites: plan/suite/project names live in one interned SuiteInfo,
+ * state and configuration names are interned, data rows are String[] over a shared column
+ * schema (see DataTable), and the raw XML is released once parsed.
+ */
 public class TestCaseData {
 
     // Basic identity
     private int id;
     private String title;
 
-    // Suite / plan / project metadata
+    // Suite / plan / project metadata (shared instance)
     private int order;              // order inside the suite
-    private int planId;
-    private String planName;
-    private int suiteId;
-    private String suiteName;
-    private String projectName;
+    private SuiteInfo suite = SuiteInfo.NONE;
 
     // Work item metadata
     private String state;           // System.State
     private Integer priority;       // Microsoft.VSTS.Common.Priority
+    private int revision;           // System.Rev
 
     // Configurations from pointAssignments (e.g. "Windows 10, Chrome")
-    private final List<String> configurations = new ArrayList<>();
+    private final List<String> configurations = new ArrayList<>(1);
+
+    // Raw Microsoft.VSTS.TCM.Steps / LocalDataSource XML (null when absent or already parsed)
+    private String stepsXml;
+    private String dataSourceXml;
 
-    // Steps & data rows (keyword / data-driven)
-    private final List<TestStep> steps = new ArrayList<>();
-    private final List<Map<String, String>> dataRows = new ArrayList<>();
+    // Steps & data rows (keyword / data-driven), parsed from the XML on first access
+    private volatile List<TestStep> steps;
+    private volatile DataTable dataRows;
 
     // --- Constructors ---
 
@@ -51,12 +64,8 @@ public class TestCaseData {
         this.id = id;
         this.title = title;
         this.order = order;
-        this.planId = planId;
-        this.planName = planName;
-        this.suiteId = suiteId;
-        this.suiteName = suiteName;
-        this.projectName = projectName;
-        this.state = state;
+        this.suite = SuiteInfo.of(planId, planName, suiteId, suiteName, projectName);
+        this.state = state != null ? state.intern() : null;
         this.priority = priority;
     }
 
@@ -75,23 +84,27 @@ public class TestCaseData {
     }
 
     public int getPlanId() {
-        return planId;
+        return suite.getPlanId();
     }
 
     public String getPlanName() {
-        return planName;
+        return suite.getPlanName();
     }
 
     public int getSuiteId() {
-        return suiteId;
+        return suite.getSuiteId();
     }
 
     public String getSuiteName() {
-        return suiteName;
+        return suite.getSuiteName();
     }
 
     public String getProjectName() {
-        return projectName;
+        return suite.getProjectName();
+    }
+
+    public SuiteInfo getSuite() {
+        return suite;
     }
 
     public String getState() {
@@ -102,31 +115,149 @@ public class TestCaseData {
         return priority;
     }
 
+    public int getRevision() {
+        return revision;
+    }
+
     public List<String> getConfigurations() {
         return configurations;
     }
 
     public List<TestStep> getSteps() {
-        return steps;
+        List<TestStep> parsed = steps;
+        if (parsed == null) {
+            synchronized (this) {
+                parsed = steps;
+                if (parsed == null) {
+                    parsed = parseSteps(stepsXml);
+                    steps = parsed;
+                    stepsXml = null;
+                }
+            }
+        }
+        return parsed;
     }
 
     public List<Map<String, String>> getDataRows() {
-        return dataRows;
+        return getDataTable();
+    }
+
+    /**
+     * The data rows in compact form (shared column schema, indexed access).
+     */
+    public DataTable getDataTable() {
+        DataTable parsed = dataRows;
+        if (parsed == null) {
+            synchronized (this) {
+                parsed = dataRows;
+                if (parsed == null) {
+                    parsed = parseDataSource(dataSourceXml);
+                    dataRows = parsed;
+                    dataSourceXml = null;
+                }
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Raw Steps XML; null once the steps have been parsed (the XML is released then).
+     */
+    public synchronized String getStepsXml() {
+        return stepsXml;
+    }
+
+    /**
+     * Raw LocalDataSource XML; null once the data rows have been parsed.
+     */
+    public synchronized String getDataSourceXml() {
+        return dataSourceXml;
+    }
+
+    /**
+     * True once steps and data rows have been parsed (or set directly).
+     */
+    public boolean isContentLoaded() {
+        return steps != null && dataRows != null;
     }
 
     // --- Mutators / helpers ---
 
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
     public void addConfiguration(String configurationName) {
         if (configurationName != null && !configurationName.isBlank()) {
-            configurations.add(configurationName);
+            configurations.add(configurationName.intern());
+        }
+    }
+
+    /**
+     * Sets the raw work item XML; parsing is deferred until the steps/rows are first read.
+     */
+    public synchronized void setWorkItemXml(String stepsXml, String dataSourceXml) {
+        this.stepsXml = stepsXml;
+        this.dataSourceXml = dataSourceXml;
+        this.steps = null;
+        this.dataRows = null;
+    }
+
+    /**
+     * Steps and data rows parsed earlier (SuiteCache); a null argument leaves that part to be
+     * parsed from the raw XML as usual.
+     */
+    public synchronized void setParsedContent(List<TestStep> steps, DataTable dataRows) {
+        if (steps != null) {
+            this.steps = new ArrayList<>(steps);
+            this.stepsXml = null;
         }
+        if (dataRows != null) {
+            this.dataRows = dataRows;
+            this.dataSourceXml = null;
+        }
+    }
+
+    public synchronized void addStep(TestStep step) {
+        getSteps().add(step);
+    }
+
+    public synchronized void addDataRow(Map<String, String> row) {
+        getDataRows().add(row);
     }
 
-    public void addStep(TestStep step) {
-        steps.add(step);
+    // --- Lazy parsing ---
+
+    private List<TestStep> parseSteps(String xml) {
+        List<TestStep> parsed = new ArrayList<>();
+        if (xml == null || xml.isEmpty()) {
+            return parsed;
+        }
+        try {
+            WorkItemXmlParser.parseSteps(xml, (stepId, type, action, expected) ->
+                    // Unescape HTML entities (&lt;DIV&gt; -> <DIV>, etc.)
+                    parsed.add(new TestStep(
+                            Integer.parseInt(stepId),
+                            type,
+                            StringEscapeUtils.unescapeHtml4(action).trim(),
+                            StringEscapeUtils.unescapeHtml4(expected).trim()
+                    )));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to parse steps of test case " + id, e);
+        }
+        return parsed;
     }
 
-    public void addDataRow(Map<String, String> row) {
-        dataRows.add(row);
+    private DataTable parseDataSource(String xml) {
+        DataTable parsed = new DataTable();
+        if (xml == null || xml.isEmpty()) {
+            return parsed;
+        }
+        try {
+            WorkItemXmlParser.parseDataSource(xml, parsed::add);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to parse data source of test case " + id, e);
+        }
+        return parsed;
     }
 }
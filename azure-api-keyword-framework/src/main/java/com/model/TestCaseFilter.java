@@ -0,0 +1,78 @@
+package com.model;
+
+import com.config.FrameworkConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Selects the test cases of a run by priority, state and/or configuration.
+ * Only metadata is inspected, so filtering never triggers step or data source parsing.
+ */
+public class TestCaseFilter {
+
+    private final Set<Integer> priorities;
+    private final Set<String> states;
+    private final Set<String> configurations;
+
+    public TestCaseFilter(List<Integer> priorities, List<String> states, List<String> configurations) {
+        this.priorities = Set.copyOf(priorities);
+        this.states = caseInsensitive(states);
+        this.configurations = caseInsensitive(configurations);
+    }
+
+    public static TestCaseFilter fromConfig(FrameworkConfig config) {
+        return new TestCaseFilter(
+                config.getFilterPriorities(),
+                config.getFilterStates(),
+                config.getFilterConfigurations());
+    }
+
+    public boolean isEmpty() {
+        return priorities.isEmpty() && states.isEmpty() && configurations.isEmpty();
+    }
+
+    public boolean matches(TestCaseData testCase) {
+        if (!priorities.isEmpty()
+                && (testCase.getPriority() == null || !priorities.contains(testCase.getPriority()))) {
+            return false;
+        }
+        if (!states.isEmpty() && (testCase.getState() == null || !states.contains(testCase.getState()))) {
+            return false;
+        }
+        if (!configurations.isEmpty()) {
+            return testCase.getConfigurations().stream().anyMatch(configurations::contains);
+        }
+        return true;
+    }
+
+    /**
+     * Matching test cases in their original order.
+     */
+    public List<TestCaseData> apply(List<TestCaseData> testCases) {
+        if (isEmpty()) {
+            return testCases;
+        }
+        List<TestCaseData> selected = new ArrayList<>();
+        for (TestCaseData testCase : testCases) {
+            if (matches(testCase)) {
+                selected.add(testCase);
+            }
+        }
+        return selected;
+    }
+
+    private static Set<String> caseInsensitive(List<String> values) {
+        if (values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+}
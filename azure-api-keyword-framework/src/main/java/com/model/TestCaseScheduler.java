@@ -0,0 +1,164 @@
+package com.model;
+
+import com.config.FrameworkConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Orders the test cases of a run from their DurationHistory (execution.order):
+ *  - suite:       suite order, as loaded
+ *  - duration:    longest expected duration first (LPT), so that with N parallel test
+ *                 threads the short cases fill the gaps at the end instead of one long
+ *                 case starting last and stretching the tail of the run
+ *  - failedFirst: cases whose last run failed first (longest first among them), then the
+ *                 rest by duration - quick feedback on whether the failures are fixed
+ *
+ * Cases without history are expected to take the median of the known ones. Ties keep
+ * suite order, so with no history at all the order is unchanged. Only ids are looked at,
+ * never steps or data rows, so ordering does not trigger parsing.
+ */
+public class TestCaseScheduler {
+
+    public enum Order {
+        SUITE, DURATION, FAILED_FIRST
+    }
+
+    private final DurationHistory history;
+    private final Order order;
+
+    public TestCaseScheduler(DurationHistory history, Order order) {
+        this.history = history;
+        this.order = order;
+    }
+
+    public static TestCaseScheduler fromConfig(FrameworkConfig config, DurationHistory history) {
+        return new TestCaseScheduler(history, parseOrder(config.getExecutionOrder()));
+    }
+
+    static Order parseOrder(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "suite":
+                return Order.SUITE;
+            case "duration":
+                return Order.DURATION;
+            case "failedfirst":
+            case "failed-first":
+                return Order.FAILED_FIRST;
+            default:
+                throw new IllegalArgumentException("Unknown execution.order '" + value
+                        + "' (expected suite, duration or failedFirst)");
+        }
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Test cases in execution order; the input list is not modified.
+     */
+    public List<TestCaseData> order(List<TestCaseData> testCases) {
+        if (order == Order.SUITE || testCases.size() < 2) {
+            return testCases;
+        }
+        long[] estimates = estimateMillis(testCases);
+        boolean[] failedFirst = new boolean[testCases.size()];
+        if (order == Order.FAILED_FIRST) {
+            for (int i = 0; i < failedFirst.length; i++) {
+                DurationHistory.Stats stats = history.get(testCases.get(i).getId());
+                failedFirst[i] = stats != null && stats.lastFailed;
+            }
+        }
+
+        Integer[] indexes = new Integer[testCases.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        // Stable sort: equal estimates keep suite order
+        Arrays.sort(indexes, Comparator.<Integer, Boolean>comparing(i -> !failedFirst[i])
+                .thenComparing(i -> -estimates[i]));
+
+        List<TestCaseData> ordered = new ArrayList<>(testCases.size());
+        for (Integer i : indexes) {
+            ordered.add(testCases.get(i));
+        }
+        return ordered;
+    }
+
+    /**
+     * Lazy DataProvider feed: one {testCase} row per case, in execution order.
+     */
+    public Iterator<Object[]> dataProvider(List<TestCaseData> testCases) {
+        Iterator<TestCaseData> cases = order(testCases).iterator();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return cases.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                if (!cases.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Object[]{cases.next()};
+            }
+        };
+    }
+
+    /**
+     * Expected duration of each case: its history average, else the median of the known ones (0 if none).
+     */
+    long[] estimateMillis(List<TestCaseData> testCases) {
+        long[] estimates = new long[testCases.size()];
+        List<Long> known = new ArrayList<>();
+        for (int i = 0; i < estimates.length; i++) {
+            DurationHistory.Stats stats = history.get(testCases.get(i).getId());
+            estimates[i] = stats != null ? Math.round(stats.durationMillis) : -1;
+            if (estimates[i] >= 0) {
+                known.add(estimates[i]);
+            }
+        }
+        long fallback = 0;
+        if (!known.isEmpty()) {
+            known.sort(null);
+            fallback = known.get(known.size() / 2);
+        }
+        for (int i = 0; i < estimates.length; i++) {
+            if (estimates[i] < 0) {
+                estimates[i] = fallback;
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * Expected wall time when the cases run in this order on threads workers that each take
+     * the next case as soon as they are free (what a parallel DataProvider does).
+     * Compare with getTotalMillis(...) / threads, the ideal.
+     */
+    public long estimateMakespanMillis(List<TestCaseData> orderedCases, int threads) {
+        long[] estimates = estimateMillis(orderedCases);
+        long[] free = new long[Math.max(1, threads)];
+        for (long estimate : estimates) {
+            int next = 0;
+            for (int w = 1; w < free.length; w++) {
+                if (free[w] < free[next]) {
+                    next = w;
+                }
+            }
+            free[next] += estimate;
+        }
+        return Arrays.stream(free).max().orElse(0);
+    }
+
+    public long getTotalMillis(List<TestCaseData> testCases) {
+        return Arrays.stream(estimateMillis(testCases)).sum();
+    }
+}
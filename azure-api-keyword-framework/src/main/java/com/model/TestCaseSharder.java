@@ -0,0 +1,142 @@
+package com.model;
+
+import com.config.FrameworkConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits the test cases of a run into shard.count balanced parts, one per JVM/agent.
+ *
+ * The partition depends only on the test cases and their weights, never on load order,
+ * so every shard computes the same one and together they run each case exactly once:
+ * cases are taken heaviest first (ties by id) and each goes to the currently lightest
+ * shard (ties by shard index) - greedy LPT, which stays within 4/3 of the best possible
+ * longest shard.
+ *
+ * Weights (shard.weight):
+ *  - rows:     data rows x steps, i.e. step executions (parses steps and data sources)
+ *  - duration: DurationHistory average, median of the known ones for new cases; only
+ *              deterministic when every agent has the same history file
+ */
+public class TestCaseSharder {
+
+    public enum Weight {
+        ROWS, DURATION
+    }
+
+    private final int index;
+    private final int count;
+    private final Weight weight;
+    private final DurationHistory history;
+
+    public TestCaseSharder(int index, int count, Weight weight, DurationHistory history) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("shard.index must be in [0, " + count + "), got " + index);
+        }
+        if (weight == Weight.DURATION && history == null) {
+            throw new IllegalArgumentException("shard.weight=duration needs a DurationHistory");
+        }
+        this.index = index;
+        this.count = count;
+        this.weight = weight;
+        this.history = history;
+    }
+
+    public static TestCaseSharder fromConfig(FrameworkConfig config, DurationHistory history) {
+        return new TestCaseSharder(config.getShardIndex(), config.getShardCount(),
+                parseWeight(config.getShardWeight()), history);
+    }
+
+    static Weight parseWeight(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "rows":
+                return Weight.ROWS;
+            case "duration":
+                return Weight.DURATION;
+            default:
+                throw new IllegalArgumentException("Unknown shard.weight '" + value + "' (expected rows or duration)");
+        }
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    /**
+     * This shard's test cases, in their original order.
+     */
+    public List<TestCaseData> select(List<TestCaseData> testCases) {
+        return isSharded() ? partition(testCases).get(index) : testCases;
+    }
+
+    /**
+     * All count shards, each in original order.
+     */
+    public List<List<TestCaseData>> partition(List<TestCaseData> testCases) {
+        long[] weights = weights(testCases);
+        Integer[] order = new Integer[testCases.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -weights[i])
+                .thenComparingInt(i -> testCases.get(i).getId()));
+
+        long[] load = new long[count];
+        int[] shardOf = new int[testCases.size()];
+        for (int i : order) {
+            int lightest = 0;
+            for (int s = 1; s < count; s++) {
+                if (load[s] < load[lightest]) {
+                    lightest = s;
+                }
+            }
+            shardOf[i] = lightest;
+            load[lightest] += weights[i];
+        }
+
+        List<List<TestCaseData>> shards = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            shards.add(new ArrayList<>());
+        }
+        for (int i = 0; i < shardOf.length; i++) {
+            shards.get(shardOf[i]).add(testCases.get(i));
+        }
+        return shards;
+    }
+
+    long[] weights(List<TestCaseData> testCases) {
+        long[] weights = new long[testCases.size()];
+        if (weight == Weight.ROWS) {
+            for (int i = 0; i < weights.length; i++) {
+                TestCaseData testCase = testCases.get(i);
+                weights[i] = (long) Math.max(1, testCase.getDataTable().size()) * Math.max(1, testCase.getSteps().size());
+            }
+            return weights;
+        }
+        List<Long> known = new ArrayList<>();
+        for (int i = 0; i < weights.length; i++) {
+            DurationHistory.Stats stats = history.get(testCases.get(i).getId());
+            weights[i] = stats != null ? Math.round(stats.durationMillis) : -1;
+            if (weights[i] >= 0) {
+                known.add(weights[i]);
+            }
+        }
+        known.sort(null);
+        long fallback = known.isEmpty() ? 1 : known.get(known.size() / 2);
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                weights[i] = fallback;
+            }
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + (index + 1) + " of " + count + " by " + weight.name().toLowerCase(Locale.ROOT);
+    }
+}
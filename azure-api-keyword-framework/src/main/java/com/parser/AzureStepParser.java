@@ -1,10 +1,5 @@
 package com.parser;
 
-import org.w3c.dom.*;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,23 +62,8 @@ public class AzureStepParser {
     public static List<TestStep> parseSteps(String xml) throws Exception {
         List<TestStep> result = new ArrayList<>();
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(false);
-        factory.setIgnoringComments(true);
-        factory.setCoalescing(true);
-        factory.setIgnoringElementContentWhitespace(true);
-
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
-
-        Element root = doc.getDocumentElement(); // <steps>
-        NodeList stepNodes = root.getElementsByTagName("step");
-
-        for (int i = 0; i < stepNodes.getLength(); i++) {
-            Element stepEl = (Element) stepNodes.item(i);
-
+        WorkItemXmlParser.parseSteps(xml, (idStr, type, action, expected) -> {
             // Step id
-            String idStr = stepEl.getAttribute("id");
             int id = -1;
             try {
                 id = Integer.parseInt(idStr);
@@ -91,67 +71,19 @@ public class AzureStepParser {
                 // ignore, keep -1 if not numeric
             }
 
-            // All parameterizedString nodes under this step
-            NodeList paramNodes = stepEl.getElementsByTagName("parameterizedString");
-
-            String actionText = "";
-            String expectedText = "";
-
-            if (paramNodes.getLength() >= 1) {
-                actionText = plainTextFromParameterizedNode((Element) paramNodes.item(0));
-            }
-            if (paramNodes.getLength() >= 2) {
-                expectedText = plainTextFromParameterizedNode((Element) paramNodes.item(1));
-            }
-
-            result.add(new TestStep(id, actionText, expectedText));
-        }
+            result.add(new TestStep(id, plainTextFromParameterizedText(action), plainTextFromParameterizedText(expected)));
+        });
 
         return result;
     }
 
     /**
-     * Convert one <parameterizedString> node into plain text:
+     * Convert the text of one <parameterizedString> node into plain text:
      *  - unescape XML/HTML entities (&lt;DIV&gt; -> <DIV>)
      *  - drop HTML tags, keep only text
      */
-    private static String plainTextFromParameterizedNode(Element el) {
-        String raw = el.getTextContent();          // still contains &lt;DIV&gt;&lt;P&gt;...
-        String html = unescapeBasicEntities(raw);  // now real <DIV><P>...</P></DIV>
-        return htmlToPlainText(html);
-    }
-
-    /**
-     * Very small HTML entity unescaper for the common entities used in Azure DevOps steps.
-     */
-    private static String unescapeBasicEntities(String s) {
-        if (s == null) return "";
-        return s.replace("&lt;", "<")
-                .replace("&gt;", ">")
-                .replace("&amp;", "&")
-                .replace("&quot;", "\"")
-                .replace("&apos;", "'");
-    }
-
-    /**
-     * Very simple HTML-to-text conversion:
-     *  - convert <br> to newline
-     *  - remove all other tags
-     *  - normalize whitespace
-     */
-    private static String htmlToPlainText(String html) {
-        if (html == null) return "";
-
-        // Convert different forms of <br> to newline
-        String text = html.replaceAll("(?i)<br\\s*/?>", "\n");
-
-        // Remove all remaining tags
-        text = text.replaceAll("<[^>]+>", " ");
-
-        // Convert multiple whitespace to single space/newline friendly
-        text = text.replaceAll("[ \\t\\x0B\\f\\r]+", " ");
-        text = text.replaceAll("\\n\\s+", "\n");
-
-        return text.trim();
+    private static String plainTextFromParameterizedText(String raw) {
+        // raw still contains &lt;DIV&gt;&lt;P&gt;..., handled in the same pass
+        return HtmlTextNormalizer.toPlainText(raw);
     }
 }
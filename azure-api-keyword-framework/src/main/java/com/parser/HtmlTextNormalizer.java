@@ -0,0 +1,216 @@
+package com.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass HTML-to-text normalizer for Azure DevOps step text.
+ *
+ * In one scan over the input it:
+ *  - unescapes the basic entities (&lt; &gt; &amp; &quot; &apos; &nbsp; and numeric references)
+ *  - treats &lt;...&gt; and <...> alike as tags, turning <br> into a newline and any other tag into a space
+ *  - collapses runs of spaces/tabs to one space and drops whitespace after a newline
+ *  - trims the result
+ *
+ * The output buffer is the only allocation besides the returned String; no regex is involved.
+ */
+public final class HtmlTextNormalizer {
+
+    private HtmlTextNormalizer() {
+    }
+
+    /**
+     * Plain text of an HTML (or HTML-escaped) fragment.
+     */
+    public static String toPlainText(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        return normalize(html);
+    }
+
+    /**
+     * Whitespace-delimited tokens of text already returned by toPlainText, e.g. the keyword
+     * and its arguments in "API_GET /cards 200". Splits without a regex.
+     */
+    public static String[] tokens(String plainText) {
+        List<String> tokens = new ArrayList<>();
+        int len = plainText.length();
+        int start = -1;
+        for (int i = 0; i <= len; i++) {
+            boolean space = i == len || plainText.charAt(i) <= ' ';
+            if (space && start >= 0) {
+                tokens.add(plainText.substring(start, i));
+                start = -1;
+            } else if (!space && start < 0) {
+                start = i;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static String normalize(String in) {
+        final int len = in.length();
+        // Entities shrink, a tag becomes one char: output never exceeds the input
+        char[] out = new char[len];
+        int n = 0;
+        boolean afterNewline = false;
+        // Set once we know no tag end follows, so a stray '<' never triggers a rescan
+        boolean noTagEndAhead = false;
+
+        int i = 0;
+        while (i < len) {
+            char c = in.charAt(i);
+            int consumed = 1;
+
+            // Tag start: raw '<' or escaped "&lt;"
+            int openLen = c == '<' ? 1 : (c == '&' && in.startsWith("&lt;", i) ? 4 : 0);
+            if (openLen > 0 && !noTagEndAhead) {
+                int tagEnd = findTagEnd(in, i + openLen);
+                if (tagEnd < 0) {
+                    noTagEndAhead = true;
+                } else if (tagEnd > i + openLen) {
+                    // Whole tag becomes one separator
+                    c = isBreakTag(in, i + openLen) ? '\n' : ' ';
+                    consumed = tagEnd - i + (in.charAt(tagEnd) == '>' ? 1 : 4);
+                    openLen = -1;
+                }
+            }
+
+            if (openLen >= 0 && c == '&') {
+                int semi = entityEnd(in, i);
+                if (semi > 0) {
+                    int decoded = decodeEntity(in, i + 1, semi);
+                    if (decoded >= 0) {
+                        c = (char) decoded;
+                        consumed = semi - i + 1;
+                    }
+                }
+            }
+            i += consumed;
+
+            if (c == '\n') {
+                if (n == 0 || afterNewline) {
+                    continue;
+                }
+                out[n++] = '\n';
+                afterNewline = true;
+            } else if (isCollapsibleSpace(c)) {
+                if (n == 0 || afterNewline || out[n - 1] == ' ') {
+                    continue;
+                }
+                out[n++] = ' ';
+            } else {
+                out[n++] = c;
+                afterNewline = false;
+            }
+        }
+
+        while (n > 0 && out[n - 1] <= ' ') {
+            n--;
+        }
+        return new String(out, 0, n);
+    }
+
+    /**
+     * Index of the tag terminator ('>' or the '&' of "&gt;") at or after from, or -1.
+     */
+    private static int findTagEnd(String in, int from) {
+        for (int j = from; j < in.length(); j++) {
+            char c = in.charAt(j);
+            if (c == '>') {
+                return j;
+            }
+            if (c == '&' && in.startsWith("&gt;", j)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True for br / BR tags (with optional attributes or self-closing slash).
+     */
+    private static boolean isBreakTag(String in, int nameStart) {
+        if (nameStart + 2 > in.length()) {
+            return false;
+        }
+        char b = in.charAt(nameStart);
+        char r = in.charAt(nameStart + 1);
+        if ((b != 'b' && b != 'B') || (r != 'r' && r != 'R')) {
+            return false;
+        }
+        if (nameStart + 2 == in.length()) {
+            return false;
+        }
+        char next = in.charAt(nameStart + 2);
+        return next == '>' || next == '/' || next == '&' || Character.isWhitespace(next);
+    }
+
+    /**
+     * Position of the ';' closing an entity that starts at amp, or -1 (entities are short).
+     */
+    private static int entityEnd(String in, int amp) {
+        int limit = Math.min(in.length(), amp + 10);
+        for (int j = amp + 1; j < limit; j++) {
+            char c = in.charAt(j);
+            if (c == ';') {
+                return j > amp + 1 ? j : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the entity name in [from, semi), returning the char or -1 if unknown.
+     */
+    private static int decodeEntity(String in, int from, int semi) {
+        int length = semi - from;
+        if (in.charAt(from) == '#') {
+            boolean hex = length > 1 && (in.charAt(from + 1) == 'x' || in.charAt(from + 1) == 'X');
+            int start = from + (hex ? 2 : 1);
+            if (start >= semi) {
+                return -1;
+            }
+            int value = 0;
+            for (int j = start; j < semi; j++) {
+                int digit = Character.digit(in.charAt(j), hex ? 16 : 10);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value * (hex ? 16 : 10) + digit;
+                if (value > Character.MAX_VALUE) {
+                    return -1;
+                }
+            }
+            return value == 0xA0 ? ' ' : value;
+        }
+        if (in.regionMatches(from, "amp", 0, 3) && length == 3) {
+            return '&';
+        }
+        if (in.regionMatches(from, "quot", 0, 4) && length == 4) {
+            return '"';
+        }
+        if (in.regionMatches(from, "apos", 0, 4) && length == 4) {
+            return '\'';
+        }
+        if (in.regionMatches(from, "nbsp", 0, 4) && length == 4) {
+            return ' ';
+        }
+        // &lt; / &gt; that did not form a tag stay as literal brackets
+        if (in.regionMatches(from, "lt", 0, 2) && length == 2) {
+            return '<';
+        }
+        if (in.regionMatches(from, "gt", 0, 2) && length == 2) {
+            return '>';
+        }
+        return -1;
+    }
+
+    private static boolean isCollapsibleSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B' || c == '\u00A0';
+    }
+}
@@ -0,0 +1,167 @@
+package com.parser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass StAX parser for the two XML work item fields we consume:
+ * Microsoft.VSTS.TCM.Steps and Microsoft.VSTS.TCM.LocalDataSource.
+ *
+ * Reads straight from the String (no byte[] copy, no DOM) and shares one
+ * factory across threads; the JDK factory only hands out fresh readers.
+ */
+public final class WorkItemXmlParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private WorkItemXmlParser() {
+    }
+
+    /**
+     * Receives the raw (still HTML-escaped) text of each step in document order.
+     */
+    @FunctionalInterface
+    public interface StepHandler {
+        void onStep(String id, String type, String action, String expected) throws Exception;
+    }
+
+    /**
+     * Walks every <step> element (including those nested in shared-step references)
+     * and passes the first two <parameterizedString> texts as action and expected result.
+     */
+    public static void parseSteps(String stepsXml, StepHandler handler) throws Exception {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(stepsXml));
+        try {
+            String stepId = null;
+            String stepType = null;
+            String action = "";
+            String expected = "";
+            int paramIndex = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("step".equals(name)) {
+                        stepId = reader.getAttributeValue(null, "id");
+                        stepType = reader.getAttributeValue(null, "type");
+                        action = "";
+                        expected = "";
+                        paramIndex = 0;
+                    } else if ("parameterizedString".equals(name) && stepId != null) {
+                        String text = readText(reader);
+                        if (paramIndex == 0) {
+                            action = text;
+                        } else if (paramIndex == 1) {
+                            expected = text;
+                        }
+                        paramIndex++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                        && stepId != null
+                        && "step".equals(reader.getLocalName())) {
+                    handler.onStep(stepId, stepType != null ? stepType : "", action, expected);
+                    stepId = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parses LocalDataSource XML into rows (column -> value), one per <Table1> element.
+     * Empty rows are skipped.
+     */
+    public static List<Map<String, String>> parseDataSource(String dataSourceXml) throws XMLStreamException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        parseDataSource(dataSourceXml, rows::add);
+        return rows;
+    }
+
+    public static void parseDataSource(String dataSourceXml, Consumer<Map<String, String>> rowSink)
+            throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(dataSourceXml));
+        try {
+            Map<String, String> row = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Table1".equals(name)) {
+                        row = new LinkedHashMap<>();
+                    } else if (row != null) {
+                        row.put(name, readText(reader));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                        && row != null
+                        && "Table1".equals(reader.getLocalName())) {
+                    if (!row.isEmpty()) {
+                        rowSink.accept(row);
+                    }
+                    row = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Text content of the current element (like DOM getTextContent), leaving the
+     * reader on its END_ELEMENT. Avoids a StringBuilder for the common single-chunk case.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        String first = null;
+        StringBuilder sb = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (first == null) {
+                        first = reader.getText();
+                    } else {
+                        if (sb == null) {
+                            sb = new StringBuilder(first);
+                        }
+                        sb.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (sb != null) {
+            return sb.toString();
+        }
+        return first != null ? first : "";
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        // Work item XML never needs a DTD; keep external entities out
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
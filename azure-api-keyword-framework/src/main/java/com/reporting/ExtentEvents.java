@@ -0,0 +1,71 @@
+package com.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Applies a recorded report event to the Extent model after the fact.
+ *
+ * Extent stamps everything with "now" and moves the end time of a node and all of its
+ * ancestors on every log; these helpers put back the time the event was recorded, so
+ * a report built from queued (ReportSink) or journaled (ResultJournal) events looks
+ * the same as one built with direct ExtentTest calls.
+ */
+final class ExtentEvents {
+
+    private ExtentEvents() {
+    }
+
+    static ExtentTest createTest(ExtentReports extent, String name, long timeMillis) {
+        ExtentTest test = extent.createTest(name);
+        test.getModel().setStartTime(new Date(timeMillis));
+        test.getModel().setEndTime(new Date(timeMillis));
+        return test;
+    }
+
+    static ExtentTest createNode(ExtentTest parent, String name, long timeMillis) {
+        List<Date> endTimes = endTimesOf(parent.getModel());
+        ExtentTest child = parent.createNode(name);
+        child.getModel().setStartTime(new Date(timeMillis));
+        child.getModel().setEndTime(new Date(timeMillis));
+        restoreEndTimes(parent.getModel(), endTimes, timeMillis);
+        return child;
+    }
+
+    static void log(ExtentTest test, Status status, String details, long timeMillis) {
+        List<Date> endTimes = endTimesOf(test.getModel());
+        test.log(status, details);
+        List<Log> logs = test.getModel().getLogs();
+        if (!logs.isEmpty()) {
+            logs.get(logs.size() - 1).setTimestamp(new Date(timeMillis));
+        }
+        restoreEndTimes(test.getModel(), endTimes, timeMillis);
+    }
+
+    /**
+     * End times of test and its ancestors, before Extent moves them.
+     */
+    private static List<Date> endTimesOf(Test test) {
+        List<Date> times = new ArrayList<>(4);
+        for (Test t = test; t != null; t = t.getParent()) {
+            times.add(t.getEndTime());
+        }
+        return times;
+    }
+
+    private static void restoreEndTimes(Test test, List<Date> before, long eventTimeMillis) {
+        int i = 0;
+        for (Test t = test; t != null && i < before.size(); t = t.getParent(), i++) {
+            Date previous = before.get(i);
+            long end = previous != null ? Math.max(previous.getTime(), eventTimeMillis) : eventTimeMillis;
+            t.setEndTime(new Date(end));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.config.FrameworkConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Turns a ResultJournal into the Spark HTML report and the summary page.
+ *
+ * Both are sequential passes over the file. The summary keeps one record per test case;
+ * the Spark reporter can only write a report from a complete Extent model, so the replay
+ * builds it - after the run, and by default in a separate JVM (report.journal.render=fork)
+ * so the suite's heap never holds it. inline replays in this JVM, none only writes the summary.
+ *
+ * Re-render a journal, e.g. after a crashed run:
+ *   java -cp ... com.reporting.JournalRenderer [journal [report.html [summary.html]]]
+ * Missing arguments default to report.journal.path, report.path and report.summary.path.
+ */
+public final class JournalRenderer {
+
+    private JournalRenderer() {
+    }
+
+    /**
+     * Replays every journaled test, node and log into extent with its recorded time.
+     * Tests of the same name (a test case continued by a resumed run) become one test.
+     *
+     * @return number of entries applied
+     */
+    public static long replay(Path journal, ExtentReports extent) {
+        Map<Integer, ExtentTest> nodes = new HashMap<>();
+        Map<String, ExtentTest> tests = new HashMap<>();
+        return ResultJournal.read(journal, entry -> {
+            switch (entry.event) {
+                case ResultJournal.TEST: {
+                    ExtentTest test = tests.get(entry.name);
+                    if (test == null) {
+                        test = ExtentEvents.createTest(extent, entry.name, entry.time);
+                        tests.put(entry.name, test);
+                    }
+                    nodes.put(entry.id, test);
+                    break;
+                }
+                case ResultJournal.NODE:
+                    nodes.put(entry.id, ExtentEvents.createNode(nodeOf(nodes, entry.parent, journal), entry.name, entry.time));
+                    break;
+                case ResultJournal.LOG:
+                    ExtentEvents.log(nodeOf(nodes, entry.id, journal), entry.status(), entry.text, entry.time);
+                    break;
+                case ResultJournal.INFO:
+                    extent.setSystemInfo(entry.name, entry.text);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event '" + entry.event + "' in result journal " + journal);
+            }
+        });
+    }
+
+    /**
+     * Suite end: writes the HTML report (as configured by report.journal.render) and the summary
+     * page of the journal at report.journal.path.
+     */
+    public static ReportSummary render(FrameworkConfig config) {
+        Path journal = Paths.get(config.getReportJournalPath());
+        String reportPath = config.getReportPath();
+        Path summaryPath = Paths.get(config.getReportSummaryPath());
+        String mode = config.getReportJournalRender();
+        switch (mode) {
+            case "fork":
+                fork(config, journal, reportPath, summaryPath);
+                return ReportSummary.of(journal);
+            case "inline":
+                return renderFiles(journal, reportPath, summaryPath);
+            case "none": {
+                ReportSummary summary = ReportSummary.of(journal);
+                summary.writeHtml(summaryPath);
+                return summary;
+            }
+            default:
+                throw new IllegalArgumentException("report.journal.render must be fork, inline or none, not '" + mode + "'");
+        }
+    }
+
+    /**
+     * Replays journal into a new Extent report at reportPath and writes the summary page.
+     */
+    public static ReportSummary renderFiles(Path journal, String reportPath, Path summaryPath) {
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(new ExtentSparkReporter(reportPath));
+        replay(journal, extent);
+        ReportSummary summary = ReportSummary.of(journal);
+        extent.setSystemInfo("Summary", summary.toString());
+        extent.flush();
+        summary.writeHtml(summaryPath);
+        return summary;
+    }
+
+    /**
+     * Runs main in a child JVM with this JVM's classpath and report.journal.renderJvmArgs.
+     */
+    private static void fork(FrameworkConfig config, Path journal, String reportPath, Path summaryPath) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(config.getReportJournalRenderJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(JournalRenderer.class.getName());
+        command.add(journal.toString());
+        command.add(reportPath);
+        command.add(summaryPath.toString());
+        int exit;
+        try {
+            exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the report renderer", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering " + journal, e);
+        }
+        if (exit != 0) {
+            throw new IllegalStateException("Report renderer for " + journal + " exited with " + exit
+                    + "; re-render with java -cp ... " + JournalRenderer.class.getName() + " " + journal);
+        }
+    }
+
+    private static ExtentTest nodeOf(Map<Integer, ExtentTest> nodes, int id, Path journal) {
+        ExtentTest node = nodes.get(id);
+        if (node == null) {
+            throw new IllegalStateException("Result journal " + journal + " refers to node " + id + " before creating it");
+        }
+        return node;
+    }
+
+    public static void main(String[] args) {
+        // Only read config.properties for the paths not given (the forked renderer gets all three)
+        FrameworkConfig config = args.length < 3 ? new FrameworkConfig() : new FrameworkConfig(new Properties());
+        Path journal = Paths.get(args.length > 0 ? args[0] : config.getReportJournalPath());
+        String reportPath = args.length > 1 ? args[1] : config.getReportPath();
+        Path summaryPath = Paths.get(args.length > 2 ? args[2] : config.getReportSummaryPath());
+        if (!Files.isRegularFile(journal)) {
+            throw new IllegalArgumentException("No result journal at " + journal);
+        }
+
+        ReportSummary summary = renderFiles(journal, reportPath, summaryPath);
+        System.out.println("Rendered " + journal + " to " + reportPath + " and " + summaryPath);
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,280 @@
+package com.reporting;
+
+import com.config.FrameworkConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide latency and error statistics: one histogram per keyword (step durations),
+ * one per test case (data row durations), and the N slowest individual steps.
+ *
+ * ExecutionPlan resolves its Series once at compile time, so recording a step is a
+ * histogram update plus one volatile read for the slow-step threshold.
+ * At suite end exportTo() writes metrics.json, metrics.prom (Prometheus text format)
+ * and slowest-steps.txt.
+ */
+public class KeywordMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final ConcurrentMap<String, Series> keywords = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Series> testCases = new ConcurrentHashMap<>();
+
+    private final int topN;
+    private final PriorityQueue<SlowStep> slowest = new PriorityQueue<>(Comparator.comparingLong(s -> s.nanos));
+    // Smallest duration still in the top-N once it is full; cheaper check than taking the lock
+    private volatile long slowThresholdNanos;
+
+    public KeywordMetrics(int topN) {
+        this.topN = Math.max(0, topN);
+    }
+
+    public KeywordMetrics(FrameworkConfig config) {
+        this(config.getMetricsTopSlowSteps());
+    }
+
+    /**
+     * Latency histogram plus error counter for one keyword or test case.
+     */
+    public static final class Series {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        Series(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public void record(long nanos, boolean failed) {
+            latency.recordNanos(nanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+
+    public Series keyword(String keyword) {
+        return keywords.computeIfAbsent(keyword.toUpperCase(Locale.ROOT), Series::new);
+    }
+
+    public Series testCase(int testCaseId, String title) {
+        return testCases.computeIfAbsent(String.valueOf(testCaseId), id -> new Series(title));
+    }
+
+    /**
+     * Records one executed step against its keyword series and the slow-step table.
+     */
+    public void recordStep(Series keywordSeries, int testCaseId, int stepId, int iteration,
+                           long nanos, boolean failed) {
+        keywordSeries.record(nanos, failed);
+        if (topN > 0 && nanos > slowThresholdNanos) {
+            offerSlowStep(new SlowStep(keywordSeries.name, testCaseId, stepId, iteration, nanos, failed));
+        }
+    }
+
+    private synchronized void offerSlowStep(SlowStep step) {
+        if (slowest.size() < topN) {
+            slowest.add(step);
+        } else if (step.nanos > slowest.peek().nanos) {
+            slowest.poll();
+            slowest.add(step);
+        }
+        if (slowest.size() == topN) {
+            slowThresholdNanos = slowest.peek().nanos;
+        }
+    }
+
+    /**
+     * Slowest steps, slowest first.
+     */
+    public synchronized List<SlowStep> getSlowestSteps() {
+        List<SlowStep> list = new ArrayList<>(slowest);
+        list.sort(Comparator.comparingLong((SlowStep s) -> s.nanos).reversed());
+        return list;
+    }
+
+    public static final class SlowStep {
+        private final String keyword;
+        private final int testCaseId;
+        private final int stepId;
+        private final int iteration;
+        private final long nanos;
+        private final boolean failed;
+
+        SlowStep(String keyword, int testCaseId, int stepId, int iteration, long nanos, boolean failed) {
+            this.keyword = keyword;
+            this.testCaseId = testCaseId;
+            this.stepId = stepId;
+            this.iteration = iteration;
+            this.nanos = nanos;
+            this.failed = failed;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public int getTestCaseId() {
+            return testCaseId;
+        }
+
+        public int getStepId() {
+            return stepId;
+        }
+
+        public int getIteration() {
+            return iteration;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    // ---- Export ----
+
+    /**
+     * Writes metrics.json, metrics.prom and slowest-steps.txt into dir (created if needed).
+     */
+    public void exportTo(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        writeJson(dir.resolve("metrics.json"));
+        writePrometheus(dir.resolve("metrics.prom"));
+        writeSlowStepTable(dir.resolve("slowest-steps.txt"));
+    }
+
+    public void exportTo(FrameworkConfig config) throws IOException {
+        exportTo(Paths.get(config.getMetricsDir()));
+    }
+
+    public void writeJson(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode root = mapper.createObjectNode();
+        toJson(root.putObject("keywords"), keywords);
+        toJson(root.putObject("testCases"), testCases);
+        ArrayNode slow = root.putArray("slowestSteps");
+        for (SlowStep s : getSlowestSteps()) {
+            ObjectNode node = slow.addObject();
+            node.put("keyword", s.keyword);
+            node.put("testCaseId", s.testCaseId);
+            node.put("stepId", s.stepId);
+            node.put("iteration", s.iteration);
+            node.put("millis", s.getMillis());
+            node.put("failed", s.failed);
+        }
+        mapper.writeValue(file.toFile(), root);
+    }
+
+    private static void toJson(ObjectNode parent, Map<String, Series> series) {
+        for (Map.Entry<String, Series> e : new TreeMap<>(series).entrySet()) {
+            LatencyHistogram h = e.getValue().latency;
+            ObjectNode node = parent.putObject(e.getKey());
+            if (!e.getKey().equals(e.getValue().name)) {
+                node.put("name", e.getValue().name);
+            }
+            node.put("count", h.getCount());
+            node.put("errors", e.getValue().getErrors());
+            node.put("meanMs", h.getMeanMicros() / 1000.0);
+            node.put("p50Ms", h.percentileMicros(0.5) / 1000.0);
+            node.put("p95Ms", h.percentileMicros(0.95) / 1000.0);
+            node.put("p99Ms", h.percentileMicros(0.99) / 1000.0);
+            node.put("maxMs", h.getMaxMicros() / 1000.0);
+        }
+    }
+
+    public void writePrometheus(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeSummary(out, "keyword_step_duration_seconds", "Step duration per keyword",
+                    "keyword", keywords);
+            writeSummary(out, "test_case_row_duration_seconds", "Data row duration per test case",
+                    "test_case", testCases);
+        }
+    }
+
+    private static void writeSummary(Writer out, String metric, String help, String label,
+                                     Map<String, Series> series) throws IOException {
+        Map<String, Series> sorted = new TreeMap<>(series);
+        out.write("# HELP " + metric + " " + help + "\n");
+        out.write("# TYPE " + metric + " summary\n");
+        for (Map.Entry<String, Series> e : sorted.entrySet()) {
+            LatencyHistogram h = e.getValue().latency;
+            String key = label + "=\"" + escapeLabel(e.getKey()) + "\"";
+            for (double q : QUANTILES) {
+                out.write(metric + "{" + key + ",quantile=\"" + q + "\"} "
+                        + seconds(h.percentileMicros(q)) + "\n");
+            }
+            out.write(metric + "_sum{" + key + "} " + seconds(h.getSumMicros()) + "\n");
+            out.write(metric + "_count{" + key + "} " + h.getCount() + "\n");
+        }
+        String maxMetric = metric.replace("_seconds", "_max_seconds");
+        out.write("# HELP " + maxMetric + " Slowest observation\n");
+        out.write("# TYPE " + maxMetric + " gauge\n");
+        for (Map.Entry<String, Series> e : sorted.entrySet()) {
+            out.write(maxMetric + "{" + label + "=\"" + escapeLabel(e.getKey()) + "\"} "
+                    + seconds(e.getValue().latency.getMaxMicros()) + "\n");
+        }
+        String errorMetric = metric.replace("_duration_seconds", "_errors_total");
+        out.write("# HELP " + errorMetric + " Failed executions\n");
+        out.write("# TYPE " + errorMetric + " counter\n");
+        for (Map.Entry<String, Series> e : sorted.entrySet()) {
+            out.write(errorMetric + "{" + label + "=\"" + escapeLabel(e.getKey()) + "\"} "
+                    + e.getValue().getErrors() + "\n");
+        }
+    }
+
+    public void writeSlowStepTable(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(String.format("%-4s %12s %-24s %10s %8s %9s %6s%n",
+                    "#", "duration ms", "keyword", "test case", "step", "iteration", "failed"));
+            int rank = 1;
+            for (SlowStep s : getSlowestSteps()) {
+                out.write(String.format("%-4d %12.1f %-24s %10d %8d %9d %6s%n",
+                        rank++, s.getMillis(), s.keyword, s.testCaseId, s.stepId, s.iteration,
+                        s.failed ? "yes" : ""));
+            }
+        }
+    }
+
+    private static String seconds(long micros) {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,167 @@
+package com.reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Test;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handle to one report test or node, with the ExtentTest calls the framework uses.
+ *
+ * Nodes from a ReportSink only record events, so calls return immediately and never
+ * block on Extent; the ExtentTest behind them is created later by the sink's consumer.
+ * ReportNode.of(ExtentTest) wraps an existing test and applies every call directly.
+ * When the sink writes a ResultJournal there is no Extent node during the run; getExtentTest()
+ * then hands out a detached ExtentTest whose logs and child nodes are journaled afterwards.
+ */
+public final class ReportNode {
+
+    private final ReportSink sink;
+    // Journal ids; 0 for direct nodes
+    final int id;
+    final int rootId;
+    private volatile ExtentTest test;
+    // Journal mode: detached ExtentTest from getExtentTest() and the nodes its children became
+    private ExtentTest capture;
+    private Map<Test, ReportNode> capturedChildren;
+
+    ReportNode(ReportSink sink, int id, int rootId, ExtentTest test) {
+        this.sink = sink;
+        this.id = id;
+        this.rootId = rootId;
+        this.test = test;
+    }
+
+    /**
+     * Direct (synchronous) node over an existing ExtentTest.
+     */
+    public static ReportNode of(ExtentTest test) {
+        return new ReportNode(null, 0, 0, test);
+    }
+
+    public ReportNode createNode(String name) {
+        if (sink == null) {
+            return of(test.createNode(name));
+        }
+        drainCapture();
+        return sink.createNode(this, name);
+    }
+
+    public ReportNode log(Status status, String details) {
+        if (sink == null) {
+            test.log(status, details);
+        } else {
+            drainCapture();
+            sink.log(this, status, details);
+        }
+        return this;
+    }
+
+    public ReportNode info(String details) {
+        return log(Status.INFO, details);
+    }
+
+    public ReportNode pass(String details) {
+        return log(Status.PASS, details);
+    }
+
+    public ReportNode fail(String details) {
+        return log(Status.FAIL, details);
+    }
+
+    public ReportNode warning(String details) {
+        return log(Status.WARNING, details);
+    }
+
+    public ReportNode skip(String details) {
+        return log(Status.SKIP, details);
+    }
+
+    /**
+     * The Extent node itself, for code that needs the full ExtentTest API. With an
+     * asynchronous sink this first waits until everything recorded so far is applied,
+     * so direct calls on the result land after them.
+     *
+     * When the sink writes a journal the result is a detached ExtentTest: its logs (with their
+     * time, exception and media path) and child nodes are journaled under this node on the
+     * next call through this ReportNode or the sink's next flush()/close(). Other Extent calls
+     * on it (categories, authors, ...) are not journaled.
+     */
+    public ExtentTest getExtentTest() {
+        if (sink == null) {
+            return test;
+        }
+        if (!sink.isJournaling()) {
+            sink.flush();
+            return test;
+        }
+        synchronized (this) {
+            drainCapture();
+            if (capture == null) {
+                capture = sink.newCapture();
+                capturedChildren = new IdentityHashMap<>();
+            }
+            sink.track(this);
+            return capture;
+        }
+    }
+
+    /**
+     * Journals what was logged on the getExtentTest() capture since the last drain.
+     */
+    synchronized void drainCapture() {
+        if (capture != null) {
+            drain(this, capture.getModel());
+        }
+    }
+
+    private void drain(ReportNode node, Test model) {
+        List<Log> logs = model.getLogs();
+        int count = logs.size();
+        for (int i = 0; i < count; i++) {
+            Log log = logs.get(i);
+            sink.log(node, log.getStatus(), detailsOf(log), log.getTimestamp().getTime());
+        }
+        logs.subList(0, count).clear();
+        for (Test child : model.getChildren()) {
+            ReportNode childNode = capturedChildren.get(child);
+            if (childNode == null) {
+                childNode = sink.createNode(node, child.getName(), child.getStartTime().getTime());
+                capturedChildren.put(child, childNode);
+            }
+            drain(childNode, child);
+        }
+    }
+
+    private static String detailsOf(Log log) {
+        StringBuilder details = new StringBuilder(log.getDetails() == null ? "" : log.getDetails());
+        if (log.hasException()) {
+            details.append("<pre>").append(StringEscapeUtils.escapeHtml4(log.getException().getStackTrace()))
+                    .append("</pre>");
+        }
+        if (log.hasMedia() && log.getMedia().getPath() != null) {
+            details.append("<br>").append(StringEscapeUtils.escapeHtml4(log.getMedia().getPath()));
+        }
+        return details.toString();
+    }
+
+    void bind(ExtentTest test) {
+        this.test = test;
+    }
+
+    /**
+     * Consumer side: the node is always created before any event that refers to it.
+     */
+    ExtentTest boundTest() {
+        ExtentTest bound = test;
+        if (bound == null) {
+            throw new IllegalStateException("Report node used before it was created");
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,450 @@
+package com.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.config.FrameworkConfig;
+
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer in front of ExtentReports.
+ *
+ * Test threads only append events (create test/node, log) to a bounded queue and do not
+ * wait for Extent while it has room; one daemon thread applies them in queue order. Every event
+ * carries the time it was recorded, and the Extent model is stamped with that time, so
+ * the report looks the same as with direct ExtentTest calls.
+ *
+ * With report.journal.enabled the events go to a ResultJournal file instead of the Extent
+ * model, so heap use does not grow with the number of steps; the report is rendered from
+ * the journal after the run (JournalRenderer). setSystemInfo entries are journaled the same
+ * way, and ExtentTest calls on a journaled node's getExtentTest() are turned into events.
+ *
+ * When the queue (report.queueCapacity) is full because the consumer falls behind, a test
+ * thread blocks until there is room (report.overflow=block, the default, so no log is lost),
+ * or with report.overflow=dropLogs discards log events (creating tests and nodes always
+ * waits, later events refer to them). Both are counted.
+ *
+ * With report.async=false events are applied on the calling thread instead.
+ * flush() waits until everything recorded so far is in Extent; close() flushes and stops
+ * the consumer. Events recorded after close() are applied on the recording thread.
+ */
+public class ReportSink implements AutoCloseable {
+
+    private static final int CREATE_TEST = 0;
+    private static final int CREATE_NODE = 1;
+    private static final int LOG = 2;
+    private static final int BARRIER = 3;
+    private static final int END = 4;
+    private static final int SYSTEM_INFO = 5;
+
+    private static final class Event {
+        final int kind;
+        final ReportNode node;
+        final ReportNode parent;
+        final Status status;
+        final String text;
+        // System info value (text is its name)
+        final String value;
+        final long timeMillis;
+        final CountDownLatch barrier;
+
+        Event(int kind, ReportNode node, ReportNode parent, Status status, String text, CountDownLatch barrier) {
+            this(kind, node, parent, status, text, null, System.currentTimeMillis(), barrier);
+        }
+
+        Event(int kind, ReportNode node, ReportNode parent, Status status, String text, String value,
+              long timeMillis, CountDownLatch barrier) {
+            this.kind = kind;
+            this.node = node;
+            this.parent = parent;
+            this.status = status;
+            this.text = text;
+            this.value = value;
+            this.timeMillis = timeMillis;
+            this.barrier = barrier;
+        }
+    }
+
+    private final ExtentReports extent;
+    private final ResultJournal journal;
+    private final boolean async;
+    private final boolean dropLogsWhenFull;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final BlockingQueue<Event> queue;
+    // Nodes whose getExtentTest() capture may hold calls not yet journaled
+    private final Set<ReportNode> captured = ConcurrentHashMap.newKeySet();
+    private final ExtentReports captureReport = new ExtentReports();
+    private final Thread consumer;
+    private volatile boolean closed;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Exception lastError;
+
+    public ReportSink(FrameworkConfig config, ExtentReports extent) {
+        this(extent, config.isReportJournalEnabled()
+                        ? new ResultJournal(Paths.get(config.getReportJournalPath()), config.isRunResume()) : null,
+                config.isReportAsync(), config.getReportQueueCapacity(), overflowPolicy(config.getReportOverflow()));
+    }
+
+    public ReportSink(ExtentReports extent, boolean async) {
+        this(extent, null, async);
+    }
+
+    public ReportSink(ExtentReports extent, ResultJournal journal, boolean async) {
+        this(extent, journal, async, 8192, false);
+    }
+
+    /**
+     * @param journal          when not null events are written there and extent is left untouched;
+     *                         the sink closes it
+     * @param queueCapacity    events the queue holds before test threads block or drop
+     * @param dropLogsWhenFull discard log events instead of blocking when the queue is full
+     */
+    public ReportSink(ExtentReports extent, ResultJournal journal, boolean async, int queueCapacity,
+                      boolean dropLogsWhenFull) {
+        this.extent = extent;
+        this.journal = journal;
+        this.async = async;
+        this.dropLogsWhenFull = dropLogsWhenFull;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (journal != null) {
+            nextId.set(journal.getLastIdBefore());
+        }
+        if (async) {
+            this.consumer = new Thread(this::consume, "extent-report-sink");
+            consumer.setDaemon(true);
+            consumer.start();
+        } else {
+            this.consumer = null;
+        }
+    }
+
+    private static boolean overflowPolicy(String overflow) {
+        switch (overflow) {
+            case "block":
+                return false;
+            case "dropLogs":
+                return true;
+            default:
+                throw new IllegalArgumentException("report.overflow must be block or dropLogs: " + overflow);
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isJournaling() {
+        return journal != null;
+    }
+
+    /**
+     * The journal events are written to, or null when they go straight to Extent.
+     */
+    public ResultJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Top-level test, equivalent of ExtentReports.createTest(name).
+     */
+    public ReportNode createTest(String name) {
+        int id = nextId.incrementAndGet();
+        ReportNode node = new ReportNode(this, id, id, null);
+        submit(new Event(CREATE_TEST, node, null, null, name, null));
+        return node;
+    }
+
+    ReportNode createNode(ReportNode parent, String name) {
+        ReportNode child = new ReportNode(this, nextId.incrementAndGet(), parent.rootId, null);
+        submit(new Event(CREATE_NODE, child, parent, null, name, null));
+        return child;
+    }
+
+    void log(ReportNode node, Status status, String details) {
+        submit(new Event(LOG, node, null, status, details, null));
+    }
+
+    /**
+     * createNode/log for calls recorded earlier on a captured ExtentTest, with their own time.
+     */
+    ReportNode createNode(ReportNode parent, String name, long timeMillis) {
+        ReportNode child = new ReportNode(this, nextId.incrementAndGet(), parent.rootId, null);
+        submit(new Event(CREATE_NODE, child, parent, null, name, null, timeMillis, null));
+        return child;
+    }
+
+    void log(ReportNode node, Status status, String details, long timeMillis) {
+        submit(new Event(LOG, node, null, status, details, null, timeMillis, null));
+    }
+
+    /**
+     * Detached ExtentTest for ReportNode.getExtentTest() in journal mode: created on a private
+     * ExtentReports and removed from it again, so it records calls without being reported.
+     */
+    ExtentTest newCapture() {
+        synchronized (captureReport) {
+            ExtentTest capture = captureReport.createTest("capture");
+            captureReport.removeTest(capture);
+            return capture;
+        }
+    }
+
+    void track(ReportNode node) {
+        captured.add(node);
+    }
+
+    /**
+     * Report-level "System/Environment" entry, equivalent of ExtentReports.setSystemInfo,
+     * applied in order with the other events (journaled when the sink writes a journal).
+     */
+    public void setSystemInfo(String name, String value) {
+        submit(new Event(SYSTEM_INFO, null, null, null, name, value, System.currentTimeMillis(), null));
+    }
+
+    private void drainCaptured() {
+        for (ReportNode node : captured) {
+            node.drainCapture();
+            captured.remove(node);
+        }
+    }
+
+    /**
+     * Blocks until every event recorded before this call has been applied to Extent
+     * (or written to the journal file).
+     */
+    public void flush() {
+        drainCaptured();
+        if (!async || closed) {
+            if (journal != null && !closed) {
+                journal.flush();
+            }
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        put(new Event(BARRIER, null, null, null, null, done));
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        drainCaptured();
+        if (consumer != null) {
+            put(new Event(END, null, null, null, null, null));
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closed = true;
+        drainAfterClose();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Events a test thread had to wait for queue space to record.
+     */
+    public long getBlockedCount() {
+        return blocked.get();
+    }
+
+    /**
+     * Log events discarded because the queue was full (report.overflow=dropLogs).
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "async=" + async + (journal != null ? " journal=" + journal.getPath() : "") + " applied=" + applied.get() + " failed=" + failed.get()
+                + " blocked=" + blocked.get() + " dropped=" + dropped.get()
+                + (lastError != null ? " lastError=" + lastError.getMessage() : "");
+    }
+
+    private void submit(Event event) {
+        if (!async) {
+            apply(event, false);
+            return;
+        }
+        if (closed) {
+            // No consumer any more: apply here, after whatever is still queued
+            applyAfterClose(event);
+            return;
+        }
+        if (!queue.offer(event)) {
+            if (dropLogsWhenFull && event.kind == LOG) {
+                dropped.incrementAndGet();
+                return;
+            }
+            blocked.incrementAndGet();
+            put(event);
+        }
+        if (closed) {
+            drainAfterClose();
+        }
+    }
+
+    private void put(Event event) {
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a report event", e);
+        }
+    }
+
+    /**
+     * Applies on the calling thread what was queued once the consumer stopped (or while it stopped).
+     */
+    private synchronized void drainAfterClose() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            if (event.kind == BARRIER) {
+                event.barrier.countDown();
+            } else if (event.kind != END) {
+                apply(event, true);
+            }
+        }
+    }
+
+    private synchronized void applyAfterClose(Event event) {
+        drainAfterClose();
+        apply(event, true);
+    }
+
+    // ---- consumer thread ----
+
+    private void consume() {
+        while (true) {
+            Event event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                // Only close() ends the consumer, so that nothing queued is lost
+                continue;
+            }
+            if (event.kind == END) {
+                return;
+            }
+            if (event.kind == BARRIER) {
+                flushJournal();
+                event.barrier.countDown();
+                continue;
+            }
+            apply(event, true);
+            if (queue.isEmpty()) {
+                // Idle: put what we have on disk, so a crash loses at most the events in flight
+                flushJournal();
+            }
+        }
+    }
+
+    private void flushJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            lastError = e;
+        }
+    }
+
+    /**
+     * @param restamp true when applied later than recorded: Extent's "now" is replaced by the event time
+     */
+    private void apply(Event event, boolean restamp) {
+        try {
+            if (journal != null) {
+                write(event);
+            } else {
+                applyToExtent(event, restamp);
+            }
+            applied.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            lastError = e;
+        }
+    }
+
+    private void write(Event event) {
+        switch (event.kind) {
+            case CREATE_TEST:
+                journal.createTest(event.node.id, event.text, event.timeMillis);
+                break;
+            case CREATE_NODE:
+                journal.createNode(event.node.id, event.parent.id, event.node.rootId, event.text, event.timeMillis);
+                break;
+            case LOG:
+                journal.log(event.node.id, event.node.rootId, event.status, event.text, event.timeMillis);
+                break;
+            case SYSTEM_INFO:
+                journal.systemInfo(event.text, event.value, event.timeMillis);
+                break;
+            default:
+                throw new IllegalStateException("Unknown report event " + event.kind);
+        }
+    }
+
+    private void applyToExtent(Event event, boolean restamp) {
+        switch (event.kind) {
+            case CREATE_TEST:
+                event.node.bind(restamp ? ExtentEvents.createTest(extent, event.text, event.timeMillis)
+                        : extent.createTest(event.text));
+                break;
+            case CREATE_NODE: {
+                ExtentTest parent = event.parent.boundTest();
+                event.node.bind(restamp ? ExtentEvents.createNode(parent, event.text, event.timeMillis)
+                        : parent.createNode(event.text));
+                break;
+            }
+            case LOG:
+                if (restamp) {
+                    ExtentEvents.log(event.node.boundTest(), event.status, event.text, event.timeMillis);
+                } else {
+                    event.node.boundTest().log(event.status, event.text);
+                }
+                break;
+            case SYSTEM_INFO:
+                extent.setSystemInfo(event.text, event.value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown report event " + event.kind);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.reporting;
+
+import com.aventstack.extentreports.Status;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per test case totals of a run, built in one pass over a ResultJournal: only one small
+ * record per top-level test is kept, whatever the number of steps.
+ *
+ * Outcome counts are the PASS / FAIL / WARNING / SKIP logs under the test, which is one
+ * per executed step (ExecutionPlan logs the step outcome once). Tests of the same name
+ * (continued by a resumed run) are counted as one. writeHtml() renders a
+ * self-contained page meant as the body of the result e-mail.
+ */
+public class ReportSummary {
+
+    private static final int FAILURE_TEXT_MAX = 300;
+
+    /**
+     * Totals of one top-level test.
+     */
+    public static final class TestTotals {
+        private final String name;
+        private final long startMillis;
+        private long endMillis;
+        private Status status = Status.PASS;
+        private int passed;
+        private int failed;
+        private int warnings;
+        private int skipped;
+        private String firstFailure;
+
+        TestTotals(String name, long startMillis) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.endMillis = startMillis;
+        }
+
+        void add(Status logStatus, String text, long timeMillis) {
+            endMillis = Math.max(endMillis, timeMillis);
+            status = Status.max(status, logStatus);
+            switch (logStatus) {
+                case PASS:
+                    passed++;
+                    break;
+                case FAIL:
+                    failed++;
+                    if (firstFailure == null) {
+                        firstFailure = text;
+                    }
+                    break;
+                case WARNING:
+                    warnings++;
+                    break;
+                case SKIP:
+                    skipped++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getDurationMillis() {
+            return endMillis - startMillis;
+        }
+
+        public int getPassed() {
+            return passed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getWarnings() {
+            return warnings;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public String getFirstFailure() {
+            return firstFailure;
+        }
+    }
+
+    private final Map<String, TestTotals> tests = new LinkedHashMap<>();
+    private final Map<Integer, TestTotals> byRoot = new HashMap<>();
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis = Long.MIN_VALUE;
+
+    /**
+     * Streams the journal at path once.
+     */
+    public static ReportSummary of(Path journal) {
+        return of(List.of(journal));
+    }
+
+    /**
+     * One summary over several journals (the shards of a run), each streamed once.
+     */
+    public static ReportSummary of(List<Path> journals) {
+        ReportSummary summary = new ReportSummary();
+        for (Path journal : journals) {
+            // Node ids are per journal
+            summary.byRoot.clear();
+            ResultJournal.read(journal, summary::accept);
+        }
+        return summary;
+    }
+
+    void accept(ResultJournal.Entry entry) {
+        startMillis = Math.min(startMillis, entry.time);
+        endMillis = Math.max(endMillis, entry.time);
+        if (ResultJournal.TEST.equals(entry.event)) {
+            byRoot.put(entry.id, tests.computeIfAbsent(entry.name, name -> new TestTotals(name, entry.time)));
+        } else if (ResultJournal.LOG.equals(entry.event)) {
+            TestTotals test = byRoot.get(entry.root);
+            if (test != null) {
+                test.add(entry.status(), entry.text, entry.time);
+            }
+        } else {
+            TestTotals test = byRoot.get(entry.root);
+            if (test != null) {
+                test.endMillis = Math.max(test.endMillis, entry.time);
+            }
+        }
+    }
+
+    public List<TestTotals> getTests() {
+        return new ArrayList<>(tests.values());
+    }
+
+    public int count(Status status) {
+        int n = 0;
+        for (TestTotals test : tests.values()) {
+            if (test.status == status) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public long getDurationMillis() {
+        return tests.isEmpty() ? 0 : endMillis - startMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "tests=" + tests.size() + " passed=" + count(Status.PASS) + " failed=" + count(Status.FAIL)
+                + " warnings=" + count(Status.WARNING) + " skipped=" + count(Status.SKIP)
+                + " duration=" + getDurationMillis() + "ms";
+    }
+
+    /**
+     * Summary table, failed tests first, as a standalone HTML page.
+     */
+    public void writeHtml(Path out) {
+        List<TestTotals> ordered = getTests();
+        ordered.sort((a, b) -> Integer.compare(b.status.getLevel(), a.status.getLevel()));
+        try {
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+                SimpleDateFormat time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                w.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Test run summary</title></head>\n");
+                w.write("<body style=\"font-family:Arial,sans-serif;font-size:13px\">\n");
+                w.write("<h2>Test run summary</h2>\n<p>");
+                if (!tests.isEmpty()) {
+                    w.write(time.format(new Date(startMillis)) + " - " + time.format(new Date(endMillis))
+                            + " (" + formatDuration(getDurationMillis()) + ")<br>");
+                }
+                w.write(tests.size() + " test cases: " + count(Status.PASS) + " passed, " + count(Status.FAIL)
+                        + " failed, " + count(Status.WARNING) + " with warnings, " + count(Status.SKIP) + " skipped</p>\n");
+                w.write("<table border=\"1\" cellpadding=\"4\" cellspacing=\"0\" style=\"border-collapse:collapse\">\n");
+                w.write("<tr><th>Test case</th><th>Status</th><th>Steps passed</th><th>Failed</th><th>Warnings</th>"
+                        + "<th>Skipped</th><th>Duration</th><th>First failure</th></tr>\n");
+                for (TestTotals test : ordered) {
+                    w.write("<tr><td>" + escape(test.name) + "</td><td style=\"color:" + color(test.status) + "\">"
+                            + test.status.getName() + "</td><td>" + test.passed + "</td><td>" + test.failed
+                            + "</td><td>" + test.warnings + "</td><td>" + test.skipped + "</td><td>"
+                            + formatDuration(test.getDurationMillis()) + "</td><td>"
+                            + escape(abbreviate(test.firstFailure)) + "</td></tr>\n");
+                }
+                w.write("</table>\n</body></html>\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write report summary " + out, e);
+        }
+    }
+
+    private static String color(Status status) {
+        switch (status) {
+            case FAIL:
+                return "#c62828";
+            case WARNING:
+                return "#ef6c00";
+            case SKIP:
+                return "#757575";
+            default:
+                return "#2e7d32";
+        }
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() <= FAILURE_TEXT_MAX ? text : text.substring(0, FAILURE_TEXT_MAX) + "...";
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : StringEscapeUtils.escapeHtml4(text);
+    }
+
+    private static String formatDuration(long millis) {
+        if (millis < 1000) {
+            return millis + " ms";
+        }
+        long seconds = millis / 1000;
+        return seconds < 60 ? String.format("%.1f s", millis / 1000.0)
+                : String.format("%d min %02d s", seconds / 60, seconds % 60);
+    }
+}
@@ -0,0 +1,331 @@
+package com.reporting;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only, one-JSON-object-per-line record of everything the report receives:
+ *
+ *   {"event":"test","id":1,"name":"Card auth (ID: 100)","time":1718000000000}
+ *   {"event":"node","id":2,"parent":1,"root":1,"name":"Data Row 1","time":...}
+ *   {"event":"log","id":2,"root":1,"status":"PASS","text":"...","time":...}
+ *   {"event":"info","name":"DB pool","text":"max=10 open=2 ...","time":...}
+ *
+ * Lines are encoded into a fixed NIO buffer and written to the file channel when it
+ * fills up or on flush(), so the run keeps nothing per step in memory. "root" is the
+ * top-level test of the node, which lets a reader aggregate per test case without
+ * remembering the tree. The Spark report and the summary are rendered from the file
+ * afterwards (JournalRenderer); a torn last line after a crash is ignored when reading.
+ *
+ * A resumed run (run.resume) appends to the journal of the interrupted one, with ids
+ * continuing after the last one used; JournalRenderer merges tests of the same name.
+ *
+ * Writes are synchronized; with an asynchronous ReportSink there is only one writer.
+ */
+public class ResultJournal implements AutoCloseable {
+
+    public static final String TEST = "test";
+    public static final String NODE = "node";
+    public static final String LOG = "log";
+    public static final String INFO = "info";
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader ENTRY_READER = MAPPER.readerFor(Entry.class);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final JsonGenerator json;
+    private final int lastIdBefore;
+    private long entries;
+
+    /**
+     * One journal line. Fields that do not apply to the event are 0 / null.
+     */
+    public static final class Entry {
+        public String event;
+        public int id;
+        public int parent;
+        public int root;
+        public String name;
+        public String status;
+        public String text;
+        public long time;
+
+        public Status status() {
+            return Status.valueOf(status);
+        }
+    }
+
+    /**
+     * Opens path for writing, replacing an earlier journal there.
+     */
+    public ResultJournal(Path path) {
+        this(path, false);
+    }
+
+    /**
+     * @param append keep an existing journal and add to it (a torn last line is cut off first)
+     */
+    public ResultJournal(Path path, boolean append) {
+        this.path = path;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean existing = append && Files.isRegularFile(path);
+            if (existing) {
+                this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(trimToLastLine(channel));
+                int[] maxId = new int[1];
+                read(path, entry -> maxId[0] = Math.max(maxId[0], entry.id));
+                this.lastIdBefore = maxId[0];
+            } else {
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                this.lastIdBefore = 0;
+            }
+            this.json = new JsonFactory().createGenerator(new BufferOutput());
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines end with \n themselves; no separator before the next root object
+            json.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open result journal " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Entries written through this instance (not counting those of an appended-to journal).
+     */
+    public synchronized long getEntryCount() {
+        return entries;
+    }
+
+    /**
+     * Highest node id already in the journal when it was opened for appending, else 0.
+     */
+    public int getLastIdBefore() {
+        return lastIdBefore;
+    }
+
+    public synchronized void createTest(int id, String name, long timeMillis) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("event", TEST);
+            json.writeNumberField("id", id);
+            json.writeStringField("name", name);
+            json.writeNumberField("time", timeMillis);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        }
+    }
+
+    public synchronized void createNode(int id, int parent, int root, String name, long timeMillis) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("event", NODE);
+            json.writeNumberField("id", id);
+            json.writeNumberField("parent", parent);
+            json.writeNumberField("root", root);
+            json.writeStringField("name", name);
+            json.writeNumberField("time", timeMillis);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        }
+    }
+
+    public synchronized void log(int id, int root, Status status, String text, long timeMillis) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("event", LOG);
+            json.writeNumberField("id", id);
+            json.writeNumberField("root", root);
+            json.writeStringField("status", status.name());
+            json.writeStringField("text", text);
+            json.writeNumberField("time", timeMillis);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        }
+    }
+
+    /**
+     * A report-level "System/Environment" entry (ExtentReports.setSystemInfo).
+     */
+    public synchronized void systemInfo(String name, String value, long timeMillis) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("event", INFO);
+            json.writeStringField("name", name);
+            json.writeStringField("text", value);
+            json.writeNumberField("time", timeMillis);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        }
+    }
+
+    /**
+     * Writes everything appended so far to the file (no fsync).
+     */
+    public synchronized void flush() {
+        try {
+            json.flush();
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            json.flush();
+            drain();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result journal " + path, e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // closing after a failed write
+            }
+        }
+    }
+
+    private void endLine() throws IOException {
+        json.writeEndObject();
+        json.writeRaw('\n');
+        entries++;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Generator target: fills the NIO buffer and hands it to the channel when full.
+     */
+    private final class BufferOutput extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+    }
+
+    /**
+     * Cuts an unterminated last line (a write torn by a crash) off the file, so that
+     * appended lines start on a line of their own. Also used for the run checkpoint.
+     *
+     * @return the new size, i.e. the position to append at
+     */
+    public static long trimToLastLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer chunk = ByteBuffer.allocate(8 * 1024);
+        long end = size;
+        while (end > 0) {
+            int n = (int) Math.min(chunk.capacity(), end);
+            chunk.clear().limit(n);
+            long start = end - n;
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, start + chunk.position()) < 0) {
+                    throw new IOException("File shrank while reading");
+                }
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    long valid = start + i + 1;
+                    if (valid < size) {
+                        channel.truncate(valid);
+                    }
+                    return valid;
+                }
+            }
+            end = start;
+        }
+        channel.truncate(0);
+        return 0;
+    }
+
+    /**
+     * Streams the journal at path through consumer, one entry at a time.
+     * A line that does not parse ends the read when it is the last one (torn write);
+     * anywhere else it is an error.
+     *
+     * @return number of entries read
+     */
+    public static long read(Path path, Consumer<Entry> consumer) {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            String torn = null;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (torn != null) {
+                    throw new IllegalStateException("Corrupt result journal " + path + " at entry " + (count + 1) + ": " + torn);
+                }
+                Entry entry;
+                try {
+                    entry = ENTRY_READER.readValue(line);
+                } catch (IOException e) {
+                    torn = line;
+                    continue;
+                }
+                consumer.accept(entry);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read result journal " + path, e);
+        }
+        return count;
+    }
+}
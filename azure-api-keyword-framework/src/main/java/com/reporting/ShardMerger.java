@@ -0,0 +1,183 @@
+package com.reporting;
+
+import com.azure.AzureDevOpsClient;
+import com.azure.AzureResultPublisher;
+import com.azure.SuiteCache;
+import com.config.FrameworkConfig;
+import com.keywords.RunCheckpoint;
+import com.model.TestCaseData;
+import com.model.TestCaseFilter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Combines the partial results of a sharded run (shard.count > 1) once every shard is done:
+ *  - the shards' result journals are streamed into ONE journal (report.journal.path), which
+ *    is rendered like a normal run's (report.journal.render) into the report and summary page
+ *  - the test case results in the shards' run checkpoints are published to azure.runId
+ *    as ONE publication, batched like a normal run (shards do not publish themselves)
+ *
+ * Before anything is written, the test cases finished in the shards' checkpoints are checked
+ * against the run's test cases (the configured suites after the execution.filter settings):
+ * a test case found in two shards means the shards did not compute the same partition
+ * (different filters or duration histories), and one finished in no shard was lost (a
+ * shard stopped early or saw a different suite); nothing is merged then.
+ *
+ * Run from the workspace that holds all shards' reports directory:
+ *   java -cp ... com.reporting.ShardMerger [shardCount]
+ */
+public final class ShardMerger {
+
+    private ShardMerger() {
+    }
+
+    /**
+     * Merges the shards, expecting the test cases the configured suites and filters give.
+     */
+    public static ReportSummary merge(FrameworkConfig config, int shardCount) throws Exception {
+        AzureDevOpsClient client = new AzureDevOpsClient(config);
+        List<TestCaseData> loaded = config.isAzureCacheEnabled()
+                ? new SuiteCache(config, client).loadConfiguredTestCases()
+                : client.loadConfiguredTestCases();
+        Set<Integer> expected = new TreeSet<>();
+        for (TestCaseData testCase : TestCaseFilter.fromConfig(config).apply(loaded)) {
+            expected.add(testCase.getId());
+        }
+        return merge(config, shardCount, expected);
+    }
+
+    /**
+     * @param expected ids of every test case the shards together had to run
+     */
+    public static ReportSummary merge(FrameworkConfig config, int shardCount, Set<Integer> expected) throws Exception {
+        List<Path> journals = new ArrayList<>(shardCount);
+        List<Path> checkpoints = new ArrayList<>(shardCount);
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            FrameworkConfig shard = config.forShard(i, shardCount);
+            Path journal = Paths.get(shard.getReportJournalPath());
+            Path checkpoint = Paths.get(shard.getRunCheckpointPath());
+            if (!Files.isRegularFile(journal)) {
+                missing.add(journal + " (report.journal.enabled)");
+            }
+            if (!Files.isRegularFile(checkpoint)) {
+                missing.add(checkpoint + " (run.checkpoint.enabled)");
+            }
+            journals.add(journal);
+            checkpoints.add(checkpoint);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Shard results missing: " + String.join(", ", missing));
+        }
+
+        // Read all checkpoints before writing anything, so a bad partition changes nothing
+        List<RunCheckpoint.CaseState> results = new ArrayList<>();
+        Map<Integer, Integer> shardOf = new HashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            for (RunCheckpoint.CaseState state : RunCheckpoint.read(checkpoints.get(i),
+                    config.getAzureRunId(), config.getAzurePlanId()).values()) {
+                Integer other = shardOf.putIfAbsent(state.getTestCaseId(), i);
+                if (other != null) {
+                    throw new IllegalStateException("Test case " + state.getTestCaseId() + " ran in shard "
+                            + (other + 1) + " and shard " + (i + 1) + "; the shards used different partitions");
+                }
+                if (state.isComplete()) {
+                    results.add(state);
+                }
+            }
+        }
+        Set<Integer> notRun = new TreeSet<>(expected);
+        for (RunCheckpoint.CaseState state : results) {
+            notRun.remove(state.getTestCaseId());
+        }
+        if (!notRun.isEmpty()) {
+            throw new IllegalStateException(notRun.size() + " of " + expected.size()
+                    + " test cases did not finish in any shard: " + abbreviate(notRun)
+                    + "; rerun their shard with run.resume=true, or check that every shard used the same suites and filters");
+        }
+        boolean publish = config.getAzureRunId() > 0;
+
+        FrameworkConfig merged = config.forShard(0, 1);
+        try (ResultJournal journal = new ResultJournal(Paths.get(merged.getReportJournalPath()))) {
+            int offset = 0;
+            for (int i = 0; i < shardCount; i++) {
+                offset = append(journal, journals.get(i), offset, "Shard " + (i + 1) + " ");
+            }
+            journal.systemInfo("Shards", String.valueOf(shardCount), System.currentTimeMillis());
+
+            if (publish) {
+                AzureResultPublisher publisher = new AzureResultPublisher(config, new AzureDevOpsClient(config));
+                try {
+                    for (RunCheckpoint.CaseState state : results) {
+                        publisher.submit(state.toReport());
+                    }
+                } finally {
+                    publisher.close();
+                }
+                journal.systemInfo("Azure results", publisher.toString(), System.currentTimeMillis());
+            }
+        }
+        return JournalRenderer.render(merged);
+    }
+
+    /**
+     * Copies shard into journal with its node ids moved past offset (ids are only unique
+     * within one journal) and its system info names prefixed.
+     *
+     * @return the highest id written so far
+     */
+    private static int append(ResultJournal journal, Path shard, int offset, String infoPrefix) {
+        int[] maxId = {offset};
+        ResultJournal.read(shard, entry -> {
+            switch (entry.event) {
+                case ResultJournal.TEST:
+                    journal.createTest(offset + entry.id, entry.name, entry.time);
+                    break;
+                case ResultJournal.NODE:
+                    journal.createNode(offset + entry.id, offset + entry.parent, offset + entry.root, entry.name, entry.time);
+                    break;
+                case ResultJournal.LOG:
+                    journal.log(offset + entry.id, offset + entry.root, entry.status(), entry.text, entry.time);
+                    break;
+                case ResultJournal.INFO:
+                    journal.systemInfo(infoPrefix + entry.name, entry.text, entry.time);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event '" + entry.event + "' in result journal " + shard);
+            }
+            maxId[0] = Math.max(maxId[0], offset + entry.id);
+        });
+        return maxId[0];
+    }
+
+    private static String abbreviate(Set<Integer> ids) {
+        StringBuilder text = new StringBuilder();
+        int shown = 0;
+        for (Integer id : ids) {
+            if (shown == 20) {
+                return text.append(", ... (").append(ids.size() - shown).append(" more)").toString();
+            }
+            text.append(shown++ == 0 ? "" : ", ").append(id);
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        FrameworkConfig config = new FrameworkConfig();
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : config.getShardCount();
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("Nothing to merge: shard count is " + shardCount);
+        }
+        ReportSummary summary = merge(config, shardCount);
+        System.out.println("Merged " + shardCount + " shards into " + config.forShard(0, 1).getReportPath());
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,348 @@
+package com.standin;
+
+import com.iso.Iso87BCodec;
+import com.iso.IsoMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local echo switch for IsoChannel and the ISO_SEND keyword, on one NIO selector thread.
+ *
+ * Reads [2-byte length][header][ISO87B] frames from any number of connections and answers
+ * each request on the connection it came in on: the MTI becomes the response MTI
+ * (0200 -> 0210, 0800 -> 0810), all fields are echoed except the PIN block, DE38 gets an
+ * approval code and DE39 the configured response code. A 5-byte TPDU header comes back
+ * with source and destination swapped, any other header as it was.
+ *
+ * With latencyMs/latencyJitterMs set, each response is delayed on its own, so responses to
+ * pipelined requests come back out of order; with dropEvery=n every n-th request is never
+ * answered (timeouts). Lives with the framework for its IsoChannel tests; also runnable on
+ * its own from the benchmarks jar:
+ *   java -cp target/benchmarks.jar com.standin.IsoSwitchStandIn port=14003 latencyMs=5
+ */
+public class IsoSwitchStandIn implements AutoCloseable {
+
+    /**
+     * Stand-in settings; fluent setters, all optional.
+     */
+    public static final class Options {
+        int port;
+        int headerLength = 5;
+        String responseCode = "00";
+        long latencyMs;
+        long latencyJitterMs;
+        int dropEvery;
+
+        /** 0 picks a free port. */
+        public Options port(int port) { this.port = port; return this; }
+        /** Bytes between the length prefix and the ISO message (iso.header length). */
+        public Options headerLength(int length) { this.headerLength = length; return this; }
+        public Options responseCode(String code) { this.responseCode = code; return this; }
+        public Options latencyMs(long latencyMs) { this.latencyMs = latencyMs; return this; }
+        public Options latencyJitterMs(long jitterMs) { this.latencyJitterMs = jitterMs; return this; }
+        /** Leave every n-th request unanswered; 0 answers all. */
+        public Options dropEvery(int n) { this.dropEvery = n; return this; }
+
+        /**
+         * Applies key=value pairs named like the setters (port=14003 latencyMs=5 ...).
+         */
+        public Options parse(String... args) {
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+                }
+                String key = arg.substring(0, eq);
+                String value = arg.substring(eq + 1);
+                switch (key) {
+                    case "port": port(Integer.parseInt(value)); break;
+                    case "headerLength": headerLength(Integer.parseInt(value)); break;
+                    case "responseCode": responseCode(value); break;
+                    case "latencyMs": latencyMs(Long.parseLong(value)); break;
+                    case "latencyJitterMs": latencyJitterMs(Long.parseLong(value)); break;
+                    case "dropEvery": dropEvery(Integer.parseInt(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option '" + key + "'");
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * One client connection; buffers are used by the selector thread only.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        // Room for the largest frame a 2-byte length allows
+        final ByteBuffer in = ByteBuffer.allocate(2 + 0xFFFF);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private static final class Delayed {
+        final SelectionKey key;
+        final ByteBuffer frame;
+
+        Delayed(SelectionKey key, ByteBuffer frame) {
+            this.key = key;
+            this.frame = frame;
+        }
+    }
+
+    private final Options options;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private final ScheduledExecutorService delayer;
+    // Delayed responses, handed back to the selector thread
+    private final Queue<Delayed> ready = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+
+    private IsoSwitchStandIn(Options options) throws IOException {
+        this.options = options;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", options.port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.delayer = options.latencyMs > 0 || options.latencyJitterMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "iso-standin-delay");
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+        this.thread = new Thread(this::run, "iso-standin");
+        thread.setDaemon(true);
+    }
+
+    public static IsoSwitchStandIn start(Options options) throws IOException {
+        IsoSwitchStandIn standIn = new IsoSwitchStandIn(options);
+        standIn.thread.start();
+        return standIn;
+    }
+
+    public static void main(String[] args) throws Exception {
+        IsoSwitchStandIn standIn = start(new Options().port(14003).parse(args));
+        System.out.println("ISO switch stand-in listening, use:");
+        System.out.println("  iso.host=127.0.0.1");
+        System.out.println("  iso.port=" + standIn.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(standIn)));
+        Thread.currentThread().join();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getResponseCount() {
+        return responses.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            read(key, client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(key, client);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+                Delayed item;
+                while ((item = ready.poll()) != null) {
+                    if (item.key.isValid()) {
+                        Client client = (Client) item.key.attachment();
+                        client.out.add(item.frame);
+                        flush(item.key, client);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                throw new UncheckedIOException("ISO switch stand-in stopped", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Client(channel));
+            connections.incrementAndGet();
+        }
+    }
+
+    private void read(SelectionKey key, Client client) {
+        try {
+            if (client.channel.read(client.in) < 0) {
+                close(key);
+                return;
+            }
+        } catch (IOException e) {
+            close(key);
+            return;
+        }
+        ByteBuffer in = client.in;
+        in.flip();
+        while (in.remaining() >= 2) {
+            int length = ((in.get(in.position()) & 0xFF) << 8) | (in.get(in.position() + 1) & 0xFF);
+            if (in.remaining() < 2 + length) {
+                break;
+            }
+            byte[] frame = new byte[length];
+            in.position(in.position() + 2);
+            in.get(frame);
+            respond(key, client, frame);
+        }
+        in.compact();
+    }
+
+    private void respond(SelectionKey key, Client client, byte[] frame) {
+        long n = requests.incrementAndGet();
+        if (options.dropEvery > 0 && n % options.dropEvery == 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int headerLength = Math.min(options.headerLength, frame.length);
+        IsoMessage request;
+        try {
+            request = Iso87BCodec.unpack(frame, headerLength, frame.length - headerLength);
+        } catch (IllegalArgumentException e) {
+            malformed.incrementAndGet();
+            return;
+        }
+        IsoMessage response = request.copy();
+        String mti = request.getMti();
+        char function = mti.charAt(2);
+        if (function % 2 == 0) {
+            response.setMti(mti.substring(0, 2) + (char) (function + 1) + mti.substring(3));
+        }
+        if (response.has(52)) {
+            response.unset(52);
+        }
+        String stan = request.has(11) ? request.getString(11) : "000000";
+        response.set(38, "A" + stan.substring(stan.length() - 5));
+        response.set(39, options.responseCode);
+
+        byte[] iso = Iso87BCodec.pack(response);
+        ByteBuffer out = ByteBuffer.allocate(2 + headerLength + iso.length);
+        out.putShort((short) (headerLength + iso.length));
+        if (headerLength == 5) {
+            // TPDU: id, then destination and source address swapped
+            out.put(frame[0]).put(frame[3]).put(frame[4]).put(frame[1]).put(frame[2]);
+        } else {
+            out.put(frame, 0, headerLength);
+        }
+        out.put(iso).flip();
+        responses.incrementAndGet();
+
+        long delay = options.latencyMs + (options.latencyJitterMs > 0
+                ? ThreadLocalRandom.current().nextLong(options.latencyJitterMs + 1) : 0);
+        if (delayer != null && delay > 0) {
+            delayer.schedule(() -> {
+                ready.add(new Delayed(key, out));
+                selector.wakeup();
+            }, delay, TimeUnit.MILLISECONDS);
+        } else {
+            client.out.add(out);
+            flush(key, client);
+        }
+    }
+
+    private void flush(SelectionKey key, Client client) {
+        try {
+            while (!client.out.isEmpty()) {
+                ByteBuffer head = client.out.peek();
+                client.channel.write(head);
+                if (head.hasRemaining()) {
+                    break;
+                }
+                client.out.poll();
+            }
+            key.interestOps(client.out.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Client already gone
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "connections=" + connections.get() + " requests=" + requests.get() + " responses=" + responses.get()
+                + " dropped=" + dropped.get() + " malformed=" + malformed.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (delayer != null) {
+            delayer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * ConnectionPool against an in-memory H2 database.
+ */
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(int maxSize, int minIdle, long borrowTimeoutMs, long idleTimeoutMs, int statementCacheSize) {
+        // A private database per test; DB_CLOSE_DELAY keeps it while no session is open
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(url, "sa", "", maxSize, minIdle, borrowTimeoutMs, idleTimeoutMs,
+                60_000, 1, statementCacheSize);
+        return pool;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    @Test
+    public void borrowTimesOutWhenAllPermitsAreTaken() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 100, 60_000, 0);
+        try (Connection held = pool.borrow()) {
+            long start = System.nanoTime();
+            assertThrows(SQLTimeoutException.class, pool::borrow);
+            assertTrue(System.nanoTime() - start >= 90_000_000L, "returned before the borrow timeout");
+            assertEquals(pool.getStats().getTimeouts(), 1);
+            assertEquals(pool.getStats().getActive(), 1);
+        }
+        assertEquals(pool.getStats().getActive(), 0);
+    }
+
+    @Test
+    public void closingTheProxyReturnsThePermitExactlyOnce() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 0, 60_000, 0);
+        Connection first = pool.borrow();
+        first.close();
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+
+        try (Connection second = pool.borrow()) {
+            assertFalse(second.isClosed());
+            // A second close() of the first lease must not have freed another permit
+            assertThrows(SQLTimeoutException.class, pool::borrow);
+        }
+        assertEquals(pool.getStats().getCreated(), 1);
+        assertEquals(pool.getStats().getIdle(), 1);
+    }
+
+    @Test
+    public void idleSessionsAreReusedLastInFirstOut() throws SQLException {
+        ConnectionPool pool = pool(3, 0, 1000, 60_000, 0);
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        Connection physicalA = a.unwrap(Connection.class);
+        Connection physicalB = b.unwrap(Connection.class);
+        assertNotSame(physicalA, physicalB);
+        a.close();
+        b.close();
+
+        try (Connection next = pool.borrow()) {
+            assertSame(next.unwrap(Connection.class), physicalB);
+            try (Connection after = pool.borrow()) {
+                assertSame(after.unwrap(Connection.class), physicalA);
+            }
+        }
+        assertEquals(pool.getStats().getCreated(), 2);
+    }
+
+    @Test
+    public void evictorClosesSessionsIdleLongerThanTheTimeoutDownToMinIdle() throws Exception {
+        ConnectionPool pool = pool(3, 1, 1000, 100, 0);
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        Connection c = pool.borrow();
+        a.close();
+        b.close();
+        c.close();
+        assertEquals(pool.getStats().getIdle(), 3);
+
+        // The evictor runs at most once a second
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getStats().getIdle() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(pool.getStats().getIdle(), 1);
+        assertEquals(pool.getStats().getEvicted(), 2);
+        assertEquals(pool.getStats().getOpen(), 1);
+    }
+
+    @Test
+    public void openTransactionIsRolledBackOnReturn() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 1000, 60_000, 10);
+        try (Connection conn = pool.borrow(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE T (ID INT)");
+        }
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO T VALUES (?)")) {
+                ps.setInt(1, 1);
+                ps.executeUpdate();
+            }
+        }
+        try (Connection conn = pool.borrow();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM T")) {
+            assertTrue(conn.getAutoCommit());
+            rs.next();
+            assertEquals(rs.getInt(1), 0);
+        }
+    }
+
+    @Test
+    public void statementsLeftOpenAreClosedWhenTheSessionIsReturned() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 1000, 60_000, 10);
+        Statement plain;
+        PreparedStatement generatedKeys;
+        PreparedStatement scrollable;
+        try (Connection conn = pool.borrow()) {
+            plain = conn.createStatement();
+            generatedKeys = conn.prepareStatement("SELECT 1", Statement.RETURN_GENERATED_KEYS);
+            scrollable = conn.prepareStatement("SELECT 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            // Same SQL while the cached statement is still open -> uncached, tracked
+            PreparedStatement first = conn.prepareStatement("SELECT 2");
+            PreparedStatement second = conn.prepareStatement("SELECT 2");
+            assertNotSame(second, first);
+            second.executeQuery();
+            conn.close();
+            assertTrue(second.isClosed(), "uncached prepared statement left open");
+        }
+        assertTrue(plain.isClosed(), "createStatement() left open");
+        assertTrue(generatedKeys.isClosed(), "cached statement lease still usable");
+        assertTrue(scrollable.isClosed(), "cached statement lease still usable");
+    }
+
+    @Test
+    public void everyPrepareStatementOverloadIsCachedByItsArguments() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 1000, 60_000, 10);
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.borrow()) {
+                conn.prepareStatement("SELECT 1").close();
+                conn.prepareStatement("SELECT 1", Statement.RETURN_GENERATED_KEYS).close();
+                conn.prepareStatement("SELECT 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+                conn.prepareStatement("SELECT 1", new String[]{"X"}).close();
+            }
+        }
+        assertEquals(pool.getStats().getStatementCacheMisses(), 4);
+        assertEquals(pool.getStats().getStatementCacheHits(), 8);
+    }
+
+    @Test
+    public void cachedStatementIsResetForTheNextBorrower() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 1000, 60_000, 10);
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement ps = conn.prepareStatement("SELECT ? FROM DUAL");
+            ps.setMaxRows(1);
+            ps.setString(1, "left over");
+            // Not closed: returning the session releases it
+        }
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement("SELECT ? FROM DUAL")) {
+            assertEquals(ps.getMaxRows(), 0);
+            try {
+                ps.executeQuery();
+                fail("parameter from the previous lease was kept");
+            } catch (SQLException expected) {
+                // Parameter 1 not set
+            }
+        }
+        assertEquals(pool.getStats().getStatementCacheHits(), 1);
+    }
+
+    @Test
+    public void statementsOpenInTheLeaseAreNotEvicted() throws SQLException {
+        ConnectionPool pool = pool(1, 0, 1000, 60_000, 2);
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement first = conn.prepareStatement("SELECT 1");
+            PreparedStatement second = conn.prepareStatement("SELECT 2");
+            PreparedStatement third = conn.prepareStatement("SELECT 3");
+            // More open statements than the cache holds: the oldest must still work
+            for (PreparedStatement ps : new PreparedStatement[]{first, second, third}) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+            first.close();
+            second.close();
+            third.close();
+        }
+        // Trimmed back to two once released, dropping the least recently used
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 2").close();
+            conn.prepareStatement("SELECT 3").close();
+            conn.prepareStatement("SELECT 1").close();
+        }
+        assertEquals(pool.getStats().getStatementCacheMisses(), 4);
+        assertEquals(pool.getStats().getStatementCacheHits(), 2);
+    }
+}
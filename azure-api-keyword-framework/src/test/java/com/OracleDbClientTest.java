@@ -0,0 +1,85 @@
+package com;
+
+import com.config.FrameworkConfig;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Session handling of OracleDbClient, run against an in-memory H2 database.
+ */
+public class OracleDbClientTest {
+
+    private OracleDbClient client;
+
+    @BeforeMethod
+    public void openClient() {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.pool.maxSize", "1");
+        props.setProperty("db.pool.borrowTimeoutMs", "100");
+        client = new OracleDbClient(new FrameworkConfig(props));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void closeClient() {
+        client.close();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void getConnectionReturnsOneLongLivedSessionOutsideThePool() throws SQLException {
+        Connection shared = client.getConnection();
+        assertSame(client.getConnection(), shared);
+
+        // Callers written against the shared session never close it; the pool must not notice
+        for (int i = 0; i < 5; i++) {
+            client.getConnection();
+            try (Connection borrowed = client.borrowConnection()) {
+                assertNotSame(borrowed.unwrap(Connection.class), shared);
+            }
+        }
+        assertEquals(client.getPoolStats().getActive(), 0);
+        assertEquals(client.getPoolStats().getTimeouts(), 0);
+
+        client.close();
+        assertTrue(shared.isClosed());
+    }
+
+    @Test
+    public void borrowConnectionHoldsAPermitUntilClosed() throws SQLException {
+        Connection borrowed = client.borrowConnection();
+        assertThrows(SQLTimeoutException.class, client::borrowConnection);
+        borrowed.close();
+        try (Connection again = client.borrowConnection()) {
+            assertFalse(again.isClosed());
+        }
+    }
+
+    @Test
+    public void queriesReturnTheirSessionToThePool() throws SQLException {
+        client.executeUpdate("CREATE TABLE CARD (PAN VARCHAR(19), STATUS VARCHAR(10))");
+        client.executeUpdate("INSERT INTO CARD VALUES (?, ?)", "4111111111111111", "ACTIVE");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(client.queryForList("SELECT STATUS FROM CARD WHERE PAN = ?", "4111111111111111")
+                    .get(0).get("STATUS"), "ACTIVE");
+        }
+        assertEquals(client.getPoolStats().getActive(), 0);
+        assertEquals(client.getPoolStats().getCreated(), 1);
+    }
+}
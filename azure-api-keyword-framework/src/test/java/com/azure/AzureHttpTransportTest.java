@@ -0,0 +1,161 @@
+package com.azure;
+
+import com.config.FrameworkConfig;
+import com.model.TestCaseData;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Response bodies that stall half way: the read deadline fails them and the request is sent again.
+ */
+public class AzureHttpTransportTest {
+
+    private static final String PAGE = "{\"count\":3,\"value\":["
+            + "{\"workItem\":{\"id\":1,\"name\":\"one\"}},"
+            + "{\"workItem\":{\"id\":2,\"name\":\"two\"}},"
+            + "{\"workItem\":{\"id\":3,\"name\":\"three\"}}]}";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    // Requests served so far; the first stallCount of them stop after half the page
+    private final AtomicInteger served = new AtomicInteger();
+    private volatile int stallCount;
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        served.set(0);
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (served.incrementAndGet() <= stallCount) {
+                    out.write(body, 0, body.length / 2);
+                    out.flush();
+                    Thread.sleep(5000);
+                    return;
+                }
+                out.write(body);
+            } catch (InterruptedException | IOException e) {
+                // Client gave up on the stalled body
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private AzureHttpTransport transport(int maxRetries) {
+        return new AzureHttpTransport(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                Duration.ofMillis(300), maxRetries, 1, 10, 0, 1);
+    }
+
+    private AzureDevOpsClient client() {
+        Properties props = new Properties();
+        props.setProperty("azure.projectUrl", baseUrl() + "/project");
+        props.setProperty("azure.pat", "pat");
+        props.setProperty("azure.planId", "1");
+        props.setProperty("azure.suiteId", "2");
+        FrameworkConfig config = new FrameworkConfig(props);
+        return new AzureDevOpsClient(config, transport(3));
+    }
+
+    private static String readAll(HttpResponse<InputStream> response) throws IOException {
+        return new String(response.body().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Integer> ids(List<TestCaseData> testCases) {
+        return testCases.stream().map(TestCaseData::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void stalledBodyFailsWithinTheRequestTimeout() throws Exception {
+        stallCount = 1;
+        AzureHttpTransport transport = transport(0);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + "/page")).build();
+
+        long start = System.nanoTime();
+        try (InputStream body = transport.send(request).body()) {
+            assertThrows(HttpTimeoutException.class, body::readAllBytes);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3), "read was not cut off");
+    }
+
+    @Test
+    public void stalledBodyIsRequestedAgain() throws Exception {
+        stallCount = 2;
+        AzureHttpTransport transport = transport(3);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + "/page")).build();
+
+        assertEquals(transport.send(request, AzureHttpTransportTest::readAll), PAGE);
+        assertEquals(served.get(), 3);
+        assertEquals(transport.getStats().getIoErrors(), 2);
+        assertEquals(transport.sendAsync(request, AzureHttpTransportTest::readAll, Runnable::run)
+                .get(5, TimeUnit.SECONDS), PAGE);
+    }
+
+    @Test
+    public void stalledBodyFailsOnceRetriesAreUsedUp() {
+        stallCount = Integer.MAX_VALUE;
+        AzureHttpTransport transport = transport(1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + "/page")).build();
+
+        assertThrows(HttpTimeoutException.class, () -> transport.send(request, AzureHttpTransportTest::readAll));
+        assertEquals(served.get(), 2);
+        assertEquals(transport.getStats().getFailures(), 1);
+    }
+
+    @Test
+    public void streamedSuiteReopensAStalledPageWithoutRepeatingTestCases() {
+        stallCount = 1;
+        try (Stream<TestCaseData> testCases = client().streamTestCasesFromConfiguredSuite()) {
+            assertEquals(ids(testCases.collect(Collectors.toList())), List.of(1, 2, 3));
+        }
+        assertEquals(served.get(), 2);
+    }
+
+    @Test
+    public void concurrentSuiteLoadReadsAStalledPageAgain() throws Exception {
+        stallCount = 1;
+        assertEquals(ids(client().loadTestCasesFromSuites(1, Collections.singletonList(2))), List.of(1, 2, 3));
+        assertEquals(served.get(), 2);
+    }
+}
@@ -0,0 +1,95 @@
+package com.azure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.model.TestCaseData;
+import com.model.TestStep;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Cached test cases keep their parsed steps and data rows through a Smile round trip.
+ */
+public class SuiteCacheTest {
+
+    private static final String STEPS = "<steps id=\"0\" last=\"2\">"
+            + "<step id=\"1\" type=\"ActionStep\">"
+            + "<parameterizedString isformatted=\"true\">&lt;DIV&gt;GET /users/@user&lt;/DIV&gt;</parameterizedString>"
+            + "<parameterizedString isformatted=\"true\">&lt;P&gt;200&lt;/P&gt;</parameterizedString>"
+            + "<description/></step>"
+            + "<step id=\"2\" type=\"ValidateStep\">"
+            + "<parameterizedString isformatted=\"true\">check body</parameterizedString>"
+            + "<parameterizedString isformatted=\"true\"></parameterizedString>"
+            + "<description/></step></steps>";
+
+    private static final String DATA_SOURCE = "<NewDataSet>"
+            + "<Table1><user>alice</user><role>admin</role></Table1>"
+            + "<Table1><user>bob</user></Table1></NewDataSet>";
+
+    private static TestCaseData testCase(String stepsXml, String dataSourceXml) {
+        TestCaseData data = new TestCaseData(7, "Users", 1, 10, "Plan", 20, "Suite", "Project", "Design", 2);
+        data.setRevision(3);
+        data.setWorkItemXml(stepsXml, dataSourceXml);
+        return data;
+    }
+
+    private static SuiteCache.CachedTestCase roundTrip(SuiteCache.CachedTestCase cached) throws Exception {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        return smile.readValue(smile.writeValueAsBytes(cached), SuiteCache.CachedTestCase.class);
+    }
+
+    private static void assertSameSteps(List<TestStep> actual, List<TestStep> expected) {
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.get(i).getId(), expected.get(i).getId());
+            assertEquals(actual.get(i).getType(), expected.get(i).getType());
+            assertEquals(actual.get(i).getAction(), expected.get(i).getAction());
+            assertEquals(actual.get(i).getExpected(), expected.get(i).getExpected());
+        }
+    }
+
+    @Test
+    public void parsedStepsAndRowsSurviveTheCache() throws Exception {
+        TestCaseData fresh = testCase(STEPS, DATA_SOURCE);
+        SuiteCache.CachedTestCase cached = roundTrip(SuiteCache.CachedTestCase.from(fresh));
+        assertNull(cached.stepsXml);
+        assertNull(cached.dataSourceXml);
+
+        TestCaseData restored = cached.toTestCase();
+        assertTrue(restored.isContentLoaded());
+        assertEquals(restored.getSteps().size(), 2);
+        assertSameSteps(restored.getSteps(), testCase(STEPS, DATA_SOURCE).getSteps());
+        assertEquals(restored.getDataRows(), testCase(STEPS, DATA_SOURCE).getDataRows());
+        assertEquals(restored.getDataRows().get(1), Map.of("user", "bob"));
+        assertEquals(restored.getRevision(), 3);
+    }
+
+    @Test
+    public void xmlThatDoesNotParseIsKeptRawAndFailsWhenRead() throws Exception {
+        SuiteCache.CachedTestCase cached = roundTrip(SuiteCache.CachedTestCase.from(testCase("<steps><step", DATA_SOURCE)));
+        assertNull(cached.steps);
+        assertEquals(cached.stepsXml, "<steps><step");
+        assertNotNull(cached.rows);
+
+        TestCaseData restored = cached.toTestCase();
+        assertThrows(IllegalStateException.class, restored::getSteps);
+        assertEquals(restored.getDataRows().size(), 2);
+    }
+
+    @Test
+    public void cacheDirectoryDependsOnTheProjectUrl() {
+        String key = SuiteCache.projectKey("https://dev.azure.com/org/project");
+        assertEquals(SuiteCache.projectKey("https://dev.azure.com/org/project/"), key);
+        assertNotEquals(SuiteCache.projectKey("https://dev.azure.com/other/project"), key);
+        assertEquals(key.length(), "project-".length() + 16);
+    }
+}
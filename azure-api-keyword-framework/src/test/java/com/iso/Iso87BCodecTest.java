@@ -0,0 +1,119 @@
+package com.iso;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+
+/**
+ * ISO87B packing against the byte layout of jPOS's ISO87BPackager.
+ */
+public class Iso87BCodecTest {
+
+    private static String repeat(char c, int count) {
+        return String.valueOf(c).repeat(count);
+    }
+
+    @Test
+    public void fieldsAreLaidOutLikeIso87BPackager() {
+        IsoMessage msg = new IsoMessage("0200")
+                .set(2, "4111111111111111123")
+                .set(3, "1")
+                .set(28, "C00000150")
+                .set(35, "41=12")
+                .set(36, "12345")
+                .set(41, "T1");
+
+        assertEquals(Iso87BCodec.toHex(Iso87BCodec.pack(msg)), "0200"
+                // Primary bitmap: DE2, 3, 28, 35, 36, 41
+                + "6000001030800000"
+                // LLNUM: BCD length, digits right-padded with a zero nibble
+                + "19" + "41111111111111111230"
+                // Fixed numeric, left-padded
+                + "000001"
+                // Amount: ASCII sign, BCD digits
+                + "43" + "00000150"
+                // Track 2: '=' is the D nibble
+                + "05" + "41D120"
+                // LLLNUM: two BCD length bytes
+                + "0005" + "123450"
+                // Fixed ASCII, space-padded
+                + "5431202020202020");
+    }
+
+    @Test
+    public void packAndUnpackRoundTripWithSecondaryBitmap() {
+        IsoMessage msg = new IsoMessage("0200")
+                .set(2, "4111111111111111")
+                .set(3, "000000")
+                .set(4, "000000001000")
+                .set(11, "000042")
+                .set(29, "D00000099")
+                .set(35, "4111111111111111=251210")
+                .set(36, repeat('7', 104))
+                .set(41, "TERM0001")
+                .set(48, "private data")
+                .set(52, new byte[] {1, 2, 3, 4, 5, 6, 7, 8})
+                .set(55, new byte[] {(byte) 0x9F, 0x26, 0x02, 0x00, (byte) 0xFF})
+                .set(102, "ACC-1")
+                .set(104, repeat('x', 100))
+                .set(128, "0102030405060708");
+
+        byte[] packed = Iso87BCodec.pack(msg);
+        // Secondary bitmap flag
+        assertEquals(packed[2] & 0x80, 0x80);
+
+        IsoMessage back = Iso87BCodec.unpack(packed, 0, packed.length);
+        assertEquals(back.getMti(), "0200");
+        for (int de : new int[] {2, 3, 4, 11, 29, 35, 36, 41, 48, 52, 55, 102, 104, 128}) {
+            assertEquals(back.getString(de), msg.getString(de), "DE" + de);
+        }
+        assertFalse(back.has(1));
+        assertFalse(back.has(65));
+    }
+
+    @Test
+    public void packCanReserveRoomForAFramePrefix() {
+        IsoMessage msg = new IsoMessage("0800").set(11, "1").set(70, "301");
+        byte[] plain = Iso87BCodec.pack(msg);
+        byte[] reserved = Iso87BCodec.pack(msg, 7);
+
+        assertEquals(reserved.length, plain.length + 7);
+        assertEquals(Iso87BCodec.unpack(reserved, 7, plain.length).getString(70), "301");
+    }
+
+    @Test
+    public void valuesThatDoNotFitAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(2, repeat('4', 20))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(36, repeat('1', 105))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(104, repeat('x', 101))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(4, "12a")));
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(28, "X00000001")));
+        assertThrows(IllegalArgumentException.class,
+                () -> Iso87BCodec.pack(new IsoMessage("0200").set(52, "0102")));
+        assertThrows(IllegalArgumentException.class, () -> Iso87BCodec.pack(new IsoMessage("200")));
+    }
+
+    @Test
+    public void truncatedMessageIsRejected() {
+        byte[] packed = Iso87BCodec.pack(new IsoMessage("0200").set(2, "4111111111111111").set(41, "TERM0001"));
+        assertThrows(IllegalArgumentException.class, () -> Iso87BCodec.unpack(packed, 0, packed.length - 3));
+    }
+
+    @Test
+    public void matchKeyPadsStanAndTerminalLikeTheUnpackedResponse() {
+        IsoMessage request = new IsoMessage("0200").set(11, "42").set(41, "T1");
+        byte[] packed = Iso87BCodec.pack(request);
+        IsoMessage response = Iso87BCodec.unpack(packed, 0, packed.length);
+
+        assertEquals(IsoChannel.matchKey(request), "000042|T1      ");
+        assertEquals(IsoChannel.matchKey(response), IsoChannel.matchKey(request));
+        assertEquals(IsoChannel.matchKey(new IsoMessage("0800").set(11, "000001")), "000001|");
+    }
+}
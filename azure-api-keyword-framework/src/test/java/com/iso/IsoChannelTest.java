@@ -0,0 +1,172 @@
+package com.iso;
+
+import com.standin.IsoSwitchStandIn;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * IsoChannel against IsoSwitchStandIn over loopback: matching, timeouts, large frames, reconnects.
+ */
+public class IsoChannelTest {
+
+    private static final byte[] TPDU = Iso87BCodec.fromHex("6000010000");
+
+    private IsoSwitchStandIn standIn;
+    private IsoChannel channel;
+
+    @AfterMethod(alwaysRun = true)
+    public void close() {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        if (standIn != null) {
+            standIn.close();
+            standIn = null;
+        }
+    }
+
+    private void open(IsoSwitchStandIn.Options options, long timeoutMs, int readBufferSize) throws IOException {
+        standIn = IsoSwitchStandIn.start(options);
+        channel = new IsoChannel("127.0.0.1", standIn.getPort(), 1, 64, timeoutMs, 2000, TPDU, readBufferSize);
+    }
+
+    private static IsoMessage authorization(String terminal) {
+        return new IsoMessage("0200")
+                .set(2, "4111111111111111")
+                .set(3, "000000")
+                .set(4, "000000001000")
+                .set(41, terminal);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "Condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void pipelinedResponsesComeBackOutOfOrderAndMatchByStanAndTerminal() throws Exception {
+        open(new IsoSwitchStandIn.Options().latencyJitterMs(30), 5000, 64 * 1024);
+
+        List<IsoMessage> requests = new ArrayList<>();
+        List<CompletableFuture<IsoMessage>> futures = new ArrayList<>();
+        ConcurrentLinkedQueue<Integer> completed = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 40; i++) {
+            // Each STAN used by two terminals: only DE11 together with DE41 tells them apart
+            IsoMessage request = authorization("TERM000" + (i % 2)).set(11, String.valueOf(1000 + i / 2));
+            int index = i;
+            requests.add(request);
+            futures.add(channel.send(request).whenComplete((response, e) -> completed.add(index)));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            IsoMessage response = futures.get(i).get(5, TimeUnit.SECONDS);
+            IsoMessage request = requests.get(i);
+            assertEquals(response.getMti(), "0210");
+            assertEquals(response.getString(11), "00" + request.getString(11));
+            assertEquals(response.getString(41), request.getString(41));
+            assertEquals(response.getString(38), "A0" + (1000 + i / 2));
+            assertEquals(response.getString(39), "00");
+        }
+
+        List<Integer> order = new ArrayList<>(completed);
+        List<Integer> sorted = new ArrayList<>(order);
+        sorted.sort(null);
+        assertNotEquals(order, sorted, "responses were expected out of order");
+        assertEquals(channel.getReceivedCount(), 40);
+        assertEquals(channel.getUnmatchedCount(), 0);
+        assertEquals(channel.getInFlight(), 0);
+        // Answered requests do not wait for their deadline to be let go
+        assertEquals(channel.getDeadlineCount(), 0);
+    }
+
+    @Test
+    public void unansweredRequestTimesOutAndFreesItsSlot() throws Exception {
+        open(new IsoSwitchStandIn.Options().dropEvery(2), 200, 64 * 1024);
+
+        assertEquals(channel.exchange(authorization("TERM0001")).getString(39), "00");
+        assertThrows(TimeoutException.class, () -> channel.exchange(authorization("TERM0001")));
+        assertEquals(channel.exchange(authorization("TERM0001")).getString(39), "00");
+
+        assertEquals(channel.getTimeoutCount(), 1);
+        assertEquals(channel.getReceivedCount(), 2);
+        assertEquals(channel.getInFlight(), 0);
+    }
+
+    @Test
+    public void responseAfterTheTimeoutIsCountedAsUnmatched() throws Exception {
+        open(new IsoSwitchStandIn.Options().latencyMs(300), 50, 64 * 1024);
+
+        assertThrows(TimeoutException.class, () -> channel.exchange(authorization("TERM0001")));
+        await(() -> channel.getUnmatchedCount() == 1);
+        assertEquals(channel.getReceivedCount(), 0);
+    }
+
+    @Test
+    public void responseLargerThanTheReadBufferGrowsIt() throws Exception {
+        open(new IsoSwitchStandIn.Options(), 5000, 256);
+
+        String text = "0123456789".repeat(99) + "abcdefghi";
+        IsoMessage request = authorization("TERM0001").set(48, text).set(62, text).set(120, text);
+        IsoMessage response = channel.exchange(request);
+        assertEquals(response.getString(48), text);
+        assertEquals(response.getString(62), text);
+        assertEquals(response.getString(120), text);
+
+        // Small frames keep flowing through the grown buffer
+        for (int i = 0; i < 5; i++) {
+            assertEquals(channel.exchange(authorization("TERM0001")).getString(39), "00");
+        }
+        assertEquals(channel.getUnmatchedCount(), 0);
+    }
+
+    @Test
+    public void refusedConnectionFailsTheConstructor() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        assertThrows(UncheckedIOException.class, () -> new IsoChannel("127.0.0.1", port, 2, 8, 1000, 2000, TPDU));
+    }
+
+    @Test
+    public void droppedConnectionFailsItsRequestsAndIsReconnected() throws Exception {
+        open(new IsoSwitchStandIn.Options().latencyMs(2000), 5000, 64 * 1024);
+        int port = standIn.getPort();
+        CompletableFuture<IsoMessage> outstanding = channel.send(authorization("TERM0001"));
+
+        standIn.close();
+        standIn = IsoSwitchStandIn.start(new IsoSwitchStandIn.Options().port(port));
+        try {
+            outstanding.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("expected the request to fail with the connection");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException, String.valueOf(e.getCause()));
+        }
+        assertEquals(channel.getDeadlineCount(), 0);
+
+        // Reconnects are at most once a second after the last attempt
+        Thread.sleep(1100);
+        assertEquals(channel.exchange(authorization("TERM0001")).getString(39), "00");
+        assertEquals(channel.getReconnectCount(), 1);
+    }
+}
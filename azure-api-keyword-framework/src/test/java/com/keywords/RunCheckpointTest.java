@@ -0,0 +1,136 @@
+package com.keywords;
+
+import com.model.ExecutionReport;
+import com.model.StepStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * RunCheckpoint files: reopening, torn writes and resuming into the wrong run.
+ */
+public class RunCheckpointTest {
+
+    private Path dir;
+    private Path file;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("checkpoint");
+        file = dir.resolve("checkpoint.jsonl");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void interruptedRun() {
+        try (RunCheckpoint checkpoint = new RunCheckpoint(file, false, 7, 3)) {
+            checkpoint.rowCompleted(100, 0, null, null, 1000);
+            checkpoint.rowCompleted(100, 1, null, new AssertionError("amount mismatch"), 1100);
+            checkpoint.caseCompleted(100, new AssertionError("amount mismatch"), 1000);
+            checkpoint.rowCompleted(200, 0, null, null, 2000);
+        }
+    }
+
+    @Test
+    public void resumeLoadsFinishedRowsAndCases() {
+        interruptedRun();
+        try (RunCheckpoint checkpoint = new RunCheckpoint(file, true, 7, 3)) {
+            assertTrue(checkpoint.isResuming());
+            RunCheckpoint.CaseState done = checkpoint.getResumed(100);
+            assertTrue(done.isComplete());
+            assertEquals(done.getRowCount(), 2);
+            assertEquals(done.getError(), "amount mismatch");
+
+            RunCheckpoint.CaseState partial = checkpoint.getResumed(200);
+            assertFalse(partial.isComplete());
+            assertTrue(partial.isRowDone(0));
+            assertFalse(partial.isRowDone(1));
+            assertNull(partial.getError());
+            assertNull(checkpoint.getResumed(300));
+
+            ExecutionReport report = done.toReport();
+            assertEquals(report.testCaseId, 100);
+            assertEquals(report.startTimeMillis, 1000);
+        }
+    }
+
+    @Test
+    public void caseThatFailedBeforeAnyRowIsPublishedAsFailed() {
+        try (RunCheckpoint checkpoint = new RunCheckpoint(file, false, 7, 3)) {
+            checkpoint.caseCompleted(300, new IllegalStateException("Unknown keyword: API_PUT"), 4000);
+        }
+        ExecutionReport report = RunCheckpoint.read(file, 7, 3).get(300).toReport();
+        assertTrue(report.iterations.isEmpty());
+        assertEquals(report.getOverallStatus(), StepStatus.FAILED);
+        assertEquals(report.getFirstErrorMessage(), "Unknown keyword: API_PUT");
+    }
+
+    @Test
+    public void withoutResumeTheCheckpointStartsAfresh() {
+        interruptedRun();
+        try (RunCheckpoint checkpoint = new RunCheckpoint(file, false, 7, 3)) {
+            assertFalse(checkpoint.isResuming());
+        }
+        assertTrue(RunCheckpoint.read(file, 7, 3).isEmpty());
+    }
+
+    @Test
+    public void tornLastLineIsIgnoredAndCutOffOnResume() throws IOException {
+        interruptedRun();
+        // Process killed in the middle of writing a record
+        Files.write(file, "{\"type\":\"row\",\"testCaseId\":200,\"ro".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        assertEquals(RunCheckpoint.read(file, 7, 3).get(200).getRowCount(), 1);
+
+        try (RunCheckpoint checkpoint = new RunCheckpoint(file, true, 7, 3)) {
+            assertEquals(checkpoint.getResumed(200).getRowCount(), 1);
+            checkpoint.rowCompleted(200, 1, null, null, 3000);
+            checkpoint.caseCompleted(200, null, 2000);
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        // Header, the interrupted run's 4 records and this run's 2, each a whole line
+        assertEquals(lines.size(), 7);
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.endsWith("}")), lines.toString());
+        Map<Integer, RunCheckpoint.CaseState> states = RunCheckpoint.read(file, 7, 3);
+        assertTrue(states.get(200).isComplete());
+        assertEquals(states.get(200).getRowCount(), 2);
+    }
+
+    @Test
+    public void tornLineBeforeTheEndIsCorruption() throws IOException {
+        interruptedRun();
+        Files.write(file, "{\"type\":\"ro\n{\"type\":\"case\",\"testCaseId\":200}\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        assertThrows(IllegalStateException.class, () -> RunCheckpoint.read(file, 7, 3));
+    }
+
+    @Test
+    public void resumeIntoAnotherRunOrPlanIsRefusedAndLeavesTheFile() throws IOException {
+        interruptedRun();
+        byte[] before = Files.readAllBytes(file);
+        assertThrows(IllegalStateException.class, () -> new RunCheckpoint(file, true, 8, 3));
+        assertThrows(IllegalStateException.class, () -> new RunCheckpoint(file, true, 7, 4));
+        assertEquals(Files.readAllBytes(file), before);
+    }
+}
@@ -0,0 +1,122 @@
+package com.keywords;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.model.DataTable;
+import com.model.RowSchema;
+import com.model.TestCaseData;
+import com.model.TestStep;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Parameter scanning, binding and rendering of StepTemplate.
+ */
+public class StepTemplateTest {
+
+    private static DataTable table(String... columnsThenValues) {
+        int columns = columnsThenValues.length / 2;
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns; i++) {
+            row.put(columnsThenValues[i], columnsThenValues[columns + i]);
+        }
+        DataTable table = new DataTable();
+        table.add(row);
+        return table;
+    }
+
+    @Test
+    public void parametersAreScannedWithoutTakingMailAddressesOrEscapes() {
+        StepTemplate template = StepTemplate.compile(
+                "Send @amount to ops@bank.com (@@fee) for @card_1, @ alone, @9x", null, null);
+        assertEquals(template.getParameters(), Arrays.asList("amount", "card_1"));
+
+        Map<String, String> row = Map.of("amount", "12.50", "card_1", "4111");
+        assertEquals(template.render(row), "Send 12.50 to ops@bank.com (@fee) for 4111, @ alone, @9x");
+    }
+
+    @Test
+    public void parametersBindToColumnsIgnoringCase() {
+        DataTable table = table("Amount", "PAN", "12.50", "4111");
+        List<String> missing = new ArrayList<>();
+        StepTemplate template = StepTemplate.compile("pay @amount with @pan", table.getSchema(), missing);
+
+        assertTrue(missing.isEmpty(), missing.toString());
+        // Bound to the columns' own spelling
+        assertEquals(template.getParameters(), Arrays.asList("Amount", "PAN"));
+        assertEquals(template.render(table.get(0)), "pay 12.50 with 4111");
+        // A plain Map row is looked up by column name
+        assertEquals(template.render(Map.of("Amount", "1", "PAN", "2")), "pay 1 with 2");
+    }
+
+    @Test
+    public void exactColumnWinsOverOneThatOnlyDiffersInCase() {
+        DataTable table = table("pan", "PAN", "lower", "upper");
+        StepTemplate template = StepTemplate.compile("@PAN/@pan", table.getSchema(), null);
+        assertEquals(template.render(table.get(0)), "upper/lower");
+    }
+
+    @Test
+    public void unknownParametersAreReportedAndRenderEmpty() {
+        DataTable table = table("amount", "5");
+        List<String> missing = new ArrayList<>();
+        StepTemplate template = StepTemplate.compile("pay @amount to @payee", table.getSchema(), missing);
+
+        assertEquals(missing, Collections.singletonList("@payee"));
+        assertEquals(template.render(table.get(0)), "pay 5 to ");
+    }
+
+    @Test
+    public void withoutDataColumnsTheTextStaysAsWritten() {
+        List<String> missing = new ArrayList<>();
+        StepTemplate template = StepTemplate.compile("mail @support or a@@b", new RowSchema(), missing);
+
+        assertTrue(missing.isEmpty(), missing.toString());
+        assertTrue(template.isConstant());
+        assertEquals(template.render(Collections.emptyMap()), "mail @support or a@@b");
+    }
+
+    @Test
+    public void constantTextRendersTheSameString() {
+        StepTemplate template = StepTemplate.compile("no parameters here", null, null);
+        assertTrue(template.isConstant());
+        assertSame(template.render(Map.of("x", "y")), template.render(Collections.emptyMap()));
+    }
+
+    @Test
+    public void htmlTemplateEscapesTextAndValuesAndKeepsLineBreaks() {
+        DataTable table = table("limit", "<5 & >1");
+        StepTemplate template = StepTemplate.compileHtml("Action: check a<b @limit\nExpected: \"ok\"",
+                table.getSchema(), null);
+
+        assertFalse(template.isConstant());
+        assertEquals(template.render(table.get(0)),
+                "Action: check a&lt;b &lt;5 &amp; &gt;1<br/>Expected: &quot;ok&quot;");
+    }
+
+    @Test
+    public void contextOutsideAPlanBindsLikeThePlan() {
+        TestCaseData dataDriven = new TestCaseData(1, "data driven");
+        dataDriven.addDataRow(Map.of("amount", "5"));
+        TestStep step = new TestStep(1, "ActionStep", "pay @Amount to @support", "");
+        KeywordContext ctx = new KeywordContext(dataDriven, step, dataDriven.getDataRows().get(0), null, null,
+                (ExtentTest) null);
+        assertEquals(ctx.getAction(), "pay 5 to ");
+
+        // No data source: nothing is a parameter, whatever the row holds
+        TestCaseData plain = new TestCaseData(2, "plain");
+        ctx = new KeywordContext(plain, new TestStep(1, "ActionStep", "mail @support", ""), Map.of("support", "x"),
+                null, null, (ExtentTest) null);
+        assertEquals(ctx.getAction(), "mail @support");
+    }
+}
@@ -0,0 +1,138 @@
+package com.model;
+
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * TestCaseSharder.partition: the same shards whatever the load order, every case in exactly one, balanced by weight.
+ */
+public class TestCaseSharderTest {
+
+    /**
+     * Test cases 1..count with 1 to 5 steps and 1 to 7 data rows (rows weight = steps x rows).
+     */
+    private static List<TestCaseData> testCases(int count) {
+        List<TestCaseData> testCases = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            TestCaseData testCase = new TestCaseData(id, "case " + id);
+            for (int s = 0; s < 1 + id % 5; s++) {
+                testCase.addStep(new TestStep(s + 1, "ActionStep", "API_GET /" + s, ""));
+            }
+            for (int r = 0; r < 1 + (id * 3) % 7; r++) {
+                testCase.addDataRow(Map.of("row", String.valueOf(r)));
+            }
+            testCases.add(testCase);
+        }
+        return testCases;
+    }
+
+    private static List<Set<Integer>> ids(List<List<TestCaseData>> shards) {
+        return shards.stream()
+                .map(shard -> shard.stream().map(TestCaseData::getId).collect(Collectors.toCollection(TreeSet::new)))
+                .collect(Collectors.toList());
+    }
+
+    private static long weight(List<TestCaseData> shard) {
+        long total = 0;
+        for (TestCaseData testCase : shard) {
+            total += (long) testCase.getDataTable().size() * testCase.getSteps().size();
+        }
+        return total;
+    }
+
+    @Test
+    public void shuffledInputGivesTheSamePartition() {
+        List<TestCaseData> testCases = testCases(60);
+        TestCaseSharder sharder = new TestCaseSharder(0, 4, TestCaseSharder.Weight.ROWS, null);
+        List<Set<Integer>> expected = ids(sharder.partition(testCases));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10; i++) {
+            List<TestCaseData> shuffled = new ArrayList<>(testCases);
+            Collections.shuffle(shuffled, random);
+            assertEquals(ids(sharder.partition(shuffled)), expected);
+        }
+    }
+
+    @Test
+    public void everyCaseIsInExactlyOneShardInItsOriginalOrder() {
+        List<TestCaseData> testCases = testCases(37);
+        Collections.shuffle(testCases, new Random(7));
+        List<List<TestCaseData>> shards = new TestCaseSharder(0, 5, TestCaseSharder.Weight.ROWS, null)
+                .partition(testCases);
+
+        assertEquals(shards.size(), 5);
+        Set<TestCaseData> seen = new HashSet<>();
+        for (List<TestCaseData> shard : shards) {
+            for (TestCaseData testCase : shard) {
+                assertTrue(seen.add(testCase), "case " + testCase.getId() + " in two shards");
+            }
+            List<TestCaseData> inInputOrder = new ArrayList<>(shard);
+            inInputOrder.sort((a, b) -> testCases.indexOf(a) - testCases.indexOf(b));
+            assertEquals(shard, inInputOrder);
+        }
+        assertEquals(seen, new HashSet<>(testCases));
+    }
+
+    @Test
+    public void shardsAreBalancedByWeight() {
+        List<TestCaseData> testCases = testCases(50);
+        long heaviest = 0;
+        for (TestCaseData testCase : testCases) {
+            heaviest = Math.max(heaviest, weight(Collections.singletonList(testCase)));
+        }
+        List<List<TestCaseData>> shards = new TestCaseSharder(0, 4, TestCaseSharder.Weight.ROWS, null)
+                .partition(testCases);
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (List<TestCaseData> shard : shards) {
+            min = Math.min(min, weight(shard));
+            max = Math.max(max, weight(shard));
+        }
+        // Greedy onto the lightest shard: no shard ends more than one case heavier than another
+        assertTrue(max - min <= heaviest, "loads from " + min + " to " + max + ", heaviest case " + heaviest);
+    }
+
+    @Test
+    public void durationWeightsComeFromTheHistoryWithTheMedianForNewCases() throws Exception {
+        Path dir = Files.createTempDirectory("sharder");
+        DurationHistory history = new DurationHistory(dir.resolve("durations.json"), 1.0);
+        history.record(1, 9000, false);
+        history.record(2, 1000, false);
+        history.record(3, 3000, false);
+        List<TestCaseData> testCases = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            testCases.add(new TestCaseData(id, "case " + id));
+        }
+        TestCaseSharder sharder = new TestCaseSharder(0, 2, TestCaseSharder.Weight.DURATION, history);
+
+        // Case 4 has no history and weighs the median, 3000
+        assertEquals(sharder.weights(testCases), new long[]{9000, 1000, 3000, 3000});
+        assertEquals(ids(sharder.partition(testCases)), List.of(Set.of(1), Set.of(2, 3, 4)));
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    public void shardIndexMustBeInRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TestCaseSharder(2, 2, TestCaseSharder.Weight.ROWS, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TestCaseSharder(0, 2, TestCaseSharder.Weight.DURATION, null));
+    }
+}
@@ -0,0 +1,82 @@
+package com.parser;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * HtmlTextNormalizer against the regex chain AzureStepParser used before it.
+ */
+public class HtmlTextNormalizerTest {
+
+    // ---- The previous regex implementation, as reference ----
+
+    private static String regexPlainText(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        String html = raw.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'");
+        String text = html.replaceAll("(?i)<br\\s*/?>", "\n");
+        text = text.replaceAll("<[^>]+>", " ");
+        text = text.replaceAll("[ \\t\\x0B\\f\\r]+", " ");
+        text = text.replaceAll("\\n\\s+", "\n");
+        return text.trim();
+    }
+
+    @DataProvider
+    public Object[][] sameAsRegex() {
+        return new Object[][]{
+                {"<DIV><P>Customer goes to an OFFUS ATM supporting NFC</P></DIV>"},
+                {"<DIV><P><BR/></P></DIV>"},
+                {"&lt;DIV&gt;&lt;P&gt;Test Automation Step&lt;/P&gt;&lt;/DIV&gt;"},
+                {"<P>{\\n\\t\\\"header\\\": \\\"ISO026000070\\\"}\\n</P>"},
+                // Line breaks in every spelling, with whitespace around them
+                {"line 1<br>line 2<BR/>line 3<br />  line 4 <Br\t/>\n\n  line 5"},
+                {"&lt;br&gt;escaped&lt;BR/&gt;breaks"},
+                // Nested and attributed tags
+                {"<div class=\"x\"><span style=\"color:red\"><b>API_GET</b></span>  /cards\t200</div>"},
+                {"<ul><li>one</li><li>two</li></ul>"},
+                // Entities
+                {"a &amp; b &quot;c&quot; &apos;d&apos; 1 &lt; 2"},
+                {"&amp;lt;P&amp;gt; stays escaped once"},
+                {"AT&T &unknown; &"},
+                // Brackets that are not tags
+                {"if a < b then"},
+                {"a <> b"},
+                {"x > y"},
+                {"  \t \r\n "},
+                {""},
+        };
+    }
+
+    @Test(dataProvider = "sameAsRegex")
+    public void plainTextMatchesTheRegexChain(String html) {
+        assertEquals(HtmlTextNormalizer.toPlainText(html), regexPlainText(html));
+    }
+
+    @Test
+    public void nullIsEmpty() {
+        assertEquals(HtmlTextNormalizer.toPlainText(null), "");
+    }
+
+    @Test
+    public void nbspAndNumericEntitiesAreDecodedUnlikeTheRegexChain() {
+        // The regex chain left these as written
+        assertEquals(regexPlainText("a&nbsp;&nbsp;b &#65;&#x42;"), "a&nbsp;&nbsp;b &#65;&#x42;");
+
+        assertEquals(HtmlTextNormalizer.toPlainText("a&nbsp;&nbsp;b &#65;&#x42;"), "a b AB");
+        assertEquals(HtmlTextNormalizer.toPlainText("<P>&nbsp;</P><P>text  here&#160;</P>"), "text here");
+    }
+
+    @Test
+    public void tokensSplitOnAnyWhitespace() {
+        String text = HtmlTextNormalizer.toPlainText("<P>API_GET&nbsp;/cards<BR/>200</P>");
+        assertEquals(HtmlTextNormalizer.tokens(text), new String[]{"API_GET", "/cards", "200"});
+        assertEquals(HtmlTextNormalizer.tokens(""), new String[0]);
+    }
+}
@@ -0,0 +1,148 @@
+package com.parser;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * WorkItemXmlParser against the DOM parsing it replaced (getElementsByTagName + getTextContent).
+ */
+public class WorkItemXmlParserTest {
+
+    // ---- The previous DOM implementation, as reference ----
+
+    private static Document dom(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(false);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<List<String>> domSteps(String xml) throws Exception {
+        List<List<String>> steps = new ArrayList<>();
+        NodeList stepNodes = dom(xml).getElementsByTagName("step");
+        for (int i = 0; i < stepNodes.getLength(); i++) {
+            Element step = (Element) stepNodes.item(i);
+            NodeList params = step.getElementsByTagName("parameterizedString");
+            String action = params.getLength() > 0 ? params.item(0).getTextContent() : "";
+            String expected = params.getLength() > 1 ? params.item(1).getTextContent() : "";
+            steps.add(Arrays.asList(step.getAttribute("id"), step.getAttribute("type"), action, expected));
+        }
+        return steps;
+    }
+
+    private static List<Map<String, String>> domRows(String xml) throws Exception {
+        List<Map<String, String>> rows = new ArrayList<>();
+        NodeList tables = dom(xml).getElementsByTagName("Table1");
+        for (int i = 0; i < tables.getLength(); i++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            NodeList children = tables.item(i).getChildNodes();
+            for (int j = 0; j < children.getLength(); j++) {
+                Node n = children.item(j);
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    row.put(((Element) n).getTagName(), n.getTextContent());
+                }
+            }
+            if (!row.isEmpty()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<List<String>> staxSteps(String xml) throws Exception {
+        List<List<String>> steps = new ArrayList<>();
+        WorkItemXmlParser.parseSteps(xml, (id, type, action, expected) ->
+                steps.add(Arrays.asList(id, type, action, expected)));
+        return steps;
+    }
+
+    @DataProvider
+    public Object[][] stepsXml() {
+        return new Object[][]{
+                // Azure's usual shape: HTML escaped inside the XML text
+                {"<steps id=\"0\" last=\"3\">"
+                        + "<step id=\"2\" type=\"ActionStep\">"
+                        + "<parameterizedString isformatted=\"true\">&lt;DIV&gt;&lt;P&gt;API_GET /cards&lt;BR/&gt;200&lt;/P&gt;&lt;/DIV&gt;</parameterizedString>"
+                        + "<parameterizedString isformatted=\"true\">&lt;DIV&gt;&lt;P&gt;&lt;BR/&gt;&lt;/P&gt;&lt;/DIV&gt;</parameterizedString>"
+                        + "<description/></step>"
+                        + "<step id=\"3\" type=\"ValidateStep\">"
+                        + "<parameterizedString isformatted=\"true\">a &amp;amp; b &amp;nbsp;&amp;#65; &quot;q&quot; &apos;s&apos;</parameterizedString>"
+                        + "<parameterizedString isformatted=\"true\"/>"
+                        + "<description/></step></steps>"},
+                // Real (unescaped) tags nested in the text, CDATA, whitespace, a missing expected result
+                {"<steps id=\"0\" last=\"3\">\n  <step id=\"1\" type=\"ActionStep\">\n"
+                        + "    <parameterizedString isformatted=\"true\"><DIV>outer <B>bold</B> tail</DIV></parameterizedString>\n"
+                        + "    <parameterizedString isformatted=\"true\"><![CDATA[<P>cdata & more</P>]]></parameterizedString>\n"
+                        + "  </step>\n  <step id=\"3\" type=\"ActionStep\">\n"
+                        + "    <parameterizedString isformatted=\"true\">  only action  </parameterizedString>\n"
+                        + "  </step>\n</steps>"},
+                // Shared step reference: steps inside <compref>
+                {"<steps id=\"0\" last=\"5\"><compref id=\"4\" ref=\"77\">"
+                        + "<step id=\"5\" type=\"ActionStep\"><parameterizedString>inner</parameterizedString>"
+                        + "<parameterizedString>x</parameterizedString></step></compref>"
+                        + "<step id=\"6\" type=\"ActionStep\"><parameterizedString>after</parameterizedString>"
+                        + "<parameterizedString>y</parameterizedString></step></steps>"},
+                {"<steps id=\"0\" last=\"0\"/>"},
+        };
+    }
+
+    @Test(dataProvider = "stepsXml")
+    public void stepsMatchTheDomParser(String xml) throws Exception {
+        assertEquals(staxSteps(xml), domSteps(xml));
+    }
+
+    @DataProvider
+    public Object[][] dataSourceXml() {
+        return new Object[][]{
+                // As Azure stores it: inline schema, then one Table1 per row
+                {"<NewDataSet><xs:schema id=\"NewDataSet\" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                        + "<xs:element name=\"Table1\"><xs:complexType><xs:sequence>"
+                        + "<xs:element name=\"pan\" type=\"xs:string\" minOccurs=\"0\"/>"
+                        + "</xs:sequence></xs:complexType></xs:element></xs:schema>"
+                        + "<Table1><pan>4111</pan><amount>12.50</amount></Table1>"
+                        + "<Table1><pan>5500</pan></Table1></NewDataSet>"},
+                // Entities, empty and nested values, whitespace between elements
+                {"<NewDataSet>\n  <Table1>\n    <memo>a &amp; b &lt;c&gt;</memo>\n    <empty/>\n"
+                        + "    <nested>x<i>y</i>z</nested>\n  </Table1>\n</NewDataSet>"},
+                // Empty Table1 rows are skipped
+                {"<NewDataSet><Table1/><Table1>  </Table1><Table1><a>1</a></Table1></NewDataSet>"},
+                // No Table1 at all
+                {"<NewDataSet><xs:schema id=\"NewDataSet\" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"/></NewDataSet>"},
+                {"<NewDataSet/>"},
+        };
+    }
+
+    @Test(dataProvider = "dataSourceXml")
+    public void dataRowsMatchTheDomParser(String xml) throws Exception {
+        assertEquals(WorkItemXmlParser.parseDataSource(xml), domRows(xml));
+    }
+
+    @Test
+    public void emptyAndMissingTable1GiveNoRows() throws Exception {
+        assertTrue(WorkItemXmlParser.parseDataSource("<NewDataSet><Table1/></NewDataSet>").isEmpty());
+        assertTrue(WorkItemXmlParser.parseDataSource("<NewDataSet/>").isEmpty());
+    }
+
+    @Test
+    public void externalEntitiesAreNotResolved() {
+        String xml = "<!DOCTYPE NewDataSet [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<NewDataSet><Table1><a>&x;</a></Table1></NewDataSet>";
+        assertThrows(Exception.class, () -> WorkItemXmlParser.parseDataSource(xml));
+    }
+}
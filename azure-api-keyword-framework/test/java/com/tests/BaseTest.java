@@ -2,34 +2,168 @@ package com.tests;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.azure.AzureDevOpsClient;
+import com.azure.AzureResultPublisher;
 import com.config.FrameworkConfig;
+import com.iso.IsoChannel;
 import com.OracleDbClient;
+import com.keywords.DataRowRunner;
+import com.keywords.RunCheckpoint;
+import com.model.DurationHistory;
+import com.model.TestCaseScheduler;
 import com.reporting.ExtentManager;
+import com.reporting.JournalRenderer;
+import com.reporting.KeywordMetrics;
+import com.reporting.ReportSink;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeSuite;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class BaseTest {
 
     protected static FrameworkConfig config;
     protected static AzureDevOpsClient azureClient;
     protected static OracleDbClient dbClient;
     protected static ExtentReports extent;
+    protected static DataRowRunner rowRunner;
+    protected static AzureResultPublisher resultPublisher;
+    protected static KeywordMetrics metrics;
+    protected static ReportSink reportSink;
+    protected static RunCheckpoint checkpoint;
+    protected static DurationHistory durationHistory;
+    protected static TestCaseScheduler scheduler;
+    protected static IsoChannel isoChannel;
 
     @BeforeSuite(alwaysRun = true)
     public void beforeSuite() {
         config = new FrameworkConfig();
         extent = ExtentManager.createInstance(config.getReportPath());
+        reportSink = new ReportSink(config, extent);
         azureClient = new AzureDevOpsClient(config);
         dbClient = new OracleDbClient(config);
+        rowRunner = new DataRowRunner(config);
+        // One pipelined switch connection set for every ISO_SEND step of the suite
+        isoChannel = config.getIsoHost().isEmpty() ? null : new IsoChannel(config);
+        if (config.getShardCount() > 1) {
+            // ShardMerger merges the shards' journals and publishes / checks their checkpointed results
+            if (!config.isReportJournalEnabled()) {
+                throw new IllegalStateException("shard.count > 1 needs report.journal.enabled=true");
+            }
+            if (!config.isRunCheckpointEnabled()) {
+                throw new IllegalStateException("shard.count > 1 needs run.checkpoint.enabled=true");
+            }
+            resultPublisher = AzureResultPublisher.disabled(azureClient);
+        } else {
+            resultPublisher = new AzureResultPublisher(config, azureClient);
+        }
+        metrics = config.isMetricsEnabled() ? new KeywordMetrics(config) : null;
+        checkpoint = config.isRunCheckpointEnabled() ? new RunCheckpoint(config) : null;
+        durationHistory = new DurationHistory(config);
+        scheduler = TestCaseScheduler.fromConfig(config, durationHistory);
+        if (checkpoint != null && checkpoint.isResuming()) {
+            systemInfo("Resumed", checkpoint.toString());
+        }
     }
 
     @AfterSuite(alwaysRun = true)
     public void afterSuite() {
-        if (dbClient != null) {
-            dbClient.close();
+        // Every step runs even when an earlier one failed, so the report and the Azure results survive
+        List<Exception> failures = new ArrayList<>();
+        teardown(failures, () -> {
+            if (rowRunner != null) {
+                rowRunner.close();
+            }
+        });
+        teardown(failures, () -> {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        });
+        teardown(failures, () -> {
+            if (durationHistory != null) {
+                durationHistory.save();
+            }
+        });
+        teardown(failures, () -> {
+            if (resultPublisher != null) {
+                // Flushes results still queued for Azure
+                resultPublisher.close();
+                if (resultPublisher.isEnabled()) {
+                    systemInfo("Azure results", resultPublisher.toString());
+                }
+            }
+        });
+        teardown(failures, () -> {
+            if (azureClient != null) {
+                systemInfo("Azure HTTP", azureClient.getHttpStats().toString());
+            }
+        });
+        teardown(failures, () -> {
+            if (isoChannel != null) {
+                isoChannel.close();
+                systemInfo("ISO channel", isoChannel.toString());
+            }
+        });
+        teardown(failures, () -> {
+            if (dbClient != null) {
+                systemInfo("DB pool", dbClient.getPoolStats().toString());
+                dbClient.close();
+            }
+        });
+        teardown(failures, () -> {
+            if (metrics != null) {
+                try {
+                    metrics.exportTo(config);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to export keyword metrics", e);
+                }
+            }
+        });
+        teardown(failures, () -> {
+            if (reportSink != null) {
+                // Applies report events still queued for Extent / the journal
+                reportSink.flush();
+                if (reportSink.getFailedCount() > 0 || reportSink.getBlockedCount() > 0
+                        || reportSink.getDroppedCount() > 0) {
+                    systemInfo("Report sink", reportSink.toString());
+                }
+                reportSink.close();
+            }
+        });
+        teardown(failures, () -> {
+            if (reportSink != null && reportSink.isJournaling()) {
+                // The Extent model is built from the journal only now, outside this JVM by default
+                JournalRenderer.render(config);
+            } else if (extent != null) {
+                extent.flush();
+            }
+        });
+        if (!failures.isEmpty()) {
+            IllegalStateException error = new IllegalStateException(
+                    failures.size() + " suite teardown step(s) failed, first: " + failures.get(0).getMessage(),
+                    failures.get(0));
+            failures.subList(1, failures.size()).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    /**
+     * Report-level entry, recorded in order with the report events (journaled when journaling).
+     */
+    private static void systemInfo(String name, String value) {
+        if (reportSink != null) {
+            reportSink.setSystemInfo(name, value);
         }
-        if (extent != null) {
-            extent.flush();
+    }
+
+    private static void teardown(List<Exception> failures, Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            failures.add(e);
         }
     }
 }
@@ -1,80 +1,112 @@
 package com.tests;
 
-import com.aventstack.extentreports.ExtentTest;
-import com.keywords.KeywordContext;
+import com.azure.SuiteCache;
+import com.keywords.ExecutionPlan;
+import com.keywords.IsoSendKeyword;
 import com.keywords.KeywordExecutor;
+import com.keywords.RunCheckpoint;
+import com.model.ExecutionReport;
+import com.model.StepStatus;
+import com.model.TestCaseFilter;
+import com.model.TestCaseSharder;
 import com.model.TestCaseData;
-import com.model.TestStep;
+import com.reporting.ReportNode;
+import org.testng.ITestContext;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 public class KeywordDrivenApiTest extends BaseTest {
 
     private List<TestCaseData> cachedCases;
 
-    @DataProvider(name = "azureTestCases")
-    public Object[][] azureTestCases() throws Exception {
+    @DataProvider(name = "azureTestCases", parallel = true)
+    public Iterator<Object[]> azureTestCases(ITestContext context) throws Exception {
+        // Test cases run on execution.testCaseConcurrency threads (default 1, one after another);
+        // this is the suite-wide data-provider-thread-count, so it replaces testng.xml's
+        context.getSuite().getXmlSuite().setDataProviderThreadCount(config.getTestCaseConcurrency());
         if (cachedCases == null) {
-            cachedCases = azureClient.loadTestCasesFromConfiguredSuite();
+            List<TestCaseData> loaded = config.isAzureCacheEnabled()
+                    ? new SuiteCache(config, azureClient).loadConfiguredTestCases()
+                    : azureClient.loadConfiguredTestCases();
+            // Steps/data rows are parsed lazily, so skipped cases cost no parsing
+            List<TestCaseData> selected = TestCaseFilter.fromConfig(config).apply(loaded);
+            // This JVM's part of the suite when shard.count > 1 (same partition on every shard)
+            cachedCases = TestCaseSharder.fromConfig(config, durationHistory).select(selected);
         }
-        Object[][] data = new Object[cachedCases.size()][1];
-        for (int i = 0; i < cachedCases.size(); i++) {
-            data[i][0] = cachedCases.get(i);
-        }
-        return data;
+        // Longest expected cases first (execution.order), each to the next free test thread
+        return scheduler.dataProvider(cachedCases);
     }
 
     @Test(dataProvider = "azureTestCases")
     public void runAzureTestCase(TestCaseData testCase) {
-        ExtentTest testNode = extent.createTest(
+        RunCheckpoint.CaseState resumed = checkpoint != null ? checkpoint.getResumed(testCase.getId()) : null;
+        if (resumed != null && resumed.isComplete()) {
+            // Finished before the interruption: publish the checkpointed result again instead of rerunning
+            resultPublisher.submit(resumed.toReport(testCase));
+            if (!reportSink.isJournaling()) {
+                // Only the appended-to journal holds the interrupted run's node; otherwise this report starts empty
+                ReportNode testNode = reportSink.createTest(
+                        testCase.getTitle() + " (ID: " + testCase.getId() + ")"
+                );
+                testNode.info("Completed in the interrupted run (" + resumed.getRowCount() + " data row(s)); not run again");
+                if (resumed.getError() != null) {
+                    testNode.fail(resumed.getError());
+                } else {
+                    testNode.pass("Passed in the interrupted run");
+                }
+            }
+            if (resumed.getError() != null) {
+                throw new RuntimeException("Failed in the interrupted run: " + resumed.getError());
+            }
+            return;
+        }
+
+        ReportNode testNode = reportSink.createTest(
                 testCase.getTitle() + " (ID: " + testCase.getId() + ")"
         );
 
         // Create executor and register keywords (you'll add implementations here)
-        KeywordExecutor executor = new KeywordExecutor();
+        KeywordExecutor executor = new KeywordExecutor(metrics);
         // Example (later):
         // executor.register("API_GET", new ApiGetKeywordHandler());
         // executor.register("DB_ASSERT", new DbAssertKeywordHandler());
-
-        List<Map<String, String>> rows = testCase.getDataRows();
-        if (rows.isEmpty()) {
-            rows = Collections.singletonList(Collections.emptyMap());
+        if (isoChannel != null) {
+            executor.register(IsoSendKeyword.KEYWORD, new IsoSendKeyword(isoChannel));
         }
 
-        for (Map<String, String> row : rows) {
-            testNode.info("Executing data row: " + row);
-            for (TestStep step : testCase.getSteps()) {
-                String keyword = extractKeyword(step.getAction());
-                ExtentTest stepNode = testNode.createNode(
-                        "Step " + step.getId() + " [" + keyword + "]"
-                ).info("Action: " + step.getAction() +
-                        "<br/>Expected: " + step.getExpected());
-
-                KeywordContext ctx = new KeywordContext(
-                        testCase,
-                        step,
-                        row,
-                        dbClient,
-                        azureClient,
-                        stepNode
-                );
-
-                executor.execute(keyword, ctx);
+        // Resolve keywords/handlers once; unknown keywords fail here, before any row runs
+        ExecutionPlan plan;
+        try {
+            plan = executor.compile(testCase);
+        } catch (IllegalStateException e) {
+            testNode.fail(e.getMessage());
+            // No row runs, but Azure still gets the failure
+            ExecutionReport failed = ExecutionReport.start(testCase);
+            failed.error = e.getMessage();
+            failed.endTimeMillis = failed.startTimeMillis;
+            resultPublisher.submit(failed);
+            if (checkpoint != null) {
+                // Finished, as far as a resumed run or ShardMerger is concerned
+                checkpoint.caseCompleted(testCase.getId(), e, System.currentTimeMillis());
             }
+            throw e;
         }
-    }
 
-    private String extractKeyword(String action) {
-        if (action == null) {
-            return "";
+        // Step results go to Azure from the publisher's background thread
+        ExecutionReport report = ExecutionReport.start(testCase);
+        try {
+            rowRunner.runAll(plan, testCase.getDataRows(), dbClient, azureClient, testNode, report, checkpoint);
+        } finally {
+            report.endTimeMillis = System.currentTimeMillis();
+            resultPublisher.submit(report);
+            if (resumed == null) {
+                // A resumed case only ran part of its rows; its duration would skew the history
+                durationHistory.record(testCase.getId(), report.getDurationMillis(),
+                        report.getOverallStatus() == StepStatus.FAILED);
+            }
         }
-        // Very simple HTML tag strip + first token logic
-        String cleaned = action.replaceAll("<[^>]+>", " ").trim();
-        String[] parts = cleaned.split("\\s+");
-        return parts.length > 0 ? parts[0] : "";
     }
 }